@@ -0,0 +1,108 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.jayden.study.mysql;
+
+import com.jayden.study.utils.JdbcUtils;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens many connections concurrently and measures the time to the first usable connection: the
+ * time from starting the connect until the first query on the connection has returned. This covers
+ * the handshake, the burst of metadata queries that Connector/J sends on every connect, and the
+ * first round trip to Spanner. The probe query reads a table, as SELECT 1 is answered by the
+ * adapter without a round trip.
+ *
+ * <p>Usage: ConnectionStormBenchmark [url] [user] [password] [connections] [threads]
+ */
+public class ConnectionStormBenchmark {
+
+  private static final String PROBE_QUERY =
+      "SELECT SCHEMA_NAME FROM INFORMATION_SCHEMA.SCHEMATA LIMIT 1";
+
+  private static final String DEFAULT_URL =
+      "jdbc:mysql://localhost:3306/test?useSSL=false&allowPublicKeyRetrieval=true";
+
+  public static void main(String[] args) throws Exception {
+    String url = args.length > 0 ? args[0] : DEFAULT_URL;
+    String user = args.length > 1 ? args[1] : "user";
+    String password = args.length > 2 ? args[2] : "password";
+    int connections = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+    int threads = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+    JdbcUtils.loadDriver();
+
+    // Warm up the adapter and the driver before measuring.
+    runStorm(url, user, password, Math.min(connections, 100), threads);
+    long start = System.nanoTime();
+    List<Long> latencies = runStorm(url, user, password, connections, threads);
+    long elapsedNanos = System.nanoTime() - start;
+
+    Collections.sort(latencies);
+    System.out.printf("Connections: %d, threads: %d%n", latencies.size(), threads);
+    System.out.printf(
+        "Throughput: %.1f connections/s%n",
+        latencies.size() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+    System.out.printf(
+        "Time to first usable connection (ms): p50 %.3f, p90 %.3f, p99 %.3f, max %.3f%n",
+        percentile(latencies, 50),
+        percentile(latencies, 90),
+        percentile(latencies, 99),
+        percentile(latencies, 100));
+  }
+
+  private static List<Long> runStorm(
+      String url, String user, String password, int connections, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Long>> futures = new ArrayList<>(connections);
+      for (int i = 0; i < connections; i++) {
+        futures.add(executor.submit(() -> connectAndQuery(url, user, password)));
+      }
+      List<Long> latencies = new ArrayList<>(connections);
+      for (Future<Long> future : futures) {
+        latencies.add(future.get());
+      }
+      return latencies;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static long connectAndQuery(String url, String user, String password) throws Exception {
+    long start = System.nanoTime();
+    try (Connection connection = JdbcUtils.getConnection(url, user, password);
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(PROBE_QUERY)) {
+      while (resultSet.next()) {
+        resultSet.getString(1);
+      }
+      return System.nanoTime() - start;
+    }
+  }
+
+  private static double percentile(List<Long> sortedLatencies, int percentile) {
+    int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.size()) - 1;
+    long nanos = sortedLatencies.get(Math.max(0, Math.min(index, sortedLatencies.size() - 1)));
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerBatchUpdateException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffers the DML statements of a read/write transaction, so they can be sent to Spanner in one
+ * round trip. The client receives an optimistic update count for each buffered statement. The
+ * batch is executed before any other statement in the transaction and before the commit.
+ */
+@InternalApi
+class AutoDmlBatch {
+  private final long updateCount;
+  private final boolean verifyUpdateCount;
+  private final List<Statement> statements = new ArrayList<>();
+
+  AutoDmlBatch(long updateCount, boolean verifyUpdateCount) {
+    this.updateCount = updateCount;
+    this.verifyUpdateCount = verifyUpdateCount;
+  }
+
+  /** Buffers the given statement and returns the update count that is reported to the client. */
+  long add(Statement statement) {
+    statements.add(statement);
+    return updateCount;
+  }
+
+  boolean isEmpty() {
+    return statements.isEmpty();
+  }
+
+  /** Discards the buffered statements, for example because the transaction is rolled back. */
+  void clear() {
+    statements.clear();
+  }
+
+  /**
+   * Executes the buffered statements on the given connection. The error of a failed batch names
+   * the statement that failed, as the client has already received an update count for it.
+   */
+  void flush(Connection connection) {
+    if (statements.isEmpty()) {
+      return;
+    }
+    List<Statement> batch = new ArrayList<>(statements);
+    statements.clear();
+    long[] updateCounts;
+    try {
+      updateCounts = connection.executeBatchUpdate(batch);
+    } catch (SpannerBatchUpdateException exception) {
+      int index = exception.getUpdateCounts().length;
+      throw SpannerExceptionFactory.newSpannerException(
+          exception.getErrorCode(),
+          String.format(
+              "Batched DML statement %d of %d failed: %s\nStatement: %s",
+              index + 1, batch.size(), exception.getMessage(), batch.get(index).getSql()),
+          exception);
+    }
+    if (verifyUpdateCount) {
+      for (int i = 0; i < updateCounts.length; i++) {
+        if (updateCounts[i] != updateCount) {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.FAILED_PRECONDITION,
+              String.format(
+                  "Batched DML statement %d of %d updated %d rows, but %d was returned to the "
+                      + "client. Roll back the transaction or disable the update count "
+                      + "verification.\nStatement: %s",
+                  i + 1, batch.size(), updateCounts[i], updateCount, batch.get(i).getSql()));
+        }
+      }
+    }
+  }
+}
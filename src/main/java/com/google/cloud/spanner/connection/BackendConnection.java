@@ -16,25 +16,56 @@ package com.google.cloud.spanner.connection;
 
 import com.google.api.core.InternalApi;
 import com.google.auth.Credentials;
+import com.google.cloud.spanner.BatchClient;
+import com.google.cloud.spanner.BatchReadOnlyTransaction;
 import com.google.cloud.spanner.DatabaseId;
 import com.google.cloud.spanner.DatabaseNotFoundException;
 import com.google.cloud.spanner.Dialect;
 import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.InstanceNotFoundException;
+import com.google.cloud.spanner.Partition;
+import com.google.cloud.spanner.PartitionOptions;
+import com.google.cloud.spanner.ReadContext.QueryAnalyzeMode;
+import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.connection.AbstractStatementParser.ParsedStatement;
+import com.google.cloud.spanner.connection.IdleConnectionCache.IdleConnection;
 import com.google.cloud.spanner.myadapter.error.MyException;
 import com.google.cloud.spanner.myadapter.error.SQLState;
 import com.google.cloud.spanner.myadapter.error.Severity;
 import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
+import com.google.cloud.spanner.myadapter.session.ReadStaleness;
 import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionState.SessionVariableType;
+import com.google.cloud.spanner.myadapter.statements.LoadDataStatement;
+import com.google.cloud.spanner.myadapter.statements.OutfileStatement;
 import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.statements.SimpleInsert;
+import com.google.cloud.spanner.myadapter.statements.SimpleInsert.Mode;
+import com.google.cloud.spanner.myadapter.statements.SimpleParser;
+import com.google.cloud.spanner.myadapter.utils.LoadDataResult;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 
 public class BackendConnection {
@@ -42,16 +73,134 @@ public class BackendConnection {
 
   private static final String CHANNEL_PROVIDER_PROPERTY = "CHANNEL_PROVIDER";
 
+  private static final int MAX_CONNECT_THREADS = 16;
+  private static final int MAX_QUEUED_CONNECTS = 256;
+
+  /**
+   * Shared executor for setting up Spanner connections while the client handshake is running. The
+   * number of threads and queued connects is bounded, as clients start a connect before they have
+   * authenticated. When the queue is full, the connect runs on the thread of the client, which
+   * then waits for it before the handshake continues.
+   */
+  private static final ExecutorService CONNECT_EXECUTOR = createConnectExecutor();
+
+  private static ExecutorService createConnectExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            MAX_CONNECT_THREADS,
+            MAX_CONNECT_THREADS,
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_CONNECTS),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("spanner-connect-%d")
+                .build(),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static final AbstractStatementParser PARSER =
+      AbstractStatementParser.getInstance(Dialect.GOOGLE_STANDARD_SQL);
+  private static final String ROLLBACK_KEYWORD = "rollback";
+  private static final String GROUP_COMMIT_VARIABLE = "spanner_group_commit";
+  private static final String PARTITIONED_QUERY_VARIABLE = "spanner_partitioned_query";
+  /** The optimizer hint that executes a single query as a partitioned query. */
+  private static final Pattern PARTITIONED_QUERY_HINT =
+      Pattern.compile("/\\*\\+[^*]*\\bSPANNER_PARTITIONED_QUERY\\b", Pattern.CASE_INSENSITIVE);
+  /** The optimizer hint that sets the staleness of a single query, e.g. (MAX_STALENESS 15s). */
+  private static final Pattern READ_STALENESS_HINT =
+      Pattern.compile(
+          "/\\*\\+[^*]*\\bSPANNER_READ_STALENESS\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+  private static final String UPDATE_KEYWORD = "update";
+  private static final String DELETE_KEYWORD = "delete";
+
   private final OptionsMetadata options;
   private final Properties serverProperties;
-  private Connection spannerConnection;
+  /** Buffered DML statements of the current transaction, or null if DML is not batched. */
+  @Nullable private final AutoDmlBatch autoDmlBatch;
+  /** Writes INSERT, REPLACE and INSERT ... ON DUPLICATE KEY UPDATE statements as mutations. */
+  private final InsertMutationWriter insertMutationWriter;
+  /** Whether plain INSERT statements in autocommit mode may be written as mutations. */
+  private final boolean insertMutations;
+  /** The user that has been authenticated on this connection. */
+  @Nullable private volatile String user;
+  /** Whether the autocommit writes of the authenticated user are always group committed. */
+  private boolean groupCommitUser;
+  /** The staleness of the autocommit queries of the authenticated user, or null for strong. */
+  @Nullable private TimestampBound userReadStaleness;
+  private volatile Connection spannerConnection;
   private DatabaseId databaseId;
+  /**
+   * The access mode of the next transaction that was set with SET TRANSACTION, or null if the next
+   * transaction uses the access mode of the session.
+   */
+  @Nullable private Boolean nextTransactionReadOnly;
+  /** Set when the statement that is executing on this connection is killed. */
+  private volatile boolean cancelled;
+  /** The URI of the current Spanner connection, or null if it may not be shared. */
+  @Nullable private String connectionUri;
+  /** Completes when the connection that was started by {@link #connectToSpannerAsync} is ready. */
+  @Nullable private CompletableFuture<Void> connectFuture;
 
   public BackendConnection(
       OptionsMetadata options, Properties serverProperties, Connection spannerConnection) {
     this.options = options;
     this.serverProperties = serverProperties;
     this.spannerConnection = spannerConnection;
+    this.autoDmlBatch =
+        options.isAutoBatchDml()
+            ? new AutoDmlBatch(
+                options.getAutoBatchDmlUpdateCount(), options.isVerifyAutoBatchDmlUpdateCount())
+            : null;
+    this.insertMutationWriter =
+        new InsertMutationWriter(options.getMaxMutationsPerCommit(), options.getGroupCommitter());
+    this.insertMutations = options.isInsertMutations();
+  }
+
+  /**
+   * Starts connecting to Spanner in the background, so the connection can be set up while the
+   * client is still busy with the handshake. All methods that need the Spanner connection wait
+   * until it is ready.
+   */
+  @InternalApi
+  public void connectToSpannerAsync(String database, @Nullable Credentials credentials) {
+    if (connectFuture != null) {
+      // The connect has already been started, for example before the connection was restarted.
+      return;
+    }
+    connectFuture =
+        CompletableFuture.runAsync(() -> connectToSpanner(database, credentials), CONNECT_EXECUTOR);
+  }
+
+  /**
+   * Returns the Spanner connection, and waits for it if it is still being set up in the
+   * background. Throws the error of the background connect if it failed.
+   */
+  private Connection getSpannerConnection() {
+    if (connectFuture != null && !connectFuture.isDone()) {
+      logger.log(Level.FINE, "Waiting for Spanner connection");
+    }
+    awaitConnection();
+    return spannerConnection;
+  }
+
+  private void awaitConnection() {
+    if (connectFuture == null) {
+      return;
+    }
+    try {
+      connectFuture.get();
+    } catch (ExecutionException executionException) {
+      Throwable cause = executionException.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw SpannerExceptionFactory.asSpannerException(cause);
+    } catch (InterruptedException interruptedException) {
+      throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+    }
   }
 
   @InternalApi
@@ -60,6 +209,45 @@ public class BackendConnection {
         options.hasDefaultConnectionUrl()
             ? options.getDefaultConnectionUrl()
             : options.buildConnectionURL(database);
+    connect(buildUri(uri), credentials);
+  }
+
+  /**
+   * Switches this connection to the given database. The current Spanner connection is returned to
+   * the idle connection cache, and a connection to the new database is taken from the cache or
+   * created if the cache does not contain one. Does nothing if the connection already uses the
+   * given database.
+   */
+  public void switchDatabase(String database) {
+    String uri = buildUri(options.buildConnectionURL(database));
+    try {
+      awaitConnection();
+    } catch (RuntimeException ignore) {
+      // The current connection failed, and is replaced by the new one.
+    }
+    if (uri.equals(connectionUri) && spannerConnection != null) {
+      return;
+    }
+    if (spannerConnection != null
+        && (spannerConnection.isTransactionStarted() || hasBufferedDml())) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION,
+          "Cannot change the database while a transaction is active");
+    }
+    Connection previousConnection = spannerConnection;
+    String previousUri = connectionUri;
+    DatabaseId previousDatabaseId = databaseId;
+    connect(uri, null);
+    connectFuture = null;
+    if (previousConnection != null) {
+      // The new connection continues with the autocommit mode of the session.
+      spannerConnection.setAutocommit(previousConnection.isAutocommit());
+      releaseSpannerConnection(previousUri, previousConnection, previousDatabaseId);
+    }
+  }
+
+  private String buildUri(String connectionUrl) {
+    String uri = connectionUrl;
     if (uri.startsWith("jdbc:")) {
       uri = uri.substring("jdbc:".length());
     }
@@ -82,6 +270,23 @@ public class BackendConnection {
                 + System.getProperty(CHANNEL_PROVIDER_PROPERTY));
       }
     }
+    return uri;
+  }
+
+  /**
+   * Connects to the given URI. An idle connection from the cache is used if there is one, unless
+   * the connection uses specific credentials.
+   */
+  private void connect(String uri, @Nullable Credentials credentials) {
+    IdleConnection idleConnection =
+        credentials == null ? options.getIdleConnectionCache().acquire(uri) : null;
+    if (idleConnection != null) {
+      logger.log(Level.FINE, () -> "Reusing idle Spanner connection for " + uri);
+      this.spannerConnection = idleConnection.getConnection();
+      this.databaseId = idleConnection.getDatabaseId();
+      this.connectionUri = uri;
+      return;
+    }
     ConnectionOptions.Builder connectionOptionsBuilder = ConnectionOptions.newBuilder().setUri(uri);
     if (credentials != null) {
       connectionOptionsBuilder =
@@ -115,11 +320,376 @@ public class BackendConnection {
     }
     this.spannerConnection = spannerConnection;
     this.databaseId = connectionOptions.getDatabaseId();
+    // Connections with specific credentials are not shared with other sessions.
+    this.connectionUri = credentials == null ? uri : null;
   }
 
   public StatementResult executeQuery(
-      Statement statement, ParsedStatement parsedStatement, SessionState sessionState) {
-    return spannerConnection.execute(statement);
+      Statement statement, @Nullable ParsedStatement parsedStatement, SessionState sessionState) {
+    Connection connection = getSpannerConnection();
+    if (parsedStatement == null) {
+      parsedStatement = PARSER.parse(statement);
+    }
+    if (parsedStatement.isDdl()) {
+      InsertMutationWriter.invalidateColumnTypes();
+    } else if (!parsedStatement.isQuery()) {
+      SimpleInsert insert = SimpleInsert.parse(statement);
+      if (insert != null && insert.getMode() != Mode.INSERT) {
+        // REPLACE and ON DUPLICATE KEY UPDATE are not valid GoogleSQL, and are always translated.
+        if (autoDmlBatch != null) {
+          autoDmlBatch.flush(connection);
+        }
+        boolean autocommit = connection.isAutocommit() && !connection.isInTransaction();
+        return new UpdateCount(
+            insertMutationWriter.writeUpsert(connection, databaseId, insert, autocommit));
+      }
+      if (insert != null && insertMutations && canWriteAsMutations(connection, parsedStatement)) {
+        Long updateCount =
+            insertMutationWriter.tryWrite(
+                connection, databaseId, insert, getGroupCommitUri(sessionState));
+        if (updateCount != null) {
+          return new UpdateCount(updateCount);
+        }
+      }
+    }
+    if (autoDmlBatch != null) {
+      if (canBuffer(connection, parsedStatement)) {
+        return new UpdateCount(autoDmlBatch.add(statement));
+      }
+      if (SimpleParser.isCommand(ROLLBACK_KEYWORD, parsedStatement.getSqlWithoutComments())) {
+        autoDmlBatch.clear();
+      } else {
+        autoDmlBatch.flush(connection);
+      }
+    }
+    if (parsedStatement.isQuery() && isPartitionedQuery(connection, statement, sessionState)) {
+      ResultSet resultSet = executePartitionedQuery(connection, statement, sessionState);
+      if (resultSet != null) {
+        return StatementResultImpl.of(resultSet);
+      }
+    }
+    if (parsedStatement.isQuery() && connection.isAutocommit() && !connection.isInTransaction()) {
+      TimestampBound staleness = getReadStaleness(statement, sessionState);
+      if (staleness != null) {
+        return executeStaleQuery(connection, statement, staleness);
+      }
+    }
+    String dmlMode = getAutocommitDmlMode(connection, parsedStatement, sessionState);
+    if (SessionState.PARTITIONED_NON_ATOMIC.equals(dmlMode)) {
+      return new UpdateCount(executePartitionedUpdate(connection, statement));
+    }
+    if (SessionState.TRANSACTIONAL_WITH_FALLBACK_TO_PARTITIONED_NON_ATOMIC.equals(dmlMode)) {
+      try {
+        return connection.execute(statement);
+      } catch (SpannerException exception) {
+        if (!isMutationLimitExceeded(exception)) {
+          throw exception;
+        }
+        // The failed transaction has been rolled back, so the statement can safely be retried.
+        logger.log(Level.INFO, "Statement exceeds the mutation limit, retrying as Partitioned DML");
+        return new UpdateCount(executePartitionedUpdate(connection, statement));
+      }
+    }
+    return connection.execute(statement);
+  }
+
+  /**
+   * Returns the autocommit DML mode of the session if the given statement is an UPDATE or DELETE
+   * statement that is executed in autocommit mode, and otherwise {@link
+   * SessionState#TRANSACTIONAL}. Partitioned DML does not support INSERT statements or a THEN
+   * RETURN clause.
+   */
+  private static String getAutocommitDmlMode(
+      Connection connection, ParsedStatement parsedStatement, SessionState sessionState) {
+    if (!parsedStatement.isUpdate()
+        || parsedStatement.hasReturningClause()
+        || !connection.isAutocommit()
+        || connection.isInTransaction()
+        || connection.isReadOnly()) {
+      return SessionState.TRANSACTIONAL;
+    }
+    String sql = parsedStatement.getSqlWithoutComments();
+    if (!SimpleParser.isCommand(UPDATE_KEYWORD, sql)
+        && !SimpleParser.isCommand(DELETE_KEYWORD, sql)) {
+      return SessionState.TRANSACTIONAL;
+    }
+    return sessionState
+        .get(SessionState.AUTOCOMMIT_DML_MODE_KEYWORD, SessionVariableType.SYSTEM)
+        .getValue();
+  }
+
+  /**
+   * Executes the given statement as Partitioned DML, which is not bound by the mutation limit of a
+   * transaction. The returned update count is a lower bound of the number of affected rows.
+   */
+  private static long executePartitionedUpdate(Connection connection, Statement statement) {
+    logger.log(Level.INFO, () -> "Executing Partitioned DML: " + statement.getSql());
+    long startNanos = System.nanoTime();
+    connection.setAutocommitDmlMode(AutocommitDmlMode.PARTITIONED_NON_ATOMIC);
+    try {
+      long updateCount = connection.executeUpdate(statement);
+      logger.log(
+          Level.INFO,
+          () ->
+              String.format(
+                  "Partitioned DML updated at least %d rows in %d ms",
+                  updateCount,
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+      return updateCount;
+    } finally {
+      connection.setAutocommitDmlMode(AutocommitDmlMode.TRANSACTIONAL);
+    }
+  }
+
+  /**
+   * Returns the staleness of the given autocommit query, or null if it is a strong read. In order
+   * of precedence, the staleness is set by the hint of the query, the spanner_read_staleness
+   * variable of the session, and the configured rules of the user and the database.
+   */
+  @Nullable
+  private TimestampBound getReadStaleness(Statement statement, SessionState sessionState) {
+    TimestampBound staleness;
+    Matcher hint = READ_STALENESS_HINT.matcher(statement.getSql());
+    String value =
+        sessionState
+            .get(SessionState.READ_STALENESS_KEYWORD, SessionVariableType.SYSTEM)
+            .getValue();
+    if (hint.find()) {
+      staleness = ReadStaleness.parse(hint.group(1));
+    } else if (!value.isEmpty()) {
+      staleness = ReadStaleness.parse(value);
+    } else if (userReadStaleness != null) {
+      staleness = userReadStaleness;
+    } else {
+      staleness = options.getDatabaseReadStaleness(databaseId.getDatabase());
+    }
+    if (staleness == null || staleness.getMode() == TimestampBound.Mode.STRONG) {
+      return null;
+    }
+    return staleness;
+  }
+
+  /**
+   * Executes an autocommit query with the given staleness. The staleness is reset afterwards, as
+   * the Spanner connection does not allow bounded staleness outside of autocommit mode.
+   */
+  private static StatementResult executeStaleQuery(
+      Connection connection, Statement statement, TimestampBound staleness) {
+    connection.setReadOnlyStaleness(staleness);
+    try {
+      return connection.execute(statement);
+    } finally {
+      connection.setReadOnlyStaleness(TimestampBound.strong());
+    }
+  }
+
+  /**
+   * Returns true if the given query should be executed as a partitioned query, because the session
+   * has enabled partitioned queries or the query has the SPANNER_PARTITIONED_QUERY hint. Only
+   * queries in autocommit mode can be partitioned.
+   */
+  private static boolean isPartitionedQuery(
+      Connection connection, Statement statement, SessionState sessionState) {
+    if (!connection.isAutocommit() || connection.isInTransaction()) {
+      return false;
+    }
+    return SessionState.ONE.equals(
+            sessionState.get(PARTITIONED_QUERY_VARIABLE, SessionVariableType.SYSTEM).getValue())
+        || PARTITIONED_QUERY_HINT.matcher(statement.getSql()).find();
+  }
+
+  /**
+   * Executes the given query as a partitioned query in a batch read-only transaction with the read
+   * staleness of the session, or a strong one. The partitions are read in parallel and merged into
+   * one result set. Returns null if the query is not root-partitionable or the staleness is
+   * bounded, in which case it should be executed as a normal query.
+   */
+  @Nullable
+  private ResultSet executePartitionedQuery(
+      Connection connection, Statement statement, SessionState sessionState) {
+    TimestampBound staleness = getReadStaleness(statement, sessionState);
+    if (staleness == null) {
+      staleness = TimestampBound.strong();
+    } else if (staleness.getMode() == TimestampBound.Mode.MAX_STALENESS
+        || staleness.getMode() == TimestampBound.Mode.MIN_READ_TIMESTAMP) {
+      // Bounded staleness is only supported for single-use reads.
+      return null;
+    }
+    BatchReadOnlyTransaction transaction =
+        ConnectionOptionsHelper.getSpanner(connection)
+            .getBatchClient(databaseId)
+            .batchReadOnlyTransaction(staleness);
+    List<Partition> partitions;
+    try {
+      partitions = transaction.partitionQuery(PartitionOptions.getDefaultInstance(), statement);
+    } catch (SpannerException exception) {
+      transaction.close();
+      if (exception.getErrorCode() != ErrorCode.INVALID_ARGUMENT) {
+        throw exception;
+      }
+      logger.log(
+          Level.FINE,
+          () -> String.format("Query is not partitionable: %s", exception.getMessage()));
+      return null;
+    }
+    if (partitions.isEmpty()) {
+      transaction.close();
+      return null;
+    }
+    logger.log(
+        Level.FINE, () -> String.format("Executing query in %d partitions", partitions.size()));
+    return new PartitionedResultSet(
+        transaction,
+        partitions,
+        options.getBulkExecutor(),
+        options.getPartitionedQueryConcurrency(),
+        this::isCancelled);
+  }
+
+  private static boolean isMutationLimitExceeded(SpannerException exception) {
+    return exception.getErrorCode() == ErrorCode.INVALID_ARGUMENT
+        && exception.getMessage() != null
+        && exception.getMessage().contains("too many mutations");
+  }
+
+  /**
+   * Returns true if the given statement can be added to the DML batch of the current transaction.
+   * DML that returns rows and DML outside read/write transactions is always executed directly.
+   */
+  private static boolean canBuffer(Connection connection, ParsedStatement parsedStatement) {
+    return parsedStatement.isUpdate()
+        && !parsedStatement.hasReturningClause()
+        && connection.isInTransaction()
+        && !connection.isReadOnly()
+        && connection.getTransactionMode() == TransactionMode.READ_WRITE_TRANSACTION
+        && !connection.isDmlBatchActive();
+  }
+
+  /** Returns true if the given statement may be an INSERT that is committed on its own. */
+  private static boolean canWriteAsMutations(
+      Connection connection, ParsedStatement parsedStatement) {
+    return parsedStatement.isUpdate()
+        && !parsedStatement.hasReturningClause()
+        && connection.isAutocommit()
+        && !connection.isInTransaction()
+        && !connection.isReadOnly()
+        && !connection.isDmlBatchActive();
+  }
+
+  /**
+   * Returns the URI to group commit autocommit writes to if the session or its user has opted in,
+   * or null if the writes are committed by this connection. Connections with specific credentials
+   * are never group committed.
+   */
+  @Nullable
+  private String getGroupCommitUri(SessionState sessionState) {
+    if (connectionUri == null) {
+      return null;
+    }
+    boolean groupCommit =
+        groupCommitUser
+            || SessionState.ONE.equals(
+                sessionState.get(GROUP_COMMIT_VARIABLE, SessionVariableType.SYSTEM).getValue());
+    return groupCommit ? connectionUri : null;
+  }
+
+  /** Sets the user that has been authenticated on this connection. */
+  public void setUser(@Nullable String user) {
+    this.user = user;
+    this.groupCommitUser = options.isGroupCommitUser(user);
+    this.userReadStaleness = options.getUserReadStaleness(user);
+  }
+
+  /** Returns the user that has been authenticated on this connection, or null if there is none. */
+  @Nullable
+  public String getUser() {
+    return user;
+  }
+
+  private boolean hasBufferedDml() {
+    return autoDmlBatch != null && !autoDmlBatch.isEmpty();
+  }
+
+  /**
+   * Executes a LOAD DATA statement with the contents of the given file. The rows are committed in
+   * batches outside of any transaction, so the statement cannot be executed in a transaction.
+   * Timestamps without an offset are in the given time zone of the session.
+   */
+  public LoadDataResult loadData(LoadDataStatement statement, Reader reader, ZoneId timeZone)
+      throws IOException {
+    Connection connection = getSpannerConnection();
+    if (connection.isInTransaction() || hasBufferedDml()) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION, "LOAD DATA is only supported in autocommit mode");
+    }
+    if (connection.isReadOnly()) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION, "LOAD DATA is not supported on a read-only connection");
+    }
+    return new BulkLoader(
+            statement,
+            connectionUri,
+            connection,
+            databaseId,
+            options.getBulkExecutor(),
+            options.getIdleConnectionCache(),
+            options.getLoadDataConcurrency(),
+            options.getMaxMutationsPerCommit(),
+            timeZone,
+            this::isCancelled)
+        .load(reader);
+  }
+
+  /**
+   * Writes the result of a SELECT ... INTO OUTFILE statement to the given file and returns the
+   * number of rows. The query is partitioned and read from a strong snapshot outside of any
+   * transaction, so the statement cannot be executed in a transaction.
+   */
+  public long export(OutfileStatement statement, Path file, ZoneId timeZone) throws IOException {
+    Connection connection = getSpannerConnection();
+    if (connection.isInTransaction() || hasBufferedDml()) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION, "INTO OUTFILE is only supported in autocommit mode");
+    }
+    BatchClient batchClient =
+        ConnectionOptionsHelper.getSpanner(connection).getBatchClient(databaseId);
+    return new PartitionedExporter(
+            batchClient,
+            options.getBulkExecutor(),
+            options.getExportConcurrency(),
+            timeZone,
+            this::isCancelled)
+        .export(statement, file);
+  }
+
+  /**
+   * Analyzes the given query without executing it. The returned result set contains no rows, but
+   * its type describes the columns of the query result.
+   */
+  public ResultSet analyzeQuery(Statement statement) {
+    return getSpannerConnection().analyzeQuery(statement, QueryAnalyzeMode.PLAN);
+  }
+
+  /**
+   * Cancels the statement that is currently executing on this connection. This method may be called
+   * from any thread, and is a no-op if no statement is executing.
+   */
+  public void cancel() {
+    cancelled = true;
+    Connection connection = spannerConnection;
+    if (connection != null) {
+      connection.cancel();
+    }
+  }
+
+  /** Returns true if the current statement has been cancelled by {@link #cancel()}. */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /** Clears the cancelled state before a new statement is executed. */
+  public void clearCancelled() {
+    cancelled = false;
   }
 
   public StatementResult executeSessionStatement(
@@ -129,21 +699,145 @@ public class BackendConnection {
   }
 
   public void terminate() {
-    if (this.spannerConnection != null) {
-      this.spannerConnection.close();
+    if (connectFuture != null && !connectFuture.isDone()) {
+      // Release the connection as soon as the background connect has finished.
+      connectFuture.whenComplete((result, error) -> releaseSpannerConnection());
+      return;
     }
+    releaseSpannerConnection();
+  }
+
+  private synchronized void releaseSpannerConnection() {
+    Connection connection = this.spannerConnection;
+    this.spannerConnection = null;
+    if (autoDmlBatch != null) {
+      autoDmlBatch.clear();
+    }
+    if (connection != null) {
+      releaseSpannerConnection(connectionUri, connection, databaseId);
+    }
+  }
+
+  /**
+   * Returns a connection that is no longer used by this session to the idle connection cache, or
+   * closes it if it cannot be shared with other sessions.
+   */
+  private void releaseSpannerConnection(
+      @Nullable String uri, Connection connection, DatabaseId databaseId) {
+    if (uri == null) {
+      connection.close();
+    } else {
+      options.getIdleConnectionCache().release(uri, connection, databaseId);
+    }
+  }
+
+  /** Returns the id of the database this connection is connected to, or null if not connected. */
+  @Nullable
+  public String getCurrentDatabase() {
+    try {
+      awaitConnection();
+    } catch (RuntimeException ignore) {
+      // The error is returned to the client when it executes a statement on Spanner.
+    }
+    return databaseId == null ? null : databaseId.getDatabase();
   }
 
   public boolean isTransactionActive() {
-    return spannerConnection.isInTransaction();
+    return getSpannerConnection().isInTransaction();
+  }
+
+  /**
+   * Starts a transaction for START TRANSACTION or BEGIN. An active transaction is committed first,
+   * as in MySQL. The transaction is a read-only transaction if readOnly is true, and uses the
+   * access mode of a preceding SET TRANSACTION or of the session if readOnly is null.
+   */
+  public void beginTransaction(@Nullable Boolean readOnly) {
+    Connection connection = getSpannerConnection();
+    if (hasActiveTransaction(connection)) {
+      commit();
+    }
+    Boolean transactionReadOnly = readOnly == null ? nextTransactionReadOnly : readOnly;
+    nextTransactionReadOnly = null;
+    connection.beginTransaction();
+    if (transactionReadOnly != null) {
+      connection.setTransactionMode(toTransactionMode(transactionReadOnly));
+    }
+  }
+
+  /**
+   * Sets the access mode of the next transaction for SET TRANSACTION. In autocommit mode, the
+   * access mode is applied by the next START TRANSACTION.
+   */
+  public void setNextTransactionReadOnly(boolean readOnly) {
+    Connection connection = getSpannerConnection();
+    checkNoActiveTransaction(connection);
+    if (connection.isInTransaction()) {
+      connection.setTransactionMode(toTransactionMode(readOnly));
+    } else {
+      nextTransactionReadOnly = readOnly;
+    }
+  }
+
+  /**
+   * Sets the access mode of the session. Queries of a read-only session are executed in read-only
+   * transactions that take no locks, and writes are rejected.
+   */
+  public void setReadOnly(boolean readOnly) {
+    Connection connection = getSpannerConnection();
+    if (connection.isReadOnly() != readOnly) {
+      checkNoActiveTransaction(connection);
+      connection.setReadOnly(readOnly);
+    }
+  }
+
+  private static TransactionMode toTransactionMode(boolean readOnly) {
+    return readOnly
+        ? TransactionMode.READ_ONLY_TRANSACTION
+        : TransactionMode.READ_WRITE_TRANSACTION;
+  }
+
+  /** Returns true if a transaction has executed statements that have not been committed. */
+  private boolean hasActiveTransaction(Connection connection) {
+    return connection.isInTransaction()
+        && (connection.isTransactionStarted() || hasBufferedDml());
+  }
+
+  private void checkNoActiveTransaction(Connection connection) {
+    if (hasActiveTransaction(connection)) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION,
+          "Transaction characteristics can't be changed while a transaction is in progress");
+    }
   }
 
   public void commit() {
-    spannerConnection.commit();
+    Connection connection = getSpannerConnection();
+    if (autoDmlBatch != null) {
+      autoDmlBatch.flush(connection);
+    }
+    connection.commit();
+  }
+
+  /**
+   * Rolls back any active transaction and restores the default settings of the Spanner connection.
+   * The underlying Spanner connection and its sessions are kept, so a client can reuse this
+   * connection as if it had just connected.
+   */
+  public void resetSession() {
+    Connection connection = getSpannerConnection();
+    if (autoDmlBatch != null) {
+      autoDmlBatch.clear();
+    }
+    if (connection.isInTransaction()) {
+      connection.rollback();
+    }
+    connection.setAutocommit(true);
+    connection.setReadOnly(false);
+    nextTransactionReadOnly = null;
   }
 
   public void setAutocommit(boolean autocommit) {
-    spannerConnection.setAutocommit(autocommit);
+    getSpannerConnection().setAutocommit(autocommit);
   }
 
   private String appendPropertiesToUrl(String url, Properties info) {
@@ -0,0 +1,428 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseId;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.Value;
+import com.google.cloud.spanner.connection.IdleConnectionCache.IdleConnection;
+import com.google.cloud.spanner.connection.InsertMutationWriter.TableColumns;
+import com.google.cloud.spanner.myadapter.statements.LoadDataStatement;
+import com.google.cloud.spanner.myadapter.statements.LoadDataStatement.DuplicateMode;
+import com.google.cloud.spanner.myadapter.utils.LoadDataResult;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Executes a LOAD DATA statement. The file is parsed while it is being read, and the rows are
+ * converted to mutations that are committed in batches that stay below the mutation limit of a
+ * commit. The batches are committed in parallel on the shared bulk executor, using
+ * connections from the idle connection cache, while the next rows are being parsed. Each batch is
+ * committed on its own, so the rows of a statement that fails halfway are partially written.
+ */
+@InternalApi
+class BulkLoader {
+  private static final Logger logger = Logger.getLogger(BulkLoader.class.getName());
+
+  /** The maximum size of the values in one commit. Spanner accepts commits of up to 100MB. */
+  private static final long MAX_BATCH_BYTES = 32L << 20;
+
+  private final LoadDataStatement statement;
+  /** The URI for the connections that write the batches, or null to write on the session. */
+  @Nullable private final String uri;
+
+  private final Connection connection;
+  private final DatabaseId databaseId;
+  /** The shared executor that commits the batches. */
+  private final ExecutorService executor;
+  /** Provides and takes back the connections that write the batches. */
+  private final IdleConnectionCache idleConnectionCache;
+  private final int concurrency;
+  private final int maxMutationsPerCommit;
+  /** The time zone of timestamps without an offset. */
+  private final ZoneId timeZone;
+  private final BooleanSupplier cancelled;
+
+  private final Semaphore permits;
+  private final BlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+  private final AtomicLong rows = new AtomicLong();
+  private final AtomicLong duplicates = new AtomicLong();
+  private final AtomicReference<SpannerException> error = new AtomicReference<>();
+
+  // Only used by the thread that parses the file.
+  private long records;
+  private long skipped;
+  private long warnings;
+
+  BulkLoader(
+      LoadDataStatement statement,
+      @Nullable String uri,
+      Connection connection,
+      DatabaseId databaseId,
+      ExecutorService executor,
+      IdleConnectionCache idleConnectionCache,
+      int concurrency,
+      int maxMutationsPerCommit,
+      ZoneId timeZone,
+      BooleanSupplier cancelled) {
+    this.statement = statement;
+    this.uri = uri;
+    this.connection = connection;
+    this.databaseId = databaseId;
+    this.executor = executor;
+    this.idleConnectionCache = idleConnectionCache;
+    this.concurrency = concurrency;
+    this.maxMutationsPerCommit = maxMutationsPerCommit;
+    this.timeZone = timeZone;
+    this.cancelled = cancelled;
+    this.permits = new Semaphore(concurrency);
+  }
+
+  LoadDataResult load(Reader reader) throws IOException {
+    long startNanos = System.nanoTime();
+    String table = statement.getTable();
+    TableColumns tableColumns = InsertMutationWriter.getTableColumns(connection, databaseId, table);
+    if (tableColumns.columns.isEmpty()) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.NOT_FOUND, "Table not found: " + table);
+    }
+    ImmutableList<String> columns =
+        statement.getColumns().isEmpty() ? tableColumns.columns : lowerCase(statement.getColumns());
+    Code[] types = new Code[columns.size()];
+    for (int i = 0; i < types.length; i++) {
+      if (!tableColumns.columns.contains(columns.get(i))) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.NOT_FOUND,
+            String.format("Unknown column '%s' in 'field list'", columns.get(i)));
+      }
+      types[i] = tableColumns.types.get(columns.get(i));
+      if (types[i] == null) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.UNIMPLEMENTED,
+            String.format("LOAD DATA does not support the type of column '%s'", columns.get(i)));
+      }
+    }
+    int rowsPerBatch = Math.max(1, maxMutationsPerCommit / columns.size());
+    try (CSVParser parser = statement.getFormat().toCsvFormat().parse(reader)) {
+      List<Mutation> batch = new ArrayList<>();
+      long batchBytes = 0L;
+      for (CSVRecord record : parser) {
+        if (cancelled.getAsBoolean()) {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.CANCELLED, "Query execution was interrupted");
+        }
+        if (error.get() != null) {
+          break;
+        }
+        if (record.getRecordNumber() <= statement.getIgnoreLines()) {
+          continue;
+        }
+        records++;
+        Mutation mutation = toMutation(record, columns, types);
+        if (mutation == null) {
+          skipped++;
+          continue;
+        }
+        batch.add(mutation);
+        for (String field : record) {
+          batchBytes += field.length();
+        }
+        if (batch.size() >= rowsPerBatch || batchBytes >= MAX_BATCH_BYTES) {
+          submit(batch);
+          batch = new ArrayList<>();
+          batchBytes = 0L;
+        }
+      }
+      if (!batch.isEmpty() && error.get() == null) {
+        submit(batch);
+      }
+    } finally {
+      awaitWrites();
+    }
+    SpannerException exception = error.get();
+    if (exception != null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          exception.getErrorCode(),
+          String.format(
+              "%s (%d rows have been committed)", exception.getMessage(), rows.get()),
+          exception);
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    LoadDataResult result =
+        new LoadDataResult(
+            records,
+            rows.get(),
+            skipped + duplicates.get(),
+            warnings + duplicates.get(),
+            elapsedMillis);
+    logger.log(
+        Level.INFO,
+        () -> String.format("LOAD DATA into %s: %s", table, result.getInfo()));
+    return result;
+  }
+
+  /**
+   * Converts a record to a mutation. Missing fields are set to NULL and extra fields are ignored,
+   * both with a warning. Returns null with a warning if a field cannot be converted.
+   */
+  @Nullable
+  private Mutation toMutation(CSVRecord record, ImmutableList<String> columns, Code[] types) {
+    if (record.size() != columns.size()) {
+      warnings++;
+    }
+    WriteBuilder builder =
+        statement.getDuplicateMode() == DuplicateMode.REPLACE
+            ? Mutation.newReplaceBuilder(statement.getTable())
+            : Mutation.newInsertBuilder(statement.getTable());
+    for (int i = 0; i < columns.size(); i++) {
+      String column = columns.get(i);
+      String field = i < record.size() ? unescape(record.get(i)) : null;
+      try {
+        builder.set(column).to(toValue(field, types[i]));
+      } catch (IllegalArgumentException | DateTimeParseException exception) {
+        warnings++;
+        logger.log(
+            Level.FINE,
+            () ->
+                String.format(
+                    "Skipping record %d: invalid value for column %s",
+                    record.getRecordNumber(), column));
+        return null;
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Removes the escape sequences of MySQL from a field. Returns null for the NULL marker, which is
+   * the escape character followed by N, or the word NULL if there is no escape character.
+   */
+  @Nullable
+  private String unescape(String field) {
+    Character escape = statement.getFormat().getEscapedBy();
+    if (escape == null) {
+      return "NULL".equals(field) ? null : field;
+    }
+    if (field.length() == 2 && field.charAt(0) == escape && field.charAt(1) == 'N') {
+      return null;
+    }
+    if (field.indexOf(escape) < 0) {
+      return field;
+    }
+    StringBuilder result = new StringBuilder(field.length());
+    for (int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      if (c != escape || i == field.length() - 1) {
+        result.append(c);
+        continue;
+      }
+      char next = field.charAt(++i);
+      switch (next) {
+        case '0':
+          result.append('\0');
+          break;
+        case 'b':
+          result.append('\b');
+          break;
+        case 'n':
+          result.append('\n');
+          break;
+        case 'r':
+          result.append('\r');
+          break;
+        case 't':
+          result.append('\t');
+          break;
+        case 'Z':
+          result.append('\032');
+          break;
+        default:
+          result.append(next);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Converts a field to a value of the given type. Timestamps without an offset are in the time
+   * zone of the session, as in DML.
+   */
+  private Value toValue(@Nullable String field, Code type) {
+    switch (type) {
+      case BOOL:
+        return Value.bool(field == null ? null : parseBool(field.trim()));
+      case INT64:
+        return Value.int64(field == null ? null : Long.parseLong(field.trim()));
+      case FLOAT64:
+        return Value.float64(field == null ? null : Double.parseDouble(field.trim()));
+      case NUMERIC:
+        return Value.numeric(field == null ? null : new BigDecimal(field.trim()));
+      case STRING:
+        return Value.string(field);
+      case DATE:
+        return Value.date(field == null ? null : Date.parseDate(field.trim()));
+      case TIMESTAMP:
+        return Value.timestamp(field == null ? null : parseTimestamp(field.trim()));
+      default:
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+  }
+
+  private static boolean parseBool(String field) {
+    if ("1".equals(field) || "true".equalsIgnoreCase(field)) {
+      return true;
+    }
+    if ("0".equals(field) || "false".equalsIgnoreCase(field)) {
+      return false;
+    }
+    throw new IllegalArgumentException("Invalid boolean value: " + field);
+  }
+
+  private Timestamp parseTimestamp(String field) {
+    String timestamp = field.replace(' ', 'T');
+    int time = timestamp.indexOf('T');
+    if (time < 0) {
+      return toTimestamp(LocalDate.parse(timestamp).atStartOfDay(timeZone).toInstant());
+    }
+    if (timestamp.endsWith("Z")
+        || timestamp.indexOf('+', time) >= 0
+        || timestamp.indexOf('-', time) >= 0) {
+      return Timestamp.parseTimestamp(timestamp);
+    }
+    return toTimestamp(LocalDateTime.parse(timestamp).atZone(timeZone).toInstant());
+  }
+
+  private static Timestamp toTimestamp(Instant instant) {
+    return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+  }
+
+  private static ImmutableList<String> lowerCase(ImmutableList<String> names) {
+    ImmutableList.Builder<String> result = ImmutableList.builder();
+    for (String name : names) {
+      result.add(name.toLowerCase(Locale.ENGLISH));
+    }
+    return result.build();
+  }
+
+  /** Commits a batch, in the background if the loader has its own connections. */
+  private void submit(List<Mutation> batch) {
+    if (uri == null) {
+      write(connection, batch);
+      return;
+    }
+    permits.acquireUninterruptibly();
+    executor.execute(
+        () -> {
+          Connection writer = idleConnections.poll();
+          try {
+            if (writer == null) {
+              writer = acquireConnection();
+            }
+            write(writer, batch);
+          } catch (RuntimeException exception) {
+            error.compareAndSet(null, SpannerExceptionFactory.asSpannerException(exception));
+          } finally {
+            if (writer != null) {
+              idleConnections.add(writer);
+            }
+            permits.release();
+          }
+        });
+  }
+
+  /** Takes an idle connection to the database from the cache, or creates a new one. */
+  private Connection acquireConnection() {
+    IdleConnection idleConnection = idleConnectionCache.acquire(uri);
+    if (idleConnection != null) {
+      return idleConnection.getConnection();
+    }
+    return ConnectionOptions.newBuilder().setUri(uri).build().getConnection();
+  }
+
+  /**
+   * Commits a batch. If the batch contains a row that already exists and duplicates are ignored,
+   * the rows are committed one by one and the duplicate rows are skipped.
+   */
+  private void write(Connection writer, List<Mutation> batch) {
+    try {
+      writer.write(batch);
+      rows.addAndGet(batch.size());
+      return;
+    } catch (SpannerException exception) {
+      if (exception.getErrorCode() != ErrorCode.ALREADY_EXISTS
+          || statement.getDuplicateMode() != DuplicateMode.IGNORE) {
+        error.compareAndSet(null, exception);
+        return;
+      }
+    }
+    for (Mutation mutation : batch) {
+      try {
+        writer.write(mutation);
+        rows.incrementAndGet();
+      } catch (SpannerException exception) {
+        if (exception.getErrorCode() != ErrorCode.ALREADY_EXISTS) {
+          error.compareAndSet(null, exception);
+          return;
+        }
+        duplicates.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Waits until all batches have been committed, and returns the connections of the loader to the
+   * idle connection cache, so the next LOAD DATA statement can reuse them.
+   */
+  private void awaitWrites() {
+    permits.acquireUninterruptibly(concurrency);
+    permits.release(concurrency);
+    for (Connection writer = idleConnections.poll();
+        writer != null;
+        writer = idleConnections.poll()) {
+      idleConnectionCache.release(uri, writer, databaseId);
+    }
+  }
+}
@@ -0,0 +1,314 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Process-wide committer that coalesces small autocommit mutation writes of many sessions into one
+ * Spanner commit. Writes to the same database that arrive within a short window are committed
+ * together. A small pool of threads and connections per database commits the groups, so the next
+ * group is gathered while earlier groups are still being committed. If the combined commit fails,
+ * each write is committed on its own, so every session receives the result of its own write and a
+ * write with an invalid value does not fail the writes of other sessions.
+ */
+@InternalApi
+public class GroupCommitter {
+  private static final Logger logger = Logger.getLogger(GroupCommitter.class.getName());
+
+  /** The interval at which an idle commit thread checks whether the committer has been closed. */
+  private static final long IDLE_POLL_MILLIS = 1000L;
+
+  /** The maximum number of commits per database that are in flight at the same time. */
+  private static final int MAX_CONCURRENT_COMMITS = 4;
+
+  private static final ThreadFactory THREAD_FACTORY =
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("group-commit-%d").build();
+
+  private static final ThreadFactory COMMIT_THREAD_FACTORY =
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("group-commit-worker-%d").build();
+
+  /** A write of one session that is waiting to be committed. */
+  private static final class PendingWrite {
+    final ImmutableList<Mutation> mutations;
+    /** The number of mutations that Spanner counts for this write, which is one per column. */
+    final int mutationCount;
+
+    final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    PendingWrite(ImmutableList<Mutation> mutations) {
+      this.mutations = mutations;
+      int count = 0;
+      for (Mutation mutation : mutations) {
+        count += Iterables.size(mutation.getColumns());
+      }
+      this.mutationCount = count;
+    }
+  }
+
+  private final long windowNanos;
+  private final int maxGroupMutations;
+  private final int maxMutationsPerCommit;
+  /** The queue of each database, keyed by connection URI. */
+  private final Map<String, DatabaseQueue> queues = new ConcurrentHashMap<>();
+
+  private volatile boolean closed;
+
+  public GroupCommitter(long windowMicros, int maxGroupMutations, int maxMutationsPerCommit) {
+    Preconditions.checkArgument(windowMicros >= 0L);
+    Preconditions.checkArgument(maxGroupMutations > 0);
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+    this.maxGroupMutations = maxGroupMutations;
+    this.maxMutationsPerCommit = maxMutationsPerCommit;
+  }
+
+  /**
+   * Writes the given mutations together with the writes of other sessions to the database of the
+   * given connection URI, and waits until they have been committed.
+   */
+  void write(String uri, ImmutableList<Mutation> mutations) {
+    if (closed) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.UNAVAILABLE, "The server is shutting down");
+    }
+    PendingWrite write = new PendingWrite(mutations);
+    queues.computeIfAbsent(uri, DatabaseQueue::new).queue.add(write);
+    if (closed) {
+      // The commit thread may already have stopped.
+      fail(write);
+    }
+    try {
+      write.result.get();
+    } catch (ExecutionException executionException) {
+      throw SpannerExceptionFactory.asSpannerException(executionException.getCause());
+    } catch (InterruptedException interruptedException) {
+      throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+    }
+  }
+
+  /** Stops all commit threads. Writes that are still waiting fail. */
+  public void close() {
+    closed = true;
+    for (DatabaseQueue queue : queues.values()) {
+      queue.thread.interrupt();
+    }
+  }
+
+  /**
+   * The writes to one database, the thread that gathers them into groups, and the threads that
+   * commit the groups.
+   */
+  private final class DatabaseQueue implements Runnable {
+    final String uri;
+    final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    final Thread thread;
+    final ExecutorService committers =
+        Executors.newFixedThreadPool(MAX_CONCURRENT_COMMITS, COMMIT_THREAD_FACTORY);
+    /** A permit for each commit that may be started. Writes queue up while none is available. */
+    final Semaphore commitPermits = new Semaphore(MAX_CONCURRENT_COMMITS);
+    /** The connections that are not used by a commit. */
+    final Queue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+    /** A write that did not fit in the previous group, and that starts the next group. */
+    @Nullable PendingWrite carry;
+
+    DatabaseQueue(String uri) {
+      this.uri = uri;
+      this.thread = THREAD_FACTORY.newThread(this);
+      this.thread.start();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!closed) {
+          commitPermits.acquire();
+          List<PendingWrite> group = nextGroup();
+          if (group.isEmpty()) {
+            commitPermits.release();
+            continue;
+          }
+          committers.execute(
+              () -> {
+                try {
+                  commit(group);
+                } finally {
+                  commitPermits.release();
+                }
+              });
+        }
+      } catch (InterruptedException ignore) {
+        // The committer has been closed.
+      } finally {
+        fail(carry);
+        for (PendingWrite write = queue.poll(); write != null; write = queue.poll()) {
+          fail(write);
+        }
+        // Commits that are in flight finish before the connections are closed.
+        committers.shutdown();
+        try {
+          committers.awaitTermination(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ignore) {
+          // Close the connections anyway.
+        }
+        for (Connection connection = idleConnections.poll();
+            connection != null;
+            connection = idleConnections.poll()) {
+          connection.close();
+        }
+      }
+    }
+
+    /**
+     * Waits for the first write, and then collects the writes that arrive within the window, until
+     * the group contains enough mutations.
+     */
+    private List<PendingWrite> nextGroup() throws InterruptedException {
+      List<PendingWrite> group = new ArrayList<>();
+      PendingWrite first =
+          carry == null ? queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS) : carry;
+      carry = null;
+      if (first == null) {
+        return group;
+      }
+      group.add(first);
+      int mutationCount = first.mutationCount;
+      long deadline = System.nanoTime() + windowNanos;
+      while (mutationCount < maxGroupMutations) {
+        PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (next == null) {
+          break;
+        }
+        if (mutationCount + next.mutationCount > maxMutationsPerCommit) {
+          carry = next;
+          break;
+        }
+        group.add(next);
+        mutationCount += next.mutationCount;
+      }
+      return group;
+    }
+
+    /**
+     * Commits the group on an idle connection. If the combined commit fails, the writes are retried
+     * one by one in parallel on the commit threads.
+     */
+    private void commit(List<PendingWrite> group) {
+      Connection connection;
+      try {
+        connection = acquireConnection();
+      } catch (RuntimeException exception) {
+        SpannerException spannerException = SpannerExceptionFactory.asSpannerException(exception);
+        group.forEach(write -> write.result.completeExceptionally(spannerException));
+        return;
+      }
+      try {
+        if (group.size() == 1) {
+          commitAlone(connection, group.get(0));
+          return;
+        }
+        ImmutableList.Builder<Mutation> mutations = ImmutableList.builder();
+        for (PendingWrite write : group) {
+          mutations.addAll(write.mutations);
+        }
+        connection.write(mutations.build());
+      } catch (RuntimeException exception) {
+        logger.log(
+            Level.FINE,
+            exception,
+            () -> String.format("Group commit of %d writes failed, retrying each", group.size()));
+        commitAlone(connection, group.get(0));
+        for (PendingWrite write : group.subList(1, group.size())) {
+          retry(write);
+        }
+        return;
+      } finally {
+        idleConnections.add(connection);
+      }
+      group.forEach(write -> write.result.complete(null));
+    }
+
+    private void retry(PendingWrite write) {
+      try {
+        committers.execute(
+            () -> {
+              try {
+                Connection connection = acquireConnection();
+                try {
+                  commitAlone(connection, write);
+                } finally {
+                  idleConnections.add(connection);
+                }
+              } catch (RuntimeException exception) {
+                write.result.completeExceptionally(
+                    SpannerExceptionFactory.asSpannerException(exception));
+              }
+            });
+      } catch (RejectedExecutionException exception) {
+        fail(write);
+      }
+    }
+
+    private Connection acquireConnection() {
+      Connection connection = idleConnections.poll();
+      return connection == null
+          ? ConnectionOptions.newBuilder().setUri(uri).build().getConnection()
+          : connection;
+    }
+
+    private void commitAlone(Connection connection, PendingWrite write) {
+      try {
+        connection.write(write.mutations);
+        write.result.complete(null);
+      } catch (RuntimeException exception) {
+        write.result.completeExceptionally(SpannerExceptionFactory.asSpannerException(exception));
+      }
+    }
+  }
+
+  private static void fail(@Nullable PendingWrite write) {
+    if (write != null) {
+      write.result.completeExceptionally(
+          SpannerExceptionFactory.newSpannerException(
+              ErrorCode.UNAVAILABLE, "The server is shutting down"));
+    }
+  }
+}
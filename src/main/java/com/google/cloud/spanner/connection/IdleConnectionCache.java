@@ -0,0 +1,132 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.DatabaseId;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Process-wide cache of idle Spanner connections, keyed by connection URI. A connection that is no
+ * longer used by a client session is returned to the cache and handed to the next session that
+ * needs a connection to the same database, so switching databases or reconnecting does not need to
+ * set up a new connection. The least recently returned connections are closed when the cache is
+ * full.
+ */
+@InternalApi
+public class IdleConnectionCache {
+  private static final Logger logger = Logger.getLogger(IdleConnectionCache.class.getName());
+
+  /** An idle connection together with the id of the database that it is connected to. */
+  public static final class IdleConnection {
+    private final String uri;
+    private final Connection connection;
+    private final DatabaseId databaseId;
+
+    private IdleConnection(String uri, Connection connection, DatabaseId databaseId) {
+      this.uri = uri;
+      this.connection = connection;
+      this.databaseId = databaseId;
+    }
+
+    public Connection getConnection() {
+      return connection;
+    }
+
+    public DatabaseId getDatabaseId() {
+      return databaseId;
+    }
+  }
+
+  private final int maxIdleConnections;
+  /** The idle connections in the order that they were returned. The last one is the most recent. */
+  private final LinkedList<IdleConnection> idleConnections = new LinkedList<>();
+
+  private boolean closed;
+
+  public IdleConnectionCache(int maxIdleConnections) {
+    Preconditions.checkArgument(maxIdleConnections >= 0);
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  /** Returns an idle connection for the given URI, or null if there is none. */
+  @Nullable
+  public synchronized IdleConnection acquire(String uri) {
+    Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+    while (iterator.hasNext()) {
+      IdleConnection idleConnection = iterator.next();
+      if (idleConnection.uri.equals(uri)) {
+        iterator.remove();
+        return idleConnection;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a connection that is no longer used to the cache. Any active transaction is rolled back
+   * and the default settings are restored. The connection is closed instead if it cannot be reset,
+   * or if the cache has been closed.
+   */
+  public void release(String uri, Connection connection, DatabaseId databaseId) {
+    try {
+      if (connection.isInTransaction()) {
+        connection.rollback();
+      }
+      connection.setAutocommit(true);
+      connection.setReadOnly(false);
+    } catch (Exception exception) {
+      logger.log(
+          Level.FINE, exception, () -> "Closing connection that could not be reset: " + uri);
+      connection.close();
+      return;
+    }
+    List<Connection> evicted = new ArrayList<>();
+    synchronized (this) {
+      if (closed) {
+        evicted.add(connection);
+      } else {
+        idleConnections.addLast(new IdleConnection(uri, connection, databaseId));
+        while (idleConnections.size() > maxIdleConnections) {
+          evicted.add(idleConnections.removeFirst().connection);
+        }
+      }
+    }
+    // Close the evicted connections outside the lock, as closing a connection can block.
+    for (Connection evictedConnection : evicted) {
+      evictedConnection.close();
+    }
+  }
+
+  /** Closes all idle connections. Connections that are returned after this are closed directly. */
+  public void close() {
+    List<IdleConnection> connections;
+    synchronized (this) {
+      closed = true;
+      connections = new ArrayList<>(idleConnections);
+      idleConnections.clear();
+    }
+    for (IdleConnection idleConnection : connections) {
+      idleConnection.connection.close();
+    }
+  }
+}
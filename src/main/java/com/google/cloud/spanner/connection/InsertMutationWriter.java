@@ -0,0 +1,327 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.DatabaseId;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.myadapter.statements.SimpleInsert;
+import com.google.cloud.spanner.myadapter.statements.SimpleInsert.Mode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Writes INSERT, REPLACE and INSERT ... ON DUPLICATE KEY UPDATE statements as mutations. A
+ * mutation write is committed in a single round trip, while DML needs one round trip for the
+ * statement and one for the commit. REPLACE and ON DUPLICATE KEY UPDATE statements that cannot be
+ * written as mutations are executed as a sequence of GoogleSQL DML statements.
+ */
+@InternalApi
+class InsertMutationWriter {
+  private static final Logger logger = Logger.getLogger(InsertMutationWriter.class.getName());
+
+  private static final int MAX_CACHED_TABLES = 1000;
+  private static final long TABLE_COLUMNS_EXPIRATION_MINUTES = 5L;
+
+  /** MySQL reports two affected rows for each row that is updated by ON DUPLICATE KEY UPDATE. */
+  private static final long UPDATED_ROW_COUNT = 2L;
+
+  private static final Statement TABLE_COLUMNS_QUERY =
+      Statement.of(
+          "SELECT C.COLUMN_NAME, C.SPANNER_TYPE, I.ORDINAL_POSITION "
+              + "FROM INFORMATION_SCHEMA.COLUMNS C "
+              + "LEFT JOIN INFORMATION_SCHEMA.INDEX_COLUMNS I "
+              + "ON I.TABLE_SCHEMA = C.TABLE_SCHEMA AND I.TABLE_NAME = C.TABLE_NAME "
+              + "AND I.COLUMN_NAME = C.COLUMN_NAME AND I.INDEX_NAME = 'PRIMARY_KEY' "
+              + "WHERE C.TABLE_SCHEMA = '' AND LOWER(C.TABLE_NAME) = LOWER(@table) "
+              + "ORDER BY C.ORDINAL_POSITION");
+
+  /** The columns of a table. All column names are lower case. */
+  static final class TableColumns {
+    /** All columns of the table in table order. */
+    final ImmutableList<String> columns;
+    /** The types of the columns that can be written with mutations. */
+    final ImmutableMap<String, Code> types;
+    /** The primary key columns in key order. */
+    final ImmutableList<String> primaryKey;
+
+    TableColumns(
+        ImmutableList<String> columns,
+        ImmutableMap<String, Code> types,
+        ImmutableList<String> primaryKey) {
+      this.columns = columns;
+      this.types = types;
+      this.primaryKey = primaryKey;
+    }
+  }
+
+  /**
+   * The columns of the tables that statements have been written to, keyed by database and
+   * lower-case table name. Cleared when a DDL statement is executed.
+   */
+  private static final Cache<String, TableColumns> TABLE_COLUMNS =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_TABLES)
+          .expireAfterWrite(TABLE_COLUMNS_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  private final int maxMutationsPerCommit;
+  private final GroupCommitter groupCommitter;
+
+  InsertMutationWriter(int maxMutationsPerCommit, GroupCommitter groupCommitter) {
+    this.maxMutationsPerCommit = maxMutationsPerCommit;
+    this.groupCommitter = groupCommitter;
+  }
+
+  /** Clears the cached table columns, as the schema may have changed. */
+  static void invalidateColumnTypes() {
+    TABLE_COLUMNS.invalidateAll();
+  }
+
+  /**
+   * Writes the given INSERT statement as mutations. Returns the number of inserted rows, or null if
+   * the statement must be executed as DML. The mutations are committed together with the writes of
+   * other sessions if a group commit URI is given.
+   */
+  @Nullable
+  Long tryWrite(
+      Connection connection,
+      DatabaseId databaseId,
+      SimpleInsert insert,
+      @Nullable String groupCommitUri) {
+    String key = cacheKey(databaseId, insert);
+    TableColumns table = getTableColumns(connection, databaseId, insert.getTable());
+    ImmutableList<Mutation> mutations =
+        table.types.isEmpty() ? null : insert.toMutations(table.types);
+    if (mutations == null || !write(connection, groupCommitUri, key, insert, mutations)) {
+      return null;
+    }
+    return (long) mutations.size();
+  }
+
+  /**
+   * Executes a REPLACE or INSERT ... ON DUPLICATE KEY UPDATE statement and returns the number of
+   * affected rows. Statements in autocommit mode that write complete rows are written as blind
+   * mutations, which do not need to read the existing rows. All other statements are executed as
+   * DML in a read/write transaction.
+   */
+  long writeUpsert(
+      Connection connection, DatabaseId databaseId, SimpleInsert insert, boolean autocommit) {
+    String key = cacheKey(databaseId, insert);
+    TableColumns table = getTableColumns(connection, databaseId, insert.getTable());
+    if (table.primaryKey.isEmpty()) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.NOT_FOUND, "Table not found: " + insert.getTable());
+    }
+    // Buffered mutations are not visible to later statements in the same transaction.
+    if (autocommit
+        && !connection.isReadOnly()
+        && (insert.getMode() == Mode.REPLACE
+            || insert.isFullRowUpdate(ImmutableSet.copyOf(table.primaryKey)))) {
+      ImmutableList<Mutation> mutations = insert.toMutations(table.types);
+      if (mutations != null && write(connection, null, key, insert, mutations)) {
+        return mutations.size();
+      }
+    }
+    if (!autocommit) {
+      return executeUpsert(connection, insert, table.primaryKey);
+    }
+    connection.beginTransaction();
+    try {
+      long updateCount = executeUpsert(connection, insert, table.primaryKey);
+      connection.commit();
+      return updateCount;
+    } catch (RuntimeException exception) {
+      if (connection.isInTransaction()) {
+        connection.rollback();
+      }
+      throw exception;
+    }
+  }
+
+  /**
+   * Executes a REPLACE or ON DUPLICATE KEY UPDATE statement row by row in the current transaction.
+   * The update count of the UPDATE statement shows whether a row already existed, so the rows do
+   * not need to be read first.
+   */
+  private static long executeUpsert(
+      Connection connection, SimpleInsert insert, ImmutableList<String> primaryKey) {
+    long updateCount = 0L;
+    if (insert.getMode() == Mode.REPLACE) {
+      ImmutableList.Builder<Statement> batch = ImmutableList.builder();
+      for (int row = 0; row < insert.getRowCount(); row++) {
+        batch.add(requireKey(insert.deleteRow(row, primaryKey), insert)).add(insert.insertRow(row));
+      }
+      for (long rowCount : connection.executeBatchUpdate(batch.build())) {
+        updateCount += rowCount;
+      }
+      return updateCount;
+    }
+    for (int row = 0; row < insert.getRowCount(); row++) {
+      Statement update = requireKey(insert.updateRow(row, primaryKey), insert);
+      if (connection.executeUpdate(update) > 0L) {
+        updateCount += UPDATED_ROW_COUNT;
+      } else {
+        updateCount += connection.executeUpdate(insert.insertRow(row));
+      }
+    }
+    return updateCount;
+  }
+
+  private static Statement requireKey(@Nullable Statement statement, SimpleInsert insert) {
+    if (statement == null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.INVALID_ARGUMENT,
+          "The column list must contain all primary key columns of " + insert.getTable());
+    }
+    return statement;
+  }
+
+  /**
+   * Writes the given mutations in chunks that stay below the mutation limit of a commit. Returns
+   * false if the first chunk failed because of a schema or value error. Nothing has been written
+   * in that case, so the statement can safely be executed as DML, which also returns the same
+   * error as DML would for invalid values.
+   */
+  private boolean write(
+      Connection connection,
+      @Nullable String groupCommitUri,
+      String key,
+      SimpleInsert insert,
+      ImmutableList<Mutation> mutations) {
+    // Each row contains one mutation per column. Index entries are not counted, which the margin
+    // in the default limit accounts for.
+    int rowsPerCommit = Math.max(1, maxMutationsPerCommit / insert.getColumns().size());
+    for (int start = 0; start < mutations.size(); start += rowsPerCommit) {
+      ImmutableList<Mutation> chunk =
+          mutations.subList(start, Math.min(mutations.size(), start + rowsPerCommit));
+      try {
+        if (groupCommitUri == null) {
+          connection.write(chunk);
+        } else {
+          groupCommitter.write(groupCommitUri, chunk);
+        }
+      } catch (SpannerException exception) {
+        if (start == 0 && isSchemaError(exception)) {
+          TABLE_COLUMNS.invalidate(key);
+          logger.log(Level.FINE, exception, () -> "Falling back to DML for " + insert.getTable());
+          return false;
+        }
+        if (start == 0) {
+          throw exception;
+        }
+        throw SpannerExceptionFactory.newSpannerException(
+            exception.getErrorCode(),
+            String.format(
+                "%s (the first %d rows of the statement have been committed)",
+                exception.getMessage(), start),
+            exception);
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSchemaError(SpannerException exception) {
+    return exception.getErrorCode() == ErrorCode.INVALID_ARGUMENT
+        || exception.getErrorCode() == ErrorCode.FAILED_PRECONDITION
+        || exception.getErrorCode() == ErrorCode.NOT_FOUND;
+  }
+
+  private static String cacheKey(DatabaseId databaseId, SimpleInsert insert) {
+    return cacheKey(databaseId, insert.getTable());
+  }
+
+  private static String cacheKey(DatabaseId databaseId, String table) {
+    return databaseId.getName() + "/" + table.toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Returns the columns of the table, which are empty if the table does not exist. The columns are
+   * read in a single-use read-only transaction, so the lookup never becomes part of a read/write
+   * transaction on the connection and does not take any locks.
+   */
+  static TableColumns getTableColumns(Connection connection, DatabaseId databaseId, String table) {
+    String key = cacheKey(databaseId, table);
+    TableColumns columns = TABLE_COLUMNS.getIfPresent(key);
+    if (columns != null) {
+      return columns;
+    }
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    ImmutableMap.Builder<String, Code> types = ImmutableMap.builder();
+    TreeMap<Long, String> primaryKey = new TreeMap<>();
+    try (ResultSet resultSet =
+        ConnectionOptionsHelper.getSpanner(connection)
+            .getDatabaseClient(databaseId)
+            .singleUse()
+            .executeQuery(TABLE_COLUMNS_QUERY.toBuilder().bind("table").to(table).build())) {
+      while (resultSet.next()) {
+        String name = resultSet.getString(0).toLowerCase(Locale.ENGLISH);
+        names.add(name);
+        Code code = toCode(resultSet.getString(1));
+        if (code != null) {
+          types.put(name, code);
+        }
+        if (!resultSet.isNull(2)) {
+          primaryKey.put(resultSet.getLong(2), name);
+        }
+      }
+    }
+    columns =
+        new TableColumns(
+            names.build(), types.build(), ImmutableList.copyOf(primaryKey.values()));
+    TABLE_COLUMNS.put(key, columns);
+    return columns;
+  }
+
+  /** Converts a type from INFORMATION_SCHEMA.COLUMNS to a type code, if mutations support it. */
+  @Nullable
+  private static Code toCode(String spannerType) {
+    int length = spannerType.indexOf('(');
+    String name = length < 0 ? spannerType : spannerType.substring(0, length);
+    switch (name) {
+      case "BOOL":
+        return Code.BOOL;
+      case "INT64":
+        return Code.INT64;
+      case "FLOAT64":
+        return Code.FLOAT64;
+      case "NUMERIC":
+        return Code.NUMERIC;
+      case "STRING":
+        return Code.STRING;
+      case "DATE":
+        return Code.DATE;
+      case "TIMESTAMP":
+        return Code.TIMESTAMP;
+      default:
+        return null;
+    }
+  }
+}
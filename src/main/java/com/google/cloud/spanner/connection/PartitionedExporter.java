@@ -0,0 +1,327 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.BatchClient;
+import com.google.cloud.spanner.BatchReadOnlyTransaction;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Partition;
+import com.google.cloud.spanner.PartitionOptions;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.myadapter.statements.FileFormat;
+import com.google.cloud.spanner.myadapter.statements.OutfileStatement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/**
+ * Executes a SELECT ... INTO OUTFILE statement. The query is split into partitions that are read
+ * in parallel from the same read-only snapshot. Each partition is written to a part file next to
+ * the target file, and the parts are appended to the target file in partition order when all of
+ * them are done. Queries that cannot be partitioned are written as a single part.
+ *
+ * <p>Values are written in the text format of MySQL, so the file can be loaded with LOAD DATA.
+ * Strings are written as UTF-8 and BYTES values as their raw bytes. The parts are written byte for
+ * byte as ISO-8859-1 characters for that reason, which requires ASCII field and line separators.
+ */
+@InternalApi
+class PartitionedExporter {
+  private static final Logger logger = Logger.getLogger(PartitionedExporter.class.getName());
+
+  private static final DateTimeFormatter DATETIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+  private static final DateTimeFormatter DATETIME_MICROS_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+  private final BatchClient batchClient;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final BooleanSupplier cancelled;
+  /** The time zone that timestamps are written in. */
+  private final ZoneId timeZone;
+
+  /** Creates an exporter that reads the parts on the given shared executor. */
+  PartitionedExporter(
+      BatchClient batchClient,
+      ExecutorService executor,
+      int concurrency,
+      ZoneId timeZone,
+      BooleanSupplier cancelled) {
+    this.batchClient = batchClient;
+    this.executor = executor;
+    this.permits = new Semaphore(concurrency);
+    this.timeZone = timeZone;
+    this.cancelled = cancelled;
+  }
+
+  /** Writes the result of the query to the given file and returns the number of rows. */
+  long export(OutfileStatement statement, Path file) throws IOException {
+    long startNanos = System.nanoTime();
+    try {
+      Files.createFile(file);
+    } catch (FileAlreadyExistsException exception) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.ALREADY_EXISTS,
+          String.format("File '%s' already exists", statement.getFileName()));
+    }
+    CSVFormat format = buildFormat(statement.getFormat());
+    List<Path> parts = new ArrayList<>();
+    boolean success = false;
+    try (BatchReadOnlyTransaction transaction =
+        batchClient.batchReadOnlyTransaction(TimestampBound.strong())) {
+      List<Partition> partitions = partition(transaction, statement.getQuery());
+      List<Future<Long>> results = new ArrayList<>();
+      try {
+        if (partitions == null) {
+          Path part = createPart(file, parts);
+          results.add(
+              submit(() -> write(transaction.executeQuery(statement.getQuery()), part, format)));
+        } else {
+          for (Partition partition : partitions) {
+            Path part = createPart(file, parts);
+            results.add(submit(() -> write(transaction.execute(partition), part, format)));
+          }
+        }
+      } finally {
+        // All submitted parts must be finished before the transaction is closed.
+        awaitAll(results);
+      }
+      long rows = 0L;
+      for (Future<Long> result : results) {
+        rows += getResult(result);
+      }
+      merge(parts, file);
+      success = true;
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+      long exportedRows = rows;
+      logger.log(
+          Level.INFO,
+          () ->
+              String.format(
+                  "Exported %d rows in %d parts to %s in %d ms",
+                  exportedRows, parts.size(), file, elapsedMillis));
+      return rows;
+    } finally {
+      for (Path part : parts) {
+        Files.deleteIfExists(part);
+      }
+      if (!success) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  /** Returns the partitions of the query, or null if the query cannot be partitioned. */
+  @Nullable
+  private static List<Partition> partition(BatchReadOnlyTransaction transaction, Statement query) {
+    try {
+      return transaction.partitionQuery(PartitionOptions.getDefaultInstance(), query);
+    } catch (SpannerException exception) {
+      if (exception.getErrorCode() != ErrorCode.INVALID_ARGUMENT) {
+        throw exception;
+      }
+      logger.log(
+          Level.FINE,
+          () -> String.format("Query is not partitionable: %s", exception.getMessage()));
+      return null;
+    }
+  }
+
+  private static Path createPart(Path file, List<Path> parts) throws IOException {
+    Path part =
+        Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".part");
+    parts.add(part);
+    return part;
+  }
+
+  /** Submits a part when a permit is available, so at most concurrency parts are read at once. */
+  private Future<Long> submit(PartWriter writer) {
+    permits.acquireUninterruptibly();
+    try {
+      return executor.submit(
+          () -> {
+            try {
+              return writer.write();
+            } finally {
+              permits.release();
+            }
+          });
+    } catch (RuntimeException exception) {
+      permits.release();
+      throw exception;
+    }
+  }
+
+  private long write(ResultSet resultSet, Path part, CSVFormat format) throws IOException {
+    try (ResultSet rows = resultSet;
+        Writer writer = Files.newBufferedWriter(part, ISO_8859_1);
+        CSVPrinter printer = new CSVPrinter(writer, format)) {
+      long count = 0L;
+      while (rows.next()) {
+        if (cancelled.getAsBoolean()) {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.CANCELLED, "Query execution was interrupted");
+        }
+        for (int i = 0; i < rows.getColumnCount(); i++) {
+          printer.print(getValue(rows, i));
+        }
+        printer.println();
+        count++;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Returns the value of a column as it is written to the file, in the text format of MySQL.
+   * Numbers and booleans are returned as numbers, so they are not enclosed when the file format
+   * encloses fields optionally. Text is returned with one character per byte of its encoding.
+   */
+  @Nullable
+  private Object getValue(ResultSet resultSet, int index) {
+    if (resultSet.isNull(index)) {
+      return null;
+    }
+    switch (resultSet.getColumnType(index).getCode()) {
+      case BOOL:
+        return resultSet.getBoolean(index) ? 1L : 0L;
+      case INT64:
+        return resultSet.getLong(index);
+      case FLOAT64:
+        return resultSet.getDouble(index);
+      case NUMERIC:
+        return resultSet.getBigDecimal(index);
+      case BYTES:
+        return new String(resultSet.getBytes(index).toByteArray(), ISO_8859_1);
+      case TIMESTAMP:
+        return formatTimestamp(resultSet.getTimestamp(index));
+      case STRING:
+        return toBytes(resultSet.getString(index));
+      default:
+        return toBytes(resultSet.getValue(index).toString());
+    }
+  }
+
+  /**
+   * Formats a timestamp as a DATETIME in the time zone of the session, with microseconds if the
+   * timestamp has a fraction.
+   */
+  private String formatTimestamp(Timestamp timestamp) {
+    LocalDateTime dateTime =
+        LocalDateTime.ofInstant(
+            Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()), timeZone);
+    return (timestamp.getNanos() == 0 ? DATETIME_FORMATTER : DATETIME_MICROS_FORMATTER)
+        .format(dateTime);
+  }
+
+  /** Returns the UTF-8 encoding of the given text with one character per byte. */
+  private static String toBytes(String text) {
+    return new String(text.getBytes(UTF_8), ISO_8859_1);
+  }
+
+  /** Appends the parts to the file in order. */
+  private static void merge(List<Path> parts, Path file) throws IOException {
+    try (FileChannel target = FileChannel.open(file, StandardOpenOption.APPEND)) {
+      for (Path part : parts) {
+        try (FileChannel source = FileChannel.open(part, StandardOpenOption.READ)) {
+          long size = source.size();
+          long transferred = 0L;
+          while (transferred < size) {
+            transferred += source.transferTo(transferred, size - transferred, target);
+          }
+        }
+      }
+    }
+  }
+
+  private static void awaitAll(List<Future<Long>> results) {
+    for (Future<Long> result : results) {
+      try {
+        result.get();
+      } catch (ExecutionException exception) {
+        // The error is reported by getResult.
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw SpannerExceptionFactory.propagateInterrupt(exception);
+      }
+    }
+  }
+
+  private static long getResult(Future<Long> result) throws IOException {
+    try {
+      return result.get();
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      throw SpannerExceptionFactory.asSpannerException(cause);
+    } catch (InterruptedException exception) {
+      throw SpannerExceptionFactory.propagateInterrupt(exception);
+    }
+  }
+
+  /**
+   * Returns the CSV format that writes the file format of the statement. Fields are escaped with
+   * the escape character of the statement if they are not enclosed, as in MySQL.
+   */
+  private static CSVFormat buildFormat(FileFormat fileFormat) {
+    CSVFormat.Builder builder =
+        fileFormat.toCsvFormat().builder().setNullString(fileFormat.getNullString());
+    if (fileFormat.getEnclosedBy() == null) {
+      builder.setEscape(fileFormat.getEscapedBy());
+    }
+    return builder.build();
+  }
+
+  /** Writes one part and returns the number of rows. */
+  private interface PartWriter {
+    long write() throws IOException;
+  }
+}
@@ -0,0 +1,212 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.connection;
+
+import com.google.cloud.spanner.BatchReadOnlyTransaction;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.ForwardingStructReader;
+import com.google.cloud.spanner.Partition;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.common.base.Preconditions;
+import com.google.spanner.v1.ResultSetStats;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * Merges the results of the partitions of a query into one result set. At most concurrency
+ * partitions are read at once, and the next partition is started when one of them is done. The
+ * rows are returned in the order in which they are received, so the result has no defined order.
+ * The transaction is closed when all partitions have been read or when the result set is closed.
+ */
+class PartitionedResultSet extends ForwardingStructReader implements ResultSet {
+  /** The maximum number of rows that the partitions may read ahead of the client. */
+  private static final int QUEUE_CAPACITY = 1024;
+
+  /** Marks the end of a partition in the queue. */
+  private static final Object END_OF_PARTITION = new Object();
+
+  private final BatchReadOnlyTransaction transaction;
+  private final List<Partition> partitions;
+  private final ExecutorService executor;
+  private final BooleanSupplier cancelled;
+  private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final AtomicReference<Type> type = new AtomicReference<>();
+  private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+  /** The row that the getters of the struct reader return. Only updated by {@link #next()}. */
+  private final AtomicReference<Struct> currentRow;
+
+  private volatile boolean closed;
+  private int started;
+  private int finished;
+
+  /**
+   * Starts reading the given partitions on the given shared executor. The result set takes
+   * ownership of the transaction, and closes it when it is done.
+   */
+  PartitionedResultSet(
+      BatchReadOnlyTransaction transaction,
+      List<Partition> partitions,
+      ExecutorService executor,
+      int concurrency,
+      BooleanSupplier cancelled) {
+    this(transaction, partitions, executor, cancelled, new AtomicReference<>());
+    while (started < Math.min(concurrency, partitions.size())) {
+      startNextPartition();
+    }
+  }
+
+  private PartitionedResultSet(
+      BatchReadOnlyTransaction transaction,
+      List<Partition> partitions,
+      ExecutorService executor,
+      BooleanSupplier cancelled,
+      AtomicReference<Struct> currentRow) {
+    super(currentRow::get);
+    this.transaction = transaction;
+    this.partitions = partitions;
+    this.executor = executor;
+    this.cancelled = cancelled;
+    this.currentRow = currentRow;
+  }
+
+  private void startNextPartition() {
+    Partition partition = partitions.get(started++);
+    executor.execute(() -> readPartition(partition));
+  }
+
+  private void readPartition(Partition partition) {
+    try (ResultSet resultSet = transaction.execute(partition)) {
+      while (!closed && resultSet.next()) {
+        if (cancelled.getAsBoolean()) {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.CANCELLED, "Query execution was interrupted");
+        }
+        type.compareAndSet(null, resultSet.getType());
+        put(resultSet.getCurrentRowAsStruct());
+      }
+      if (!closed) {
+        type.compareAndSet(null, resultSet.getType());
+      }
+    } catch (Throwable throwable) {
+      error.compareAndSet(null, throwable);
+    } finally {
+      put(END_OF_PARTITION);
+    }
+  }
+
+  /** Adds an element to the queue, unless the result set is closed while the queue is full. */
+  private void put(Object element) {
+    try {
+      while (!closed && !queue.offer(element, 100L, TimeUnit.MILLISECONDS)) {
+        // Wait until the client has read more rows.
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean next() throws SpannerException {
+    while (true) {
+      Throwable throwable = error.get();
+      if (throwable != null) {
+        close();
+        throw SpannerExceptionFactory.asSpannerException(throwable);
+      }
+      if (finished == partitions.size()) {
+        currentRow.set(null);
+        close();
+        return false;
+      }
+      Preconditions.checkState(!closed, "This result set has been closed");
+      Object element;
+      try {
+        element = queue.take();
+      } catch (InterruptedException exception) {
+        close();
+        throw SpannerExceptionFactory.propagateInterrupt(exception);
+      }
+      if (element == END_OF_PARTITION) {
+        finished++;
+        if (started < partitions.size()) {
+          startNextPartition();
+        }
+      } else {
+        currentRow.set((Struct) element);
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public Struct getCurrentRowAsStruct() {
+    Struct row = currentRow.get();
+    Preconditions.checkState(row != null, "There is no current row");
+    return row;
+  }
+
+  @Override
+  public Type getType() {
+    Type result = type.get();
+    Preconditions.checkState(result != null, "The type is only known after next() is called");
+    return result;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return getType().getStructFields().size();
+  }
+
+  @Override
+  public int getColumnIndex(String columnName) {
+    return getType().getFieldIndex(columnName);
+  }
+
+  @Override
+  public Type getColumnType(int columnIndex) {
+    return getType().getStructFields().get(columnIndex).getType();
+  }
+
+  @Override
+  public Type getColumnType(String columnName) {
+    return getColumnType(getColumnIndex(columnName));
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      queue.clear();
+      transaction.close();
+    }
+  }
+
+  @Nullable
+  @Override
+  public ResultSetStats getStats() {
+    return null;
+  }
+}
@@ -36,7 +36,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.net.ssl.SSLSocketFactory;
+import javax.annotation.Nullable;
 
 /**
  * Handles a connection from a client to Spanner. This {@link ConnectionHandler} uses {@link
@@ -93,12 +93,7 @@ public class ConnectionHandler extends Thread {
     this.options = server.getOptions();
     this.backendConnection =
         new BackendConnection(options, server.getProperties(), spannerConnection);
-    this.sessionState = new SessionState();
-  }
-
-  void createSSLSocket() throws IOException {
-    this.socket =
-        ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, null, true);
+    this.sessionState = new SessionState(connectionId);
   }
 
   /**
@@ -126,7 +121,12 @@ public class ConnectionHandler extends Thread {
         new ConnectionMetadata(this.socket.getInputStream(), this.socket.getOutputStream())) {
       this.connectionMetadata = connectionMetadata;
       this.wireHandler =
-          new WireProtocolHandler(connectionMetadata, sessionState, backendConnection, options);
+          new WireProtocolHandler(
+              connectionMetadata,
+              sessionState,
+              backendConnection,
+              options,
+              this::watchForDisconnect);
 
       try {
         wireHandler.run();
@@ -164,6 +164,7 @@ public class ConnectionHandler extends Thread {
                   String.format(
                       "Exception while closing connection handler with ID %s", getName()));
         }
+        CONNECTION_HANDLERS.remove(this.connectionId);
         this.server.deregister(this);
         logger.log(
             Level.INFO, () -> String.format("Connection handler with ID %s closed", getName()));
@@ -200,6 +201,59 @@ public class ConnectionHandler extends Thread {
     }
   }
 
+  /**
+   * Starts watching the socket of this connection for a disconnect of the client while a command
+   * is executed. The statement that is executing is cancelled if the client disconnects.
+   */
+  private DisconnectWatcher.Watch watchForDisconnect() {
+    return server
+        .getDisconnectWatcher()
+        .watch(
+            socket,
+            connectionMetadata.getInputStream(),
+            () -> {
+              logger.log(
+                  Level.INFO,
+                  () -> String.format("Client of connection %d disconnected", connectionId));
+              killConnection();
+            });
+  }
+
+  /** Returns the handler of the connection with the given id, or null if there is none. */
+  @Nullable
+  public static ConnectionHandler getConnectionHandler(int connectionId) {
+    return CONNECTION_HANDLERS.get(connectionId);
+  }
+
+  /** Returns the user that has been authenticated on this connection, or null if there is none. */
+  @Nullable
+  public String getUser() {
+    return backendConnection.getUser();
+  }
+
+  /** Cancels the statement that this connection is executing, without closing the connection. */
+  public void killQuery() {
+    logger.log(Level.INFO, () -> String.format("Killing query of connection %d", connectionId));
+    backendConnection.cancel();
+  }
+
+  /**
+   * Cancels the statement that this connection is executing and closes its socket. The thread of
+   * this handler then stops waiting for the client and releases the Spanner connection.
+   */
+  public void killConnection() {
+    logger.log(Level.INFO, () -> String.format("Killing connection %d", connectionId));
+    backendConnection.cancel();
+    try {
+      socket.close();
+    } catch (IOException exception) {
+      logger.log(
+          Level.WARNING,
+          exception,
+          () -> String.format("Failed to close socket of connection %d", connectionId));
+    }
+  }
+
   /**
    * Takes an Exception Object and relates its results to the user within the client.
    *
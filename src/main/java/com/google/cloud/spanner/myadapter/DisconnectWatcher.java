@@ -0,0 +1,164 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter;
+
+import com.google.api.core.InternalApi;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Detects clients that disconnect while their connection is executing a statement. A client does
+ * not send anything while it waits for a result, so the connection handler only notices a
+ * disconnect when it writes the result or reads the next command. This watcher periodically peeks
+ * at the sockets of the connections that are executing a statement, so the statement can be
+ * cancelled as soon as the client is gone.
+ *
+ * <p>A socket without buffered data can only be checked with a short blocking read, so the checks
+ * are spread over a pool of threads. A sweep over many connections then takes the peek timeout
+ * times the number of connections divided by the number of threads.
+ */
+@InternalApi
+public class DisconnectWatcher implements AutoCloseable {
+  private static final Logger logger = Logger.getLogger(DisconnectWatcher.class.getName());
+
+  /** The time that a check waits for data on the socket of a connection. */
+  private static final int PEEK_TIMEOUT_MILLIS = 1;
+
+  /** The number of threads that run the checks. */
+  private static final int WATCHER_THREADS = 8;
+
+  private final long intervalMillis;
+  /** The executor that runs the checks, or null if disconnect detection is disabled. */
+  @Nullable private final ScheduledThreadPoolExecutor executor;
+
+  /** Creates a watcher that checks connections at the given interval. Zero disables the checks. */
+  public DisconnectWatcher(long intervalMillis) {
+    this.intervalMillis = intervalMillis;
+    if (intervalMillis == 0L) {
+      this.executor = null;
+    } else {
+      this.executor =
+          new ScheduledThreadPoolExecutor(
+              WATCHER_THREADS,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("disconnect-watcher-%d")
+                  .build());
+      // Most statements finish before their first check, so cancelled checks are removed directly.
+      this.executor.setRemoveOnCancelPolicy(true);
+    }
+  }
+
+  /**
+   * Starts watching the given socket. The returned {@link Watch} must be closed before the
+   * connection handler reads from the input stream again. The onDisconnect callback is invoked at
+   * most once, from the watcher thread.
+   */
+  public Watch watch(Socket socket, DataInputStream inputStream, Runnable onDisconnect) {
+    Watch watch = new Watch(socket, inputStream, onDisconnect);
+    if (executor != null) {
+      watch.future =
+          executor.scheduleWithFixedDelay(
+              watch::check, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    return watch;
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Watches the socket of one connection while that connection executes a statement. */
+  public static final class Watch implements AutoCloseable {
+    private final Socket socket;
+    private final DataInputStream inputStream;
+    private final Runnable onDisconnect;
+    private volatile ScheduledFuture<?> future;
+    private boolean closed;
+
+    private Watch(Socket socket, DataInputStream inputStream, Runnable onDisconnect) {
+      this.socket = socket;
+      this.inputStream = inputStream;
+      this.onDisconnect = onDisconnect;
+    }
+
+    /**
+     * Peeks at the next byte of the input stream. Any data that the client has already sent, such
+     * as a pipelined command, is kept in the buffer of the stream for the connection handler.
+     */
+    private synchronized void check() {
+      if (closed) {
+        return;
+      }
+      boolean disconnected;
+      try {
+        if (inputStream.available() > 0) {
+          // The client has sent data, such as a pipelined command, so it is still connected.
+          return;
+        }
+        int originalTimeout = socket.getSoTimeout();
+        socket.setSoTimeout(PEEK_TIMEOUT_MILLIS);
+        try {
+          inputStream.mark(1);
+          disconnected = inputStream.read() < 0;
+          if (!disconnected) {
+            inputStream.reset();
+          }
+        } catch (SocketTimeoutException ignore) {
+          // The client is still connected, but has not sent anything.
+          disconnected = false;
+        } finally {
+          if (!socket.isClosed()) {
+            socket.setSoTimeout(originalTimeout);
+          }
+        }
+      } catch (IOException exception) {
+        disconnected = true;
+      }
+      if (disconnected) {
+        logger.log(Level.INFO, () -> "Client disconnected while executing a statement");
+        closed = true;
+        if (future != null) {
+          future.cancel(false);
+        }
+        onDisconnect.run();
+      }
+    }
+
+    /** Stops watching the socket. Waits for a check that is in progress to finish. */
+    @Override
+    public void close() {
+      ScheduledFuture<?> future = this.future;
+      if (future != null) {
+        future.cancel(false);
+      }
+      synchronized (this) {
+        closed = true;
+      }
+    }
+  }
+}
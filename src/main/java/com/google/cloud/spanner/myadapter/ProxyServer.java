@@ -70,6 +70,9 @@ public class ProxyServer extends AbstractApiService {
   private final boolean debugMode;
   private final AtomicInteger debugMessageCount = new AtomicInteger();
 
+  /** Cancels the statements of clients that disconnect while the statement is executing. */
+  private final DisconnectWatcher disconnectWatcher;
+
   /**
    * Instantiates the ProxyServer from CLI-gathered metadata.
    *
@@ -80,6 +83,8 @@ public class ProxyServer extends AbstractApiService {
     this.localPort = optionsMetadata.getProxyPort();
     this.properties = new Properties();
     this.debugMode = optionsMetadata.isDebugMode();
+    this.disconnectWatcher =
+        new DisconnectWatcher(optionsMetadata.getDisconnectCheckIntervalMillis());
     addConnectionProperties();
   }
 
@@ -96,6 +101,8 @@ public class ProxyServer extends AbstractApiService {
     this.localPort = optionsMetadata.getProxyPort();
     this.properties = properties;
     this.debugMode = optionsMetadata.isDebugMode();
+    this.disconnectWatcher =
+        new DisconnectWatcher(optionsMetadata.getDisconnectCheckIntervalMillis());
     addConnectionProperties();
   }
 
@@ -195,6 +202,9 @@ public class ProxyServer extends AbstractApiService {
     for (ConnectionHandler handler : getConnectionHandlers()) {
       handler.terminate();
     }
+    this.options.getIdleConnectionCache().close();
+    this.options.getGroupCommitter().close();
+    this.disconnectWatcher.close();
     notifyStopped();
   }
 
@@ -327,6 +337,10 @@ public class ProxyServer extends AbstractApiService {
     this.handlers.remove(handler);
   }
 
+  public DisconnectWatcher getDisconnectWatcher() {
+    return disconnectWatcher;
+  }
+
   public OptionsMetadata getOptions() {
     return this.options;
   }
@@ -20,14 +20,23 @@ import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
 import com.google.cloud.spanner.myadapter.session.ProtocolStatus;
 import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.wireinput.ChangeUserMessage;
 import com.google.cloud.spanner.myadapter.wireinput.ClientHandshakeMessage;
 import com.google.cloud.spanner.myadapter.wireinput.HeaderMessage;
+import com.google.cloud.spanner.myadapter.wireinput.InitDbMessage;
 import com.google.cloud.spanner.myadapter.wireinput.PingMessage;
 import com.google.cloud.spanner.myadapter.wireinput.QueryMessage;
+import com.google.cloud.spanner.myadapter.wireinput.ResetConnectionMessage;
 import com.google.cloud.spanner.myadapter.wireinput.ServerHandshakeMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementCloseMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementExecuteMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementFetchMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementPrepareMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementResetMessage;
 import com.google.cloud.spanner.myadapter.wireinput.TerminateMessage;
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,13 +52,16 @@ public class WireProtocolHandler {
   private final CommandHandler commandHandler;
   private final SessionState sessionState;
   private final BackendConnection backendConnection;
+  private final Supplier<DisconnectWatcher.Watch> disconnectWatch;
 
   public WireProtocolHandler(
       ConnectionMetadata connectionMetadata,
       SessionState sessionState,
       BackendConnection backendConnection,
-      OptionsMetadata optionsMetadata) {
+      OptionsMetadata optionsMetadata,
+      Supplier<DisconnectWatcher.Watch> disconnectWatch) {
     this.backendConnection = backendConnection;
+    this.disconnectWatch = disconnectWatch;
     this.commandHandler =
         new CommandHandler(connectionMetadata, sessionState, backendConnection, optionsMetadata);
     this.connectionMetadata = connectionMetadata;
@@ -59,11 +71,13 @@ public class WireProtocolHandler {
   public void run() throws Exception {
     try {
       commandHandler.processMessage(ServerHandshakeMessage.getInstance());
+      // Set up the Spanner connection while the client is processing the greeting. The first
+      // statement that needs Spanner waits for it if it is not ready yet.
+      backendConnection.connectToSpannerAsync("test", null);
       while (sessionState.getProtocolStatus() != ProtocolStatus.TERMINATED) {
         processNextMessage();
         if (sessionState.getProtocolStatus() == ProtocolStatus.AUTHENTICATED) {
           logger.log(Level.INFO, "Client authentication established!");
-          backendConnection.connectToSpanner("test", null);
           sessionState.setProtocolStatus(ProtocolStatus.QUERY_WAIT);
         }
       }
@@ -88,7 +102,14 @@ public class WireProtocolHandler {
         break;
       case QUERY_WAIT:
         logger.log(Level.FINE, "Processing next command!");
-        nextCommandMessage(headerMessage);
+        // The complete command has been read, so the socket can be watched for a disconnect of
+        // the client while the command is executed.
+        try (DisconnectWatcher.Watch watch = disconnectWatch.get()) {
+          connectionMetadata.setInputWatch(watch);
+          nextCommandMessage(headerMessage);
+        } finally {
+          connectionMetadata.setInputWatch(null);
+        }
         break;
       default:
         throw new Exception("Illegal protocol message state");
@@ -108,6 +129,49 @@ public class WireProtocolHandler {
         PingMessage pingMessage = new PingMessage(headerMessage);
         commandHandler.processMessage(pingMessage);
         break;
+      case InitDbMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Init db received!");
+        InitDbMessage initDbMessage = new InitDbMessage(headerMessage);
+        commandHandler.processMessage(initDbMessage);
+        break;
+      case ResetConnectionMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Reset connection received!");
+        ResetConnectionMessage resetConnectionMessage = new ResetConnectionMessage(headerMessage);
+        commandHandler.processMessage(resetConnectionMessage);
+        break;
+      case ChangeUserMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Change user received!");
+        ChangeUserMessage changeUserMessage =
+            new ChangeUserMessage(headerMessage, sessionState.getClientCapabilities());
+        commandHandler.processMessage(changeUserMessage);
+        break;
+      case StatementPrepareMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Statement prepare received!");
+        StatementPrepareMessage statementPrepareMessage =
+            new StatementPrepareMessage(headerMessage);
+        commandHandler.processMessage(statementPrepareMessage);
+        break;
+      case StatementExecuteMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Statement execute received!");
+        StatementExecuteMessage statementExecuteMessage =
+            new StatementExecuteMessage(headerMessage, sessionState.getClientCapabilities());
+        commandHandler.processMessage(statementExecuteMessage);
+        break;
+      case StatementFetchMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Statement fetch received!");
+        StatementFetchMessage statementFetchMessage = new StatementFetchMessage(headerMessage);
+        commandHandler.processMessage(statementFetchMessage);
+        break;
+      case StatementResetMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Statement reset received!");
+        StatementResetMessage statementResetMessage = new StatementResetMessage(headerMessage);
+        commandHandler.processMessage(statementResetMessage);
+        break;
+      case StatementCloseMessage.IDENTIFIER:
+        logger.log(Level.FINE, "Statement close received!");
+        StatementCloseMessage statementCloseMessage = new StatementCloseMessage(headerMessage);
+        commandHandler.processMessage(statementCloseMessage);
+        break;
       case TerminateMessage.IDENTIFIER:
         logger.log(Level.INFO, "Terminate message received.");
         TerminateMessage terminateMessage = new TerminateMessage(headerMessage);
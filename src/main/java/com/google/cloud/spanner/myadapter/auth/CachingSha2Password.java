@@ -0,0 +1,194 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.auth;
+
+import com.google.api.core.InternalApi;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.annotation.Nullable;
+import javax.crypto.Cipher;
+
+/**
+ * The cryptographic operations of the caching_sha2_password authentication method.
+ *
+ * <p>The client answers the scramble of the server with XOR(SHA256(password),
+ * SHA256(SHA256(SHA256(password)), scramble)). A server that knows SHA256(SHA256(password)) can
+ * verify that without knowing the password (the fast path). Otherwise the client must send the
+ * password itself, either in clear text over a secure connection or encrypted with the RSA public
+ * key of the server (the full authentication).
+ */
+@InternalApi
+public final class CachingSha2Password {
+  public static final String PLUGIN_NAME = "caching_sha2_password";
+  public static final int SCRAMBLE_LENGTH = 20;
+
+  /** Sent by the server after a successful fast authentication. */
+  public static final byte FAST_AUTH_SUCCESS = 0x03;
+  /** Sent by the server when the client must send its password. */
+  public static final byte PERFORM_FULL_AUTHENTICATION = 0x04;
+  /** Sent by the client to request the public key of the server. */
+  public static final byte REQUEST_PUBLIC_KEY = 0x02;
+
+  private static final int RSA_KEY_SIZE = 2048;
+  private static final String RSA_TRANSFORMATION = "RSA/ECB/OAEPWithSHA-1AndMGF1Padding";
+
+  private static final SecureRandom RANDOM = createRandom();
+  /**
+   * Used instead of the cached digest of users that are not in the cache, so the fast path takes
+   * the same time for every user.
+   */
+  private static final byte[] DUMMY_DIGEST = generateDummyDigest();
+
+  private CachingSha2Password() {}
+
+  private static SecureRandom createRandom() {
+    try {
+      // Never blocks, also not when the entropy pool of the OS is low.
+      return SecureRandom.getInstance("NativePRNGNonBlocking");
+    } catch (NoSuchAlgorithmException unavailable) {
+      return new SecureRandom();
+    }
+  }
+
+  private static byte[] generateDummyDigest() {
+    byte[] digest = new byte[32];
+    RANDOM.nextBytes(digest);
+    return digest;
+  }
+
+  /** The RSA key pair of this server. It is only generated if a client asks for it. */
+  private static final class KeyPairHolder {
+    private static final KeyPair KEY_PAIR = generateKeyPair();
+    private static final byte[] PUBLIC_KEY_PEM = encodePublicKey(KEY_PAIR);
+
+    private static KeyPair generateKeyPair() {
+      try {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(RSA_KEY_SIZE);
+        return generator.generateKeyPair();
+      } catch (NoSuchAlgorithmException exception) {
+        throw new IllegalStateException(exception);
+      }
+    }
+
+    private static byte[] encodePublicKey(KeyPair keyPair) {
+      String pem =
+          "-----BEGIN PUBLIC KEY-----\n"
+              + Base64.getMimeEncoder(64, new byte[] {'\n'})
+                  .encodeToString(keyPair.getPublic().getEncoded())
+              + "\n-----END PUBLIC KEY-----\n";
+      return pem.getBytes(StandardCharsets.US_ASCII);
+    }
+  }
+
+  /**
+   * Generates a new scramble. The scramble only contains printable ASCII characters, and never '$',
+   * as some clients treat it as a string.
+   */
+  public static byte[] generateScramble() {
+    byte[] scramble = new byte[SCRAMBLE_LENGTH];
+    RANDOM.nextBytes(scramble);
+    for (int i = 0; i < scramble.length; i++) {
+      scramble[i] &= 0x7f;
+      if (scramble[i] == 0 || scramble[i] == '$') {
+        scramble[i]++;
+      }
+    }
+    return scramble;
+  }
+
+  /** Returns the public key of this server in PEM format. */
+  public static byte[] getPublicKeyPem() {
+    return KeyPairHolder.PUBLIC_KEY_PEM;
+  }
+
+  /**
+   * Tries to authenticate the client using the cached digest of its password. Returns null if the
+   * password of the user is not in the cache, in which case a full authentication is needed. Users
+   * that are not in the cache, including unknown users, are verified against a dummy digest, so
+   * the response does not reveal whether a user exists.
+   */
+  @Nullable
+  public static Boolean fastAuthenticate(
+      CredentialStore store, String user, byte[] scramble, byte[] authResponse) {
+    byte[] cachedDigest = store.getCachedDigest(user);
+    byte[] doubleDigest = cachedDigest == null ? DUMMY_DIGEST : cachedDigest;
+    byte[] mask = sha256(doubleDigest, scramble);
+    byte[] digest = new byte[mask.length];
+    for (int i = 0; i < digest.length && i < authResponse.length; i++) {
+      digest[i] = (byte) (authResponse[i] ^ mask[i]);
+    }
+    boolean matches =
+        MessageDigest.isEqual(sha256(digest), doubleDigest) && authResponse.length == mask.length;
+    if (cachedDigest == null) {
+      return null;
+    }
+    return matches;
+  }
+
+  /** Verifies a password that the client sent in clear text over a secure connection. */
+  public static boolean authenticateClearText(
+      CredentialStore store, String user, byte[] nullTerminatedPassword) {
+    return store.verifyPassword(user, stripNullTerminator(nullTerminatedPassword));
+  }
+
+  /** Verifies a password that the client encrypted with the public key of this server. */
+  public static boolean authenticateEncrypted(
+      CredentialStore store, String user, byte[] scramble, byte[] encryptedPassword) {
+    byte[] password;
+    try {
+      Cipher cipher = Cipher.getInstance(RSA_TRANSFORMATION);
+      cipher.init(Cipher.DECRYPT_MODE, KeyPairHolder.KEY_PAIR.getPrivate());
+      password = cipher.doFinal(encryptedPassword);
+    } catch (GeneralSecurityException securityException) {
+      return false;
+    }
+    for (int i = 0; i < password.length; i++) {
+      password[i] ^= scramble[i % scramble.length];
+    }
+    return store.verifyPassword(user, stripNullTerminator(password));
+  }
+
+  static byte[] doubleDigest(byte[] password) {
+    return sha256(sha256(password));
+  }
+
+  private static byte[] stripNullTerminator(byte[] password) {
+    int length = password.length;
+    while (length > 0 && password[length - 1] == 0) {
+      length--;
+    }
+    return Arrays.copyOf(password, length);
+  }
+
+  private static byte[] sha256(byte[]... inputs) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (byte[] input : inputs) {
+        digest.update(input);
+      }
+      return digest.digest();
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
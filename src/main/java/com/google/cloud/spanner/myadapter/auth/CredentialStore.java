@@ -0,0 +1,159 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.auth;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Local store of user credentials. The store is read from a file with one line per user in the
+ * format {@code user:iterations:salt:hash}, where salt and hash are base64 encoded and the hash is
+ * the PBKDF2WithHmacSHA256 hash of the password. Empty lines and lines that start with '#' are
+ * ignored. Run the main method of this class to generate a line for a user.
+ *
+ * <p>Verifying a password against the store is deliberately slow. The store therefore also keeps a
+ * cache of SHA256(SHA256(password)) for each user that has successfully authenticated, which is
+ * what the caching_sha2_password fast path needs to verify a scramble.
+ */
+@InternalApi
+public class CredentialStore {
+  private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+  private static final int DEFAULT_ITERATIONS = 100_000;
+  private static final int SALT_LENGTH = 16;
+  private static final int HASH_LENGTH_BITS = 256;
+
+  private static final class Entry {
+    private final int iterations;
+    private final byte[] salt;
+    private final byte[] hash;
+
+    private Entry(int iterations, byte[] salt, byte[] hash) {
+      this.iterations = iterations;
+      this.salt = salt;
+      this.hash = hash;
+    }
+  }
+
+  /**
+   * Unknown users are verified against this entry, so their authentication fails in the same way
+   * and takes the same time as for a known user with a wrong password.
+   */
+  private static final Entry UNKNOWN_USER =
+      new Entry(DEFAULT_ITERATIONS, new byte[SALT_LENGTH], new byte[HASH_LENGTH_BITS / 8]);
+
+  private final ImmutableMap<String, Entry> entries;
+  /** SHA256(SHA256(password)) of users that have successfully completed a full authentication. */
+  private final ConcurrentMap<String, byte[]> fastAuthCache = new ConcurrentHashMap<>();
+
+  private CredentialStore(ImmutableMap<String, Entry> entries) {
+    this.entries = entries;
+  }
+
+  /** Reads a credential store from the given file. */
+  public static CredentialStore read(String file) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+    } catch (IOException ioException) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.INVALID_ARGUMENT, "Could not read credential store " + file, ioException);
+    }
+    ImmutableMap.Builder<String, Entry> builder = ImmutableMap.builder();
+    Base64.Decoder decoder = Base64.getDecoder();
+    for (String line : lines) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] parts = line.split(":");
+      if (parts.length != 4) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.INVALID_ARGUMENT,
+            "Invalid credential store entry, expected user:iterations:salt:hash: " + parts[0]);
+      }
+      builder.put(
+          parts[0],
+          new Entry(
+              Integer.parseInt(parts[1]), decoder.decode(parts[2]), decoder.decode(parts[3])));
+    }
+    return new CredentialStore(builder.build());
+  }
+
+  /** Returns the cached SHA256(SHA256(password)) of the given user, or null if it is not known. */
+  @Nullable
+  byte[] getCachedDigest(String user) {
+    return fastAuthCache.get(user);
+  }
+
+  /**
+   * Verifies the password of the given user against the store. The fast authentication cache is
+   * updated if the password is correct.
+   */
+  boolean verifyPassword(String user, byte[] password) {
+    Entry entry = entries.get(user);
+    boolean known = entry != null;
+    if (!known) {
+      entry = UNKNOWN_USER;
+    }
+    byte[] hash = hash(password, entry.salt, entry.iterations);
+    if (!MessageDigest.isEqual(hash, entry.hash) || !known) {
+      return false;
+    }
+    fastAuthCache.put(user, CachingSha2Password.doubleDigest(password));
+    return true;
+  }
+
+  private static byte[] hash(byte[] password, byte[] salt, int iterations) {
+    char[] chars = new String(password, StandardCharsets.UTF_8).toCharArray();
+    try {
+      return SecretKeyFactory.getInstance(ALGORITHM)
+          .generateSecret(new PBEKeySpec(chars, salt, iterations, HASH_LENGTH_BITS))
+          .getEncoded();
+    } catch (GeneralSecurityException securityException) {
+      throw new IllegalStateException(securityException);
+    }
+  }
+
+  /** Prints a credential store entry for the given user and password. */
+  public static void main(String[] args) {
+    if (args.length != 2) {
+      System.err.println("Usage: CredentialStore <user> <password>");
+      System.exit(1);
+    }
+    byte[] salt = new byte[SALT_LENGTH];
+    new SecureRandom().nextBytes(salt);
+    byte[] hash = hash(args[1].getBytes(StandardCharsets.UTF_8), salt, DEFAULT_ITERATIONS);
+    Base64.Encoder encoder = Base64.getEncoder();
+    System.out.printf(
+        "%s:%d:%s:%s%n",
+        args[0], DEFAULT_ITERATIONS, encoder.encodeToString(salt), encoder.encodeToString(hash));
+  }
+}
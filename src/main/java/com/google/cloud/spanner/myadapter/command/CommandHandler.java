@@ -15,18 +15,34 @@
 package com.google.cloud.spanner.myadapter.command;
 
 import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.command.commands.ChangeUserMessageProcessor;
 import com.google.cloud.spanner.myadapter.command.commands.ClientHandShakeMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.InitDbMessageProcessor;
 import com.google.cloud.spanner.myadapter.command.commands.PingMessageProcessor;
 import com.google.cloud.spanner.myadapter.command.commands.QueryMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.ResetConnectionMessageProcessor;
 import com.google.cloud.spanner.myadapter.command.commands.ServerGreetingsMessage;
+import com.google.cloud.spanner.myadapter.command.commands.StatementCloseMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.StatementExecuteMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.StatementFetchMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.StatementPrepareMessageProcessor;
+import com.google.cloud.spanner.myadapter.command.commands.StatementResetMessageProcessor;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
 import com.google.cloud.spanner.myadapter.session.ProtocolStatus;
 import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.wireinput.ChangeUserMessage;
 import com.google.cloud.spanner.myadapter.wireinput.ClientHandshakeMessage;
+import com.google.cloud.spanner.myadapter.wireinput.InitDbMessage;
 import com.google.cloud.spanner.myadapter.wireinput.PingMessage;
 import com.google.cloud.spanner.myadapter.wireinput.QueryMessage;
+import com.google.cloud.spanner.myadapter.wireinput.ResetConnectionMessage;
 import com.google.cloud.spanner.myadapter.wireinput.ServerHandshakeMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementCloseMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementExecuteMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementFetchMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementPrepareMessage;
+import com.google.cloud.spanner.myadapter.wireinput.StatementResetMessage;
 import com.google.cloud.spanner.myadapter.wireinput.TerminateMessage;
 
 public class CommandHandler {
@@ -39,6 +55,14 @@ public class CommandHandler {
   private final ClientHandShakeMessageProcessor clientHandShakeMessageProcessor;
   private final QueryMessageProcessor queryMessageProcessor;
   private final PingMessageProcessor pingMessageProcessor;
+  private final ResetConnectionMessageProcessor resetConnectionMessageProcessor;
+  private final ChangeUserMessageProcessor changeUserMessageProcessor;
+  private final InitDbMessageProcessor initDbMessageProcessor;
+  private final StatementPrepareMessageProcessor statementPrepareMessageProcessor;
+  private final StatementExecuteMessageProcessor statementExecuteMessageProcessor;
+  private final StatementFetchMessageProcessor statementFetchMessageProcessor;
+  private final StatementResetMessageProcessor statementResetMessageProcessor;
+  private final StatementCloseMessageProcessor statementCloseMessageProcessor;
 
   public CommandHandler(
       ConnectionMetadata connectionMetadata,
@@ -49,13 +73,33 @@ public class CommandHandler {
     this.sessionState = sessionState;
     this.backendConnection = backendConnection;
 
-    this.serverGreetingsMessage = new ServerGreetingsMessage(connectionMetadata, sessionState);
+    this.serverGreetingsMessage =
+        new ServerGreetingsMessage(connectionMetadata, sessionState, optionsMetadata);
     this.clientHandShakeMessageProcessor =
-        new ClientHandShakeMessageProcessor(connectionMetadata, sessionState);
+        new ClientHandShakeMessageProcessor(
+            connectionMetadata, sessionState, backendConnection, optionsMetadata);
     this.queryMessageProcessor =
         new QueryMessageProcessor(
             connectionMetadata, sessionState, backendConnection, optionsMetadata);
     this.pingMessageProcessor = new PingMessageProcessor(connectionMetadata, sessionState);
+    this.resetConnectionMessageProcessor =
+        new ResetConnectionMessageProcessor(connectionMetadata, sessionState, backendConnection);
+    this.initDbMessageProcessor =
+        new InitDbMessageProcessor(connectionMetadata, sessionState, backendConnection);
+    this.changeUserMessageProcessor =
+        new ChangeUserMessageProcessor(
+            connectionMetadata, sessionState, backendConnection, optionsMetadata);
+    this.statementPrepareMessageProcessor =
+        new StatementPrepareMessageProcessor(connectionMetadata, sessionState, backendConnection);
+    this.statementExecuteMessageProcessor =
+        new StatementExecuteMessageProcessor(
+            connectionMetadata, sessionState, backendConnection, optionsMetadata);
+    this.statementFetchMessageProcessor =
+        new StatementFetchMessageProcessor(connectionMetadata, sessionState, backendConnection);
+    this.statementResetMessageProcessor =
+        new StatementResetMessageProcessor(connectionMetadata, sessionState, backendConnection);
+    this.statementCloseMessageProcessor =
+        new StatementCloseMessageProcessor(connectionMetadata, sessionState);
   }
 
   public void processMessage(ServerHandshakeMessage serverHandshakeMessage) throws Exception {
@@ -65,7 +109,12 @@ public class CommandHandler {
 
   public void processMessage(ClientHandshakeMessage clientHandshakeMessage) throws Exception {
     clientHandShakeMessageProcessor.processMessage(clientHandshakeMessage);
-    sessionState.setProtocolStatus(ProtocolStatus.AUTHENTICATED);
+    // After an SSL request the client sends its handshake response again over the encrypted
+    // connection.
+    if (!clientHandshakeMessage.isSslRequest()
+        && sessionState.getProtocolStatus() != ProtocolStatus.TERMINATED) {
+      sessionState.setProtocolStatus(ProtocolStatus.AUTHENTICATED);
+    }
   }
 
   public void processMessage(QueryMessage queryMessage) throws Exception {
@@ -76,6 +125,38 @@ public class CommandHandler {
     pingMessageProcessor.processMessage(pingMessage);
   }
 
+  public void processMessage(ResetConnectionMessage resetConnectionMessage) throws Exception {
+    resetConnectionMessageProcessor.processMessage(resetConnectionMessage);
+  }
+
+  public void processMessage(ChangeUserMessage changeUserMessage) throws Exception {
+    changeUserMessageProcessor.processMessage(changeUserMessage);
+  }
+
+  public void processMessage(InitDbMessage initDbMessage) throws Exception {
+    initDbMessageProcessor.processMessage(initDbMessage);
+  }
+
+  public void processMessage(StatementPrepareMessage statementPrepareMessage) throws Exception {
+    statementPrepareMessageProcessor.processMessage(statementPrepareMessage);
+  }
+
+  public void processMessage(StatementExecuteMessage statementExecuteMessage) throws Exception {
+    statementExecuteMessageProcessor.processMessage(statementExecuteMessage);
+  }
+
+  public void processMessage(StatementFetchMessage statementFetchMessage) throws Exception {
+    statementFetchMessageProcessor.processMessage(statementFetchMessage);
+  }
+
+  public void processMessage(StatementResetMessage statementResetMessage) throws Exception {
+    statementResetMessageProcessor.processMessage(statementResetMessage);
+  }
+
+  public void processMessage(StatementCloseMessage statementCloseMessage) throws Exception {
+    statementCloseMessageProcessor.processMessage(statementCloseMessage);
+  }
+
   public void processMessage(TerminateMessage terminateMessage) throws Exception {
     // TO-DO destroy any threads that is created.
     sessionState.setProtocolStatus(ProtocolStatus.TERMINATED);
@@ -83,5 +164,6 @@ public class CommandHandler {
 
   public void terminate() {
     // TO-DO Destroup all the threads
+    sessionState.closePreparedStatements();
   }
 }
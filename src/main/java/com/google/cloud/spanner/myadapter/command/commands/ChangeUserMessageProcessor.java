@@ -0,0 +1,67 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.wireinput.ChangeUserMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Changes the user of an existing connection. The new user is authenticated in the same way as
+ * during the initial handshake, after which the session is reset while the Spanner connection is
+ * reused. A failed authentication closes the connection.
+ */
+public class ChangeUserMessageProcessor extends ClientHandShakeMessageProcessor {
+  private static final Logger logger = Logger.getLogger(ChangeUserMessageProcessor.class.getName());
+
+  public ChangeUserMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection,
+      OptionsMetadata optionsMetadata) {
+    super(connectionMetadata, sessionState, backendConnection, optionsMetadata);
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    ChangeUserMessage changeUserMessage = (ChangeUserMessage) message;
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    String user = changeUserMessage.getUsername();
+    // Authentication may read more packets from the client, such as the response to an auth
+    // switch, so the disconnect watcher must not peek at the same stream.
+    connectionMetadata.stopInputWatch();
+    if (credentialStore != null
+        && !authenticate(
+            user, changeUserMessage.getAuthResponse(), changeUserMessage.getAuthPluginName())) {
+      logger.log(Level.INFO, () -> String.format("Change user failed for user %s", user));
+      sendErrorAndTerminate(
+          String.format("Access denied for user '%s'", user), ER_ACCESS_DENIED_ERROR);
+      return;
+    }
+    backendConnection.resetSession();
+    backendConnection.setUser(user);
+    sessionState.reset();
+    if (!selectDatabase(changeUserMessage.getDatabase())) {
+      return;
+    }
+    new OkResponse(currentSequenceNumber, connectionMetadata).send(true);
+  }
+}
@@ -14,20 +14,200 @@
 
 package com.google.cloud.spanner.myadapter.command.commands;
 
+import com.google.cloud.spanner.DatabaseNotFoundException;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.auth.CachingSha2Password;
+import com.google.cloud.spanner.myadapter.auth.CredentialStore;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
+import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata.SslMode;
+import com.google.cloud.spanner.myadapter.session.ProtocolStatus;
 import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.tls.ServerTlsContext;
+import com.google.cloud.spanner.myadapter.tls.TlsConnection;
+import com.google.cloud.spanner.myadapter.wireinput.ClientHandshakeMessage;
+import com.google.cloud.spanner.myadapter.wireinput.HeaderMessage;
 import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.AuthMoreDataResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.AuthSwitchRequestResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.ErrorResponse;
 import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import com.google.common.base.Strings;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
+/**
+ * Authenticates the client using caching_sha2_password. Users whose password digest is in the
+ * cache of the {@link CredentialStore} are authenticated with a single scramble comparison. Other
+ * users must send their password, either in clear text over SSL or encrypted with the public key
+ * of the server, which is then verified against the store.
+ *
+ * <p>An SSL request upgrades the connection to TLS before the client sends its real handshake
+ * response.
+ */
 public class ClientHandShakeMessageProcessor extends MessageProcessor {
+  private static final Logger logger =
+      Logger.getLogger(ClientHandShakeMessageProcessor.class.getName());
+
+  protected static final int ER_ACCESS_DENIED_ERROR = 1045;
+  private static final int ER_SECURE_TRANSPORT_REQUIRED = 3159;
+
+  protected final BackendConnection backendConnection;
+  private final boolean databaseSelectionSupported;
+  protected final CredentialStore credentialStore;
+  private final SslMode sslMode;
+  @Nullable private final ServerTlsContext serverTlsContext;
+  protected int currentSequenceNumber;
 
   public ClientHandShakeMessageProcessor(
-      ConnectionMetadata connectionMetadata, SessionState sessionState) {
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection,
+      OptionsMetadata optionsMetadata) {
     super(connectionMetadata, sessionState);
+    this.backendConnection = backendConnection;
+    this.databaseSelectionSupported = optionsMetadata.isDatabaseSelectionSupported();
+    this.credentialStore = optionsMetadata.getCredentialStore();
+    this.sslMode = optionsMetadata.getSslMode();
+    this.serverTlsContext = optionsMetadata.getServerTlsContext();
   }
 
   @Override
   public void processMessage(WireMessage message) throws Exception {
-    new OkResponse(message.getMessageSequenceNumber(), connectionMetadata).send(true);
+    ClientHandshakeMessage handshakeMessage = (ClientHandshakeMessage) message;
+    sessionState.setClientCapabilities(handshakeMessage.getCapabilityFlags());
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    if (handshakeMessage.isSslRequest()) {
+      upgradeToTls();
+      return;
+    }
+    if (sslMode == SslMode.Require && !connectionMetadata.isSecure()) {
+      sendErrorAndTerminate(
+          "Connections using insecure transport are prohibited", ER_SECURE_TRANSPORT_REQUIRED);
+      return;
+    }
+    if (credentialStore == null
+        || authenticate(
+            handshakeMessage.getUsername(),
+            handshakeMessage.getAuthResponse(),
+            handshakeMessage.getAuthPluginName())) {
+      backendConnection.setUser(handshakeMessage.getUsername());
+      if (selectDatabase(handshakeMessage.getDatabase())) {
+        new OkResponse(currentSequenceNumber, connectionMetadata).send(true);
+      }
+      return;
+    }
+    String user = handshakeMessage.getUsername();
+    logger.log(Level.INFO, () -> String.format("Authentication failed for user %s", user));
+    sendErrorAndTerminate(
+        String.format("Access denied for user '%s'", user), ER_ACCESS_DENIED_ERROR);
+  }
+
+  /**
+   * Executes the TLS handshake after an SSL request. The client then sends its handshake response
+   * again over the encrypted connection, without a new server greeting.
+   */
+  private void upgradeToTls() throws IOException {
+    if (serverTlsContext == null) {
+      sendErrorAndTerminate("SSL is not enabled on this server", ER_SECURE_TRANSPORT_REQUIRED);
+      return;
+    }
+    TlsConnection tlsConnection =
+        serverTlsContext.upgrade(
+            connectionMetadata.getInputStream(), connectionMetadata.getOutputStream());
+    connectionMetadata.upgradeToTls(
+        tlsConnection.getInputStream(), tlsConnection.getOutputStream());
+  }
+
+  /**
+   * Switches to the database that the client selected when connecting. Sends an error and closes
+   * the connection if the database does not exist.
+   */
+  protected boolean selectDatabase(@Nullable String database) throws IOException {
+    if (Strings.isNullOrEmpty(database) || !databaseSelectionSupported) {
+      return true;
+    }
+    try {
+      backendConnection.switchDatabase(database);
+      return true;
+    } catch (DatabaseNotFoundException notFoundException) {
+      sendErrorAndTerminate(
+          String.format("Unknown database '%s'", database), InitDbMessageProcessor.ER_BAD_DB_ERROR);
+      return false;
+    }
+  }
+
+  protected void sendErrorAndTerminate(String message, int code) throws IOException {
+    new ErrorResponse(currentSequenceNumber, connectionMetadata, message, code).send(true);
+    sessionState.setProtocolStatus(ProtocolStatus.TERMINATED);
+  }
+
+  /**
+   * Authenticates the given user against the credential store. The client is asked to switch to
+   * caching_sha2_password if it used a different authentication plugin.
+   */
+  protected boolean authenticate(
+      @Nullable String user, byte[] authResponse, @Nullable String authPluginName)
+      throws IOException {
+    if (user == null) {
+      return false;
+    }
+    byte[] scramble = sessionState.getAuthScramble();
+    if (!CachingSha2Password.PLUGIN_NAME.equals(authPluginName)) {
+      currentSequenceNumber =
+          new AuthSwitchRequestResponse(
+                  currentSequenceNumber,
+                  connectionMetadata,
+                  CachingSha2Password.PLUGIN_NAME,
+                  scramble)
+              .send(true);
+      authResponse = readAuthPacket();
+    }
+
+    Boolean fastAuthResult =
+        CachingSha2Password.fastAuthenticate(credentialStore, user, scramble, authResponse);
+    if (fastAuthResult != null) {
+      if (fastAuthResult) {
+        currentSequenceNumber =
+            new AuthMoreDataResponse(
+                    currentSequenceNumber,
+                    connectionMetadata,
+                    new byte[] {CachingSha2Password.FAST_AUTH_SUCCESS})
+                .send();
+      }
+      return fastAuthResult;
+    }
+
+    // The password is not in the cache, so the client must send it.
+    currentSequenceNumber =
+        new AuthMoreDataResponse(
+                currentSequenceNumber,
+                connectionMetadata,
+                new byte[] {CachingSha2Password.PERFORM_FULL_AUTHENTICATION})
+            .send(true);
+    byte[] password = readAuthPacket();
+    if (connectionMetadata.isSecure()) {
+      return CachingSha2Password.authenticateClearText(credentialStore, user, password);
+    }
+    if (password.length == 1 && password[0] == CachingSha2Password.REQUEST_PUBLIC_KEY) {
+      currentSequenceNumber =
+          new AuthMoreDataResponse(
+                  currentSequenceNumber, connectionMetadata, CachingSha2Password.getPublicKeyPem())
+              .send(true);
+      password = readAuthPacket();
+    }
+    return CachingSha2Password.authenticateEncrypted(credentialStore, user, scramble, password);
+  }
+
+  private byte[] readAuthPacket() throws IOException {
+    HeaderMessage headerMessage = HeaderMessage.create(connectionMetadata.getInputStream());
+    currentSequenceNumber = headerMessage.getMessageSequenceNumber();
+    ByteArrayInputStream payload = headerMessage.getBufferedInputStream();
+    byte[] data = new byte[payload.available()];
+    payload.read(data);
+    return data;
   }
 }
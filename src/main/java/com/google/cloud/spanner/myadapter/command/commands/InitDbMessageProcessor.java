@@ -0,0 +1,80 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.DatabaseNotFoundException;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.UseStatement;
+import com.google.cloud.spanner.myadapter.wireinput.InitDbMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.ErrorResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Switches the session to the database in a COM_INIT_DB message, in the same way as USE. */
+public class InitDbMessageProcessor extends MessageProcessor {
+  private static final Logger logger = Logger.getLogger(InitDbMessageProcessor.class.getName());
+
+  static final int ER_BAD_DB_ERROR = 1049;
+
+  private final BackendConnection backendConnection;
+
+  public InitDbMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState);
+    this.backendConnection = backendConnection;
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    String database = ((InitDbMessage) message).getDatabase();
+    try {
+      new UseStatement(database).execute(sessionState, backendConnection);
+    } catch (Exception e) {
+      if (isDatabaseNotFound(e)) {
+        new ErrorResponse(
+                message.getMessageSequenceNumber(),
+                connectionMetadata,
+                String.format("Unknown database '%s'", database),
+                ER_BAD_DB_ERROR)
+            .send(true);
+        return;
+      }
+      logger.log(Level.WARNING, e, () -> "Changing the database failed.");
+      new ErrorResponse(
+              message.getMessageSequenceNumber(),
+              connectionMetadata,
+              e.getMessage(),
+              ER_UNKNOWN_ERROR)
+          .send(true);
+      return;
+    }
+    new OkResponse(message.getMessageSequenceNumber(), connectionMetadata, 0L, sessionState)
+        .send(true);
+  }
+
+  /** Returns true if the database does not exist, including {@link DatabaseNotFoundException}. */
+  private static boolean isDatabaseNotFound(Exception exception) {
+    return exception instanceof SpannerException
+        && ((SpannerException) exception).getErrorCode() == ErrorCode.NOT_FOUND;
+  }
+}
@@ -14,11 +14,19 @@
 
 package com.google.cloud.spanner.myadapter.command.commands;
 
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.myadapter.error.MyException;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.session.SessionState;
 import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
 
 public abstract class MessageProcessor {
+  protected static final int ER_UNKNOWN_ERROR = 1105;
+  protected static final int ER_PARSE_ERROR = 1064;
+  protected static final int ER_QUERY_INTERRUPTED = 1317;
+  protected static final String QUERY_INTERRUPTED_MESSAGE = "Query execution was interrupted";
+
   protected final ConnectionMetadata connectionMetadata;
   protected final SessionState sessionState;
   public final int CHARSET_UTF8_MB4 = 255;
@@ -29,5 +37,22 @@ public abstract class MessageProcessor {
     this.sessionState = sessionState;
   }
 
+  /** Returns true if the given error is caused by a statement that was cancelled with KILL. */
+  protected static boolean isCancelled(Exception exception) {
+    return exception instanceof SpannerException
+        && ((SpannerException) exception).getErrorCode() == ErrorCode.CANCELLED;
+  }
+
+  /**
+   * Returns the MySQL error code for a failed statement. Errors that do not carry a specific MySQL
+   * error code are reported as parse errors.
+   */
+  protected static int getErrorCode(Exception exception) {
+    if (exception instanceof MyException && ((MyException) exception).getErrorCode() != 0) {
+      return ((MyException) exception).getErrorCode();
+    }
+    return ER_PARSE_ERROR;
+  }
+
   public abstract void processMessage(WireMessage message) throws Exception;
 }
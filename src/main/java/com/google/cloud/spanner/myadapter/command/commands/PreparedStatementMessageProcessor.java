@@ -0,0 +1,159 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.connection.AbstractStatementParser;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.Cursor;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.translator.models.QueryReplacement;
+import com.google.cloud.spanner.myadapter.utils.Converter.MySqlFieldTypes;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.cloud.spanner.myadapter.wireoutput.ColumnCountResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.EofResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.ErrorResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.PreEncodedResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.RowResponse;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Base class for the processors of the COM_STMT_* commands. The results of prepared statements are
+ * sent with the binary protocol.
+ */
+public abstract class PreparedStatementMessageProcessor extends MessageProcessor {
+  static final AbstractStatementParser PARSER =
+      AbstractStatementParser.getInstance(Dialect.GOOGLE_STANDARD_SQL);
+
+  private static final int ER_UNKNOWN_STMT_HANDLER = 1243;
+
+  protected final BackendConnection backendConnection;
+  protected int currentSequenceNumber;
+
+  protected PreparedStatementMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState);
+    this.backendConnection = backendConnection;
+  }
+
+  /**
+   * Returns the prepared statement with the given id. Sends an error to the client and returns null
+   * if the statement does not exist.
+   */
+  @Nullable
+  protected ServerPreparedStatement findStatement(int statementId, String command)
+      throws IOException {
+    ServerPreparedStatement statement = sessionState.getPreparedStatement(statementId);
+    if (statement == null) {
+      sendError(
+          String.format(
+              "Unknown prepared statement handler (%d) given to %s", statementId, command),
+          ER_UNKNOWN_STMT_HANDLER);
+    }
+    return statement;
+  }
+
+  protected void sendError(String message, int code) throws IOException {
+    currentSequenceNumber =
+        new ErrorResponse(currentSequenceNumber, connectionMetadata, message, code).send(true);
+  }
+
+  /** Sends the error for a failed statement, which may have been cancelled with KILL. */
+  protected void sendExecutionError(Exception exception) throws IOException {
+    if (isCancelled(exception) || backendConnection.isCancelled()) {
+      sendError(QUERY_INTERRUPTED_MESSAGE, ER_QUERY_INTERRUPTED);
+    } else {
+      sendError(exception.getMessage(), getErrorCode(exception));
+    }
+  }
+
+  /** Encodes the column definitions of the given result set. */
+  static ImmutableList<byte[]> encodeColumnDefinitions(List<StructField> fields)
+      throws IOException {
+    ImmutableList.Builder<byte[]> builder = ImmutableList.builder();
+    for (StructField field : fields) {
+      builder.add(
+          LocalQueryResult.encodeColumnDefinition(field.getName(), field.getType().getCode()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * Sends the column count and the column definitions of the given result set, with the column
+   * names of the replacement that the statement was translated with.
+   */
+  protected void sendColumnDefinitions(ResultSet resultSet, QueryReplacement queryReplacement)
+      throws IOException {
+    List<StructField> fields = resultSet.getType().getStructFields();
+    currentSequenceNumber =
+        new ColumnCountResponse(currentSequenceNumber, connectionMetadata, fields.size()).send();
+    for (StructField field : fields) {
+      byte[] columnDefinition =
+          LocalQueryResult.encodeColumnDefinition(
+              queryReplacement.overrideColumn(field.getName()), field.getType().getCode());
+      currentSequenceNumber =
+          new PreEncodedResponse(currentSequenceNumber, connectionMetadata, columnDefinition)
+              .send();
+    }
+  }
+
+  /**
+   * Sends a result that was computed by the adapter. There is no cursor for such a result, so all
+   * rows are sent as binary protocol rows.
+   */
+  protected void sendLocalQueryResult(LocalQueryResult result) throws IOException {
+    currentSequenceNumber =
+        new ColumnCountResponse(currentSequenceNumber, connectionMetadata, result.getColumnCount())
+            .send();
+    for (byte[] columnDefinition : result.getColumnDefinitions()) {
+      currentSequenceNumber =
+          new PreEncodedResponse(currentSequenceNumber, connectionMetadata, columnDefinition)
+              .send();
+    }
+    ImmutableList<MySqlFieldTypes> columnTypes = result.getColumnTypes();
+    for (List<String> row : result.getRows()) {
+      currentSequenceNumber =
+          RowResponse.binaryRow(currentSequenceNumber, connectionMetadata, row, columnTypes).send();
+    }
+    currentSequenceNumber = new EofResponse(currentSequenceNumber, connectionMetadata).send(true);
+  }
+
+  /** Sends at most the given number of rows from the cursor as binary protocol rows. */
+  protected void sendRows(Cursor cursor, long maxRows) throws IOException {
+    long rowsSent = 0L;
+    while (rowsSent < maxRows && cursor.hasRow()) {
+      if (backendConnection.isCancelled()) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.CANCELLED, QUERY_INTERRUPTED_MESSAGE);
+      }
+      currentSequenceNumber =
+          RowResponse.binaryRow(currentSequenceNumber, connectionMetadata, cursor.getResultSet())
+              .send();
+      cursor.advance();
+      rowsSent++;
+    }
+  }
+}
@@ -14,8 +14,12 @@
 
 package com.google.cloud.spanner.myadapter.command.commands;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.Type.Code;
 import com.google.cloud.spanner.connection.AbstractStatementParser;
@@ -26,26 +30,44 @@ import com.google.cloud.spanner.connection.StatementResult;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
 import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionStateTracker;
+import com.google.cloud.spanner.myadapter.statements.LoadDataStatement;
+import com.google.cloud.spanner.myadapter.statements.OutfileStatement;
 import com.google.cloud.spanner.myadapter.statements.SessionStatementParser;
 import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
 import com.google.cloud.spanner.myadapter.statements.SimpleParser;
+import com.google.cloud.spanner.myadapter.statements.StatementFingerprints;
 import com.google.cloud.spanner.myadapter.translator.QueryTranslator;
 import com.google.cloud.spanner.myadapter.translator.models.QueryAction;
 import com.google.cloud.spanner.myadapter.translator.models.QueryReplacement;
 import com.google.cloud.spanner.myadapter.utils.Converter;
+import com.google.cloud.spanner.myadapter.utils.LoadDataResult;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import com.google.cloud.spanner.myadapter.wireinput.LocalInfileInputStream;
 import com.google.cloud.spanner.myadapter.wireinput.QueryMessage;
 import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
 import com.google.cloud.spanner.myadapter.wireoutput.ColumnCountResponse;
 import com.google.cloud.spanner.myadapter.wireoutput.ColumnDefinitionResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.EncodedResponse;
 import com.google.cloud.spanner.myadapter.wireoutput.EofResponse;
 import com.google.cloud.spanner.myadapter.wireoutput.ErrorResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.LocalInfileRequest;
 import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.PreEncodedResponse;
 import com.google.cloud.spanner.myadapter.wireoutput.RowResponse;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 public class QueryMessageProcessor extends MessageProcessor {
 
@@ -54,9 +76,27 @@ public class QueryMessageProcessor extends MessageProcessor {
 
   private static final Logger logger = Logger.getLogger(QueryMessageProcessor.class.getName());
 
+  /** Results that are larger than this are sent to the client, but not cached. */
+  private static final int MAX_CACHED_RESPONSE_SIZE = 1 << 20;
+
+  /** The OK packet that is returned for {@link QueryAction#RETURN_OK} replacements. */
+  private static final EncodedResponse OK_RESPONSE = encodeOkResponse();
+
+  private static EncodedResponse encodeOkResponse() {
+    try {
+      EncodedResponse.Recorder recorder = new EncodedResponse.Recorder();
+      new OkResponse(0, recorder.getConnectionMetadata()).send();
+      return recorder.build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private int currentSequenceNumber = -1;
   private final BackendConnection backendConnection;
   private final QueryTranslator queryTranslator;
+  /** The directory that LOAD DATA INFILE and INTO OUTFILE may access server files in, or null. */
+  @Nullable private final Path secureFilePriv;
 
   public QueryMessageProcessor(
       ConnectionMetadata connectionMetadata,
@@ -66,6 +106,7 @@ public class QueryMessageProcessor extends MessageProcessor {
     super(connectionMetadata, sessionState);
     this.backendConnection = backendConnection;
     this.queryTranslator = new QueryTranslator(optionsMetadata);
+    this.secureFilePriv = optionsMetadata.getSecureFilePriv();
   }
 
   @Override
@@ -73,25 +114,55 @@ public class QueryMessageProcessor extends MessageProcessor {
     QueryMessage queryMessage = (QueryMessage) message;
     ImmutableList<Statement> statements = parseStatements(queryMessage.getOriginalStatement());
     currentSequenceNumber = queryMessage.getMessageSequenceNumber();
+    backendConnection.clearCancelled();
 
     for (Statement originalStatement : statements) {
       final Statement statement = originalStatement;
       logger.log(
           Level.INFO, () -> String.format("SQL query being processed: %s.", statement.getSql()));
 
-      ParsedStatement parsedStatement = PARSER.parse(originalStatement);
-      QueryReplacement queryReplacement =
-          queryTranslator.translatedQuery(parsedStatement, originalStatement);
-      if (queryReplacement.getAction() == QueryAction.RETURN_OK) {
-        currentSequenceNumber =
-            new OkResponse(currentSequenceNumber, connectionMetadata).send(true);
-        continue;
+      // Statements that are known to be session statements skip parsing and translation.
+      SessionStatement sessionStatement = StatementFingerprints.lookup(originalStatement.getSql());
+      QueryReplacement queryReplacement;
+      if (sessionStatement == null) {
+        ParsedStatement parsedStatement = PARSER.parse(originalStatement);
+        queryReplacement = queryTranslator.translatedQuery(parsedStatement, originalStatement);
+        if (queryReplacement.getAction() == QueryAction.RETURN_OK) {
+          currentSequenceNumber = sendOkResponse(0L);
+          continue;
+        }
+        EncodedResponse cachedResponse = queryReplacement.getCachedResponse();
+        if (cachedResponse != null) {
+          currentSequenceNumber =
+              cachedResponse.send(currentSequenceNumber, connectionMetadata, true);
+          continue;
+        }
+      } else {
+        queryReplacement = new QueryReplacement(originalStatement);
       }
-      parsedStatement = PARSER.parse(queryReplacement.getOutputQuery());
       try {
         StatementResult statementResult;
-        SessionStatement sessionStatement = SessionStatementParser.parse(parsedStatement);
-        if (sessionStatement != null) {
+        ParsedStatement parsedStatement = null;
+        if (sessionStatement == null) {
+          parsedStatement = PARSER.parse(queryReplacement.getOutputQuery());
+          sessionStatement = SessionStatementParser.parse(parsedStatement);
+          if (sessionStatement != null && queryReplacement.getAction() == null) {
+            StatementFingerprints.register(originalStatement.getSql(), sessionStatement);
+          }
+        }
+        if (sessionStatement == null
+            && LoadDataStatement.isLoadData(queryReplacement.getOutputQuery().getSql())) {
+          statementResult = executeLoadData(queryReplacement.getOutputQuery());
+        } else if (sessionStatement == null
+            && OutfileStatement.isOutfile(queryReplacement.getOutputQuery().getSql())) {
+          OutfileStatement outfile = OutfileStatement.parse(queryReplacement.getOutputQuery());
+          statementResult =
+              new UpdateCount(
+                  backendConnection.export(
+                      outfile,
+                      resolveServerFile(outfile.getFileName()),
+                      sessionState.getTimeZone()));
+        } else if (sessionStatement != null) {
           statementResult =
               backendConnection.executeSessionStatement(sessionStatement, sessionState);
         } else {
@@ -102,21 +173,55 @@ public class QueryMessageProcessor extends MessageProcessor {
 
         switch (statementResult.getResultType()) {
           case RESULT_SET:
-            processResultSet(statementResult.getResultSet(), queryReplacement);
+            if (statementResult instanceof LocalQueryResult) {
+              processLocalQueryResult((LocalQueryResult) statementResult);
+              break;
+            }
+            // Closing the result set stops the reads of a partitioned query if sending fails.
+            try (ResultSet resultSet = statementResult.getResultSet()) {
+              if (queryReplacement.isResultCacheEnabled()) {
+                processCacheableResultSet(resultSet, queryReplacement);
+              } else {
+                processResultSet(resultSet, queryReplacement, connectionMetadata);
+                connectionMetadata.getOutputStream().flush();
+              }
+            }
             break;
           case UPDATE_COUNT:
-            new OkResponse(
-                    currentSequenceNumber, connectionMetadata, statementResult.getUpdateCount())
-                .send(true);
+            if (statementResult instanceof LoadDataResult) {
+              LoadDataResult result = (LoadDataResult) statementResult;
+              currentSequenceNumber =
+                  new OkResponse(
+                          currentSequenceNumber,
+                          connectionMetadata,
+                          result.getUpdateCount(),
+                          sessionState,
+                          result.getWarningCount(),
+                          result.getInfo())
+                      .send(true);
+            } else {
+              currentSequenceNumber = sendOkResponse(statementResult.getUpdateCount());
+            }
             break;
           case NO_RESULT:
-            new OkResponse(currentSequenceNumber, connectionMetadata).send(true);
+            currentSequenceNumber = sendOkResponse(0L);
             break;
         }
 
       } catch (Exception e) {
+        if (isCancelled(e) || backendConnection.isCancelled()) {
+          logger.log(Level.INFO, () -> "Query execution was interrupted.");
+          new ErrorResponse(
+                  currentSequenceNumber,
+                  connectionMetadata,
+                  QUERY_INTERRUPTED_MESSAGE,
+                  ER_QUERY_INTERRUPTED)
+              .send(true);
+          break;
+        }
         logger.log(Level.WARNING, e, () -> "Query execution error.");
-        new ErrorResponse(currentSequenceNumber, connectionMetadata, e.getMessage(), 1064)
+        new ErrorResponse(
+                currentSequenceNumber, connectionMetadata, e.getMessage(), getErrorCode(e))
             .send(true);
         // Stop further processing if an exception occurs.
         break;
@@ -124,43 +229,136 @@ public class QueryMessageProcessor extends MessageProcessor {
     }
   }
 
-  private void processResultSet(ResultSet resultSet, QueryReplacement queryReplacement)
+  /**
+   * Executes a LOAD DATA statement. The file of a LOCAL statement is requested from the client and
+   * is read while the rows are written. The part of the file that has not been read when the
+   * statement fails is skipped, so the next packet is a new command. Files on the server are only
+   * read from the secure_file_priv directory.
+   */
+  private StatementResult executeLoadData(Statement statement) throws Exception {
+    LoadDataStatement loadData = LoadDataStatement.parse(statement.getSql());
+    if (!loadData.isLocal()) {
+      try (Reader reader =
+          Files.newBufferedReader(resolveServerFile(loadData.getFileName()), UTF_8)) {
+        return backendConnection.loadData(loadData, reader, sessionState.getTimeZone());
+      }
+    }
+    // The file is read from the same stream that the disconnect watcher peeks at.
+    connectionMetadata.stopInputWatch();
+    currentSequenceNumber =
+        new LocalInfileRequest(currentSequenceNumber, connectionMetadata, loadData.getFileName())
+            .send(true);
+    LocalInfileInputStream file =
+        new LocalInfileInputStream(connectionMetadata.getInputStream(), currentSequenceNumber);
+    try {
+      return backendConnection.loadData(
+          loadData, new InputStreamReader(file, UTF_8), sessionState.getTimeZone());
+    } finally {
+      file.skipRemaining();
+      currentSequenceNumber = file.getSequenceNumber();
+    }
+  }
+
+  private Path resolveServerFile(String fileName) {
+    Path file = secureFilePriv == null ? null : secureFilePriv.resolve(fileName).normalize();
+    if (file == null || !file.startsWith(secureFilePriv)) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.PERMISSION_DENIED,
+          "The MySQL server is running with the --secure-file-priv option so it cannot execute "
+              + "this statement");
+    }
+    return file;
+  }
+
+  /**
+   * Sends an OK packet. The pre-encoded packet is used, unless there are session state changes
+   * that must be reported to the client.
+   */
+  private int sendOkResponse(long updateCount) throws IOException {
+    SessionStateTracker tracker = sessionState.getSessionStateTracker();
+    if (updateCount == 0L && (tracker == null || !tracker.hasChanges())) {
+      return OK_RESPONSE.send(currentSequenceNumber, connectionMetadata, true);
+    }
+    return new OkResponse(currentSequenceNumber, connectionMetadata, updateCount, sessionState)
+        .send(true);
+  }
+
+  /**
+   * Encodes the result of a replacement query that may be cached, sends it to the client and
+   * stores it in the replacement, so later executions only need to patch the sequence numbers.
+   */
+  private void processCacheableResultSet(ResultSet resultSet, QueryReplacement queryReplacement)
+      throws Exception {
+    int startSequenceNumber = currentSequenceNumber;
+    EncodedResponse.Recorder recorder = new EncodedResponse.Recorder();
+    processResultSet(resultSet, queryReplacement, recorder.getConnectionMetadata());
+    EncodedResponse response = recorder.build();
+    if (response.size() <= MAX_CACHED_RESPONSE_SIZE) {
+      queryReplacement.cacheResponse(response);
+    }
+    currentSequenceNumber = response.send(startSequenceNumber, connectionMetadata, true);
+  }
+
+  private void processResultSet(
+      ResultSet resultSet, QueryReplacement queryReplacement, ConnectionMetadata output)
       throws Exception {
     int rowsSent = 0;
     // ResultSet cannot be accessed for pre-populated result sets without calling .next() at least
     // once. We create pre-populated result sets for things like system variable queries. So we must
     // call sendColumnDefinitions() only after calling resultSet.next() initially.
     while (resultSet.next()) {
+      if (backendConnection.isCancelled()) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.CANCELLED, QUERY_INTERRUPTED_MESSAGE);
+      }
       if (rowsSent < 1) {
-        sendColumnDefinitions(resultSet, queryReplacement);
+        sendColumnDefinitions(resultSet, queryReplacement, output);
       }
-      sendResultSetRow(resultSet, queryReplacement);
+      sendResultSetRow(resultSet, output);
       rowsSent++;
     }
 
     // We must send column definitions back even if result set didn't have any rows as some clients
     // like hibernate expect it.
     if (rowsSent < 1) {
-      sendColumnDefinitions(resultSet, queryReplacement);
+      sendColumnDefinitions(resultSet, queryReplacement, output);
+    }
+    currentSequenceNumber = new EofResponse(currentSequenceNumber, output).send();
+  }
+
+  /**
+   * Sends a result that was computed by the adapter. The column definitions of such a result are
+   * already encoded, so only the packet headers and the rows need to be written.
+   */
+  private void processLocalQueryResult(LocalQueryResult result) throws IOException {
+    currentSequenceNumber =
+        new ColumnCountResponse(currentSequenceNumber, connectionMetadata, result.getColumnCount())
+            .send();
+    for (byte[] columnDefinition : result.getColumnDefinitions()) {
+      currentSequenceNumber =
+          new PreEncodedResponse(currentSequenceNumber, connectionMetadata, columnDefinition)
+              .send();
+    }
+    for (List<String> row : result.getRows()) {
+      currentSequenceNumber =
+          new RowResponse(currentSequenceNumber, connectionMetadata, row).send();
     }
     currentSequenceNumber = new EofResponse(currentSequenceNumber, connectionMetadata).send(true);
   }
 
-  private void sendResultSetRow(ResultSet resultSet, QueryReplacement queryReplacement)
+  private void sendResultSetRow(ResultSet resultSet, ConnectionMetadata output)
       throws Exception {
-    currentSequenceNumber =
-        new RowResponse(currentSequenceNumber, connectionMetadata, resultSet).send();
+    currentSequenceNumber = new RowResponse(currentSequenceNumber, output, resultSet).send();
   }
 
-  private void sendColumnDefinitions(ResultSet resultSet, QueryReplacement queryReplacement)
+  private void sendColumnDefinitions(
+      ResultSet resultSet, QueryReplacement queryReplacement, ConnectionMetadata output)
       throws IOException {
     currentSequenceNumber =
-        new ColumnCountResponse(
-                currentSequenceNumber, connectionMetadata, resultSet.getColumnCount())
-            .send();
+        new ColumnCountResponse(currentSequenceNumber, output, resultSet.getColumnCount()).send();
     for (int i = 0; i < resultSet.getColumnCount(); ++i) {
       ColumnDefinitionResponse.Builder builder =
-          new ColumnDefinitionResponse.Builder(currentSequenceNumber, connectionMetadata);
+          new ColumnDefinitionResponse.Builder(currentSequenceNumber, output);
       // TODO : Assess how does fields like schema, table, originalTable affects the client, and
       // properly populate them.
       resultSet.getType().getStructFields().get(i).getType().getCode();
@@ -0,0 +1,62 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.ErrorResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resets the session of a connection that is returned to a connection pool. The system variables
+ * are restored to their defaults and any open transaction is rolled back, while the Spanner
+ * connection is kept, so the client does not need to reconnect.
+ */
+public class ResetConnectionMessageProcessor extends MessageProcessor {
+  private static final Logger logger =
+      Logger.getLogger(ResetConnectionMessageProcessor.class.getName());
+
+  private final BackendConnection backendConnection;
+
+  public ResetConnectionMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState);
+    this.backendConnection = backendConnection;
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    try {
+      backendConnection.resetSession();
+      sessionState.reset();
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Resetting the connection failed.");
+      new ErrorResponse(
+              message.getMessageSequenceNumber(),
+              connectionMetadata,
+              e.getMessage(),
+              ER_UNKNOWN_ERROR)
+          .send(true);
+      return;
+    }
+    new OkResponse(message.getMessageSequenceNumber(), connectionMetadata).send(true);
+  }
+}
@@ -14,19 +14,35 @@
 
 package com.google.cloud.spanner.myadapter.command.commands;
 
+import com.google.cloud.spanner.myadapter.auth.CachingSha2Password;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
 import com.google.cloud.spanner.myadapter.session.SessionState;
 import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
 import com.google.cloud.spanner.myadapter.wireoutput.ServerGreetingResponse;
 
 public class ServerGreetingsMessage extends MessageProcessor {
 
-  public ServerGreetingsMessage(ConnectionMetadata connectionMetadata, SessionState sessionState) {
+  private final boolean sslEnabled;
+
+  public ServerGreetingsMessage(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      OptionsMetadata optionsMetadata) {
     super(connectionMetadata, sessionState);
+    this.sslEnabled = optionsMetadata.getServerTlsContext() != null;
   }
 
   @Override
   public void processMessage(WireMessage message) throws Exception {
-    new ServerGreetingResponse(message.getMessageSequenceNumber(), connectionMetadata).send(true);
+    byte[] scramble = CachingSha2Password.generateScramble();
+    sessionState.setAuthScramble(scramble);
+    new ServerGreetingResponse(
+            message.getMessageSequenceNumber(),
+            connectionMetadata,
+            sessionState.getConnectionId(),
+            scramble,
+            sslEnabled)
+        .send(true);
   }
 }
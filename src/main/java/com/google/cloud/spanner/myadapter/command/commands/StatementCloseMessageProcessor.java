@@ -0,0 +1,37 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.wireinput.StatementCloseMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+
+/**
+ * Deallocates a prepared statement and closes its cursor. The client does not expect a response to
+ * COM_STMT_CLOSE.
+ */
+public class StatementCloseMessageProcessor extends MessageProcessor {
+
+  public StatementCloseMessageProcessor(
+      ConnectionMetadata connectionMetadata, SessionState sessionState) {
+    super(connectionMetadata, sessionState);
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    sessionState.closePreparedStatement(((StatementCloseMessage) message).getStatementId());
+  }
+}
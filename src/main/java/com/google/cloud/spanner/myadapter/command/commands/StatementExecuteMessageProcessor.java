@@ -0,0 +1,176 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.connection.AbstractStatementParser.ParsedStatement;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.metadata.OptionsMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.Cursor;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.translator.QueryTranslator;
+import com.google.cloud.spanner.myadapter.translator.models.QueryAction;
+import com.google.cloud.spanner.myadapter.translator.models.QueryReplacement;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.cloud.spanner.myadapter.wireinput.StatementExecuteMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.EofResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executes a prepared statement. The bound statement is translated and checked for session
+ * statements in the same way as a COM_QUERY statement. If the client requests a read-only cursor,
+ * only the column definitions are sent and the rows are kept on the Spanner stream until they are
+ * fetched with COM_STMT_FETCH.
+ */
+public class StatementExecuteMessageProcessor extends PreparedStatementMessageProcessor {
+  private static final Logger logger =
+      Logger.getLogger(StatementExecuteMessageProcessor.class.getName());
+
+  private static final int ER_OUT_OF_RESOURCES = 1041;
+
+  private final QueryTranslator queryTranslator;
+  private final int maxCursors;
+  private final long cursorIdleTimeoutNanos;
+
+  public StatementExecuteMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection,
+      OptionsMetadata optionsMetadata) {
+    super(connectionMetadata, sessionState, backendConnection);
+    this.queryTranslator = new QueryTranslator(optionsMetadata);
+    this.maxCursors = optionsMetadata.getMaxCursors();
+    this.cursorIdleTimeoutNanos =
+        TimeUnit.SECONDS.toNanos(optionsMetadata.getCursorIdleTimeoutSeconds());
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    StatementExecuteMessage executeMessage = (StatementExecuteMessage) message;
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    ServerPreparedStatement statement =
+        findStatement(executeMessage.getStatementId(), "mysqld_stmt_execute");
+    if (statement == null) {
+      return;
+    }
+    backendConnection.clearCancelled();
+    try {
+      Statement boundStatement =
+          statement.bind(executeMessage.readParameters(statement, sessionState.getTimeZone()));
+      statement.closeCursor();
+      ParsedStatement parsedStatement = PARSER.parse(boundStatement);
+      QueryReplacement queryReplacement =
+          queryTranslator.translatedQuery(parsedStatement, boundStatement);
+      if (queryReplacement.getAction() == QueryAction.RETURN_OK) {
+        currentSequenceNumber =
+            new OkResponse(currentSequenceNumber, connectionMetadata, 0L, sessionState).send(true);
+        return;
+      }
+      Statement outputQuery = queryReplacement.getOutputQuery();
+      if (outputQuery != boundStatement) {
+        parsedStatement = PARSER.parse(outputQuery);
+      }
+      // Session statements are evaluated from their text, so they cannot have parameters.
+      SessionStatement sessionStatement =
+          statement.getParameterCount() == 0 ? SessionStatementParser.parse(parsedStatement) : null;
+      boolean useCursor = executeMessage.isCursorRequested() && sessionStatement == null;
+      if (useCursor && !reserveCursor()) {
+        sendError("Out of resources: too many open cursors", ER_OUT_OF_RESOURCES);
+        return;
+      }
+      StatementResult statementResult =
+          sessionStatement == null
+              ? backendConnection.executeQuery(outputQuery, parsedStatement, sessionState)
+              : backendConnection.executeSessionStatement(sessionStatement, sessionState);
+      switch (statementResult.getResultType()) {
+        case RESULT_SET:
+          if (statementResult instanceof LocalQueryResult) {
+            sendLocalQueryResult((LocalQueryResult) statementResult);
+            break;
+          }
+          Cursor cursor = new Cursor(statementResult.getResultSet());
+          sendColumnDefinitions(cursor.getResultSet(), queryReplacement);
+          if (useCursor) {
+            statement.setCursor(cursor);
+            currentSequenceNumber =
+                new EofResponse(
+                        currentSequenceNumber,
+                        connectionMetadata,
+                        EofResponse.SERVER_STATUS_AUTOCOMMIT
+                            | EofResponse.SERVER_STATUS_CURSOR_EXISTS)
+                    .send();
+          } else {
+            try {
+              sendRows(cursor, Long.MAX_VALUE);
+            } finally {
+              cursor.close();
+            }
+            currentSequenceNumber =
+                new EofResponse(currentSequenceNumber, connectionMetadata).send();
+          }
+          connectionMetadata.getOutputStream().flush();
+          break;
+        case UPDATE_COUNT:
+          currentSequenceNumber =
+              new OkResponse(
+                      currentSequenceNumber,
+                      connectionMetadata,
+                      statementResult.getUpdateCount(),
+                      sessionState)
+                  .send(true);
+          break;
+        case NO_RESULT:
+          currentSequenceNumber =
+              new OkResponse(currentSequenceNumber, connectionMetadata, 0L, sessionState)
+                  .send(true);
+          break;
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Prepared statement execution error.");
+      sendExecutionError(e);
+    }
+  }
+
+  /**
+   * Closes the cursors that have been idle for longer than the idle timeout and returns true if
+   * another cursor may be opened for this session.
+   */
+  private boolean reserveCursor() {
+    long now = System.nanoTime();
+    int openCursors = 0;
+    for (ServerPreparedStatement statement : sessionState.getPreparedStatements()) {
+      Cursor cursor = statement.getCursor();
+      if (cursor == null) {
+        continue;
+      }
+      if (now - cursor.getLastUsedNanos() > cursorIdleTimeoutNanos) {
+        logger.log(Level.FINE, () -> "Closing idle cursor of statement " + statement.getId());
+        statement.closeCursor();
+      } else {
+        openCursors++;
+      }
+    }
+    return openCursors < maxCursors;
+  }
+}
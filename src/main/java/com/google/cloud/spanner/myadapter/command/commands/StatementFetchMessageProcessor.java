@@ -0,0 +1,84 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.Cursor;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.wireinput.StatementFetchMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.EofResponse;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the next rows of the cursor of a prepared statement. Rows are read from the Spanner stream
+ * only when they are fetched, so the stream is paused while the client processes a batch.
+ */
+public class StatementFetchMessageProcessor extends PreparedStatementMessageProcessor {
+  private static final Logger logger =
+      Logger.getLogger(StatementFetchMessageProcessor.class.getName());
+
+  private static final int ER_STMT_HAS_NO_OPEN_CURSOR = 1421;
+
+  public StatementFetchMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState, backendConnection);
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    StatementFetchMessage fetchMessage = (StatementFetchMessage) message;
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    ServerPreparedStatement statement =
+        findStatement(fetchMessage.getStatementId(), "mysqld_stmt_fetch");
+    if (statement == null) {
+      return;
+    }
+    Cursor cursor = statement.getCursor();
+    if (cursor == null) {
+      sendError(
+          String.format("The statement (%d) has no open cursor.", statement.getId()),
+          ER_STMT_HAS_NO_OPEN_CURSOR);
+      return;
+    }
+    backendConnection.clearCancelled();
+    int status;
+    try {
+      sendRows(cursor, fetchMessage.getNumRows());
+      if (cursor.hasRow()) {
+        status = EofResponse.SERVER_STATUS_CURSOR_EXISTS;
+      } else {
+        status = EofResponse.SERVER_STATUS_LAST_ROW_SENT;
+        statement.closeCursor();
+      }
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Fetching rows from cursor failed.");
+      statement.closeCursor();
+      sendExecutionError(e);
+      return;
+    }
+    currentSequenceNumber =
+        new EofResponse(
+                currentSequenceNumber,
+                connectionMetadata,
+                EofResponse.SERVER_STATUS_AUTOCOMMIT | status)
+            .send(true);
+  }
+}
@@ -0,0 +1,123 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.connection.AbstractStatementParser.ParametersInfo;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.cloud.spanner.myadapter.wireinput.StatementPrepareMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.PreEncodedResponse;
+import com.google.cloud.spanner.myadapter.wireoutput.StatementPrepareOkResponse;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prepares a statement for COM_STMT_EXECUTE. The columns of a query are determined by analyzing
+ * the query on Spanner, as clients only request a cursor for statements that return columns.
+ */
+public class StatementPrepareMessageProcessor extends PreparedStatementMessageProcessor {
+  private static final Logger logger =
+      Logger.getLogger(StatementPrepareMessageProcessor.class.getName());
+
+  /** The definition that is sent for each parameter. Clients do not use the parameter types. */
+  private static final byte[] PARAMETER_DEFINITION = encodeParameterDefinition();
+
+  private static byte[] encodeParameterDefinition() {
+    try {
+      return LocalQueryResult.encodeColumnDefinition("?", Code.STRING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public StatementPrepareMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState, backendConnection);
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    String sql = ((StatementPrepareMessage) message).getSql();
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    ServerPreparedStatement statement;
+    try {
+      statement = prepare(sql);
+    } catch (Exception e) {
+      logger.log(Level.WARNING, e, () -> "Preparing statement failed.");
+      sendError(e.getMessage(), 1064);
+      return;
+    }
+    sessionState.addPreparedStatement(statement);
+    currentSequenceNumber =
+        new StatementPrepareOkResponse(
+                currentSequenceNumber,
+                connectionMetadata,
+                statement.getId(),
+                statement.getColumnDefinitions().size(),
+                statement.getParameterCount())
+            .send();
+    for (int i = 0; i < statement.getParameterCount(); i++) {
+      currentSequenceNumber =
+          new PreEncodedResponse(currentSequenceNumber, connectionMetadata, PARAMETER_DEFINITION)
+              .send();
+    }
+    for (byte[] columnDefinition : statement.getColumnDefinitions()) {
+      currentSequenceNumber =
+          new PreEncodedResponse(currentSequenceNumber, connectionMetadata, columnDefinition)
+              .send();
+    }
+    connectionMetadata.getOutputStream().flush();
+  }
+
+  private ServerPreparedStatement prepare(String sql) throws IOException {
+    ParametersInfo parametersInfo = PARSER.convertPositionalParametersToNamedParameters('?', sql);
+    ImmutableList<byte[]> columnDefinitions = ImmutableList.of();
+    if (PARSER.isQuery(parametersInfo.sqlWithNamedParameters)) {
+      columnDefinitions = describeColumns(Statement.of(parametersInfo.sqlWithNamedParameters));
+    }
+    return new ServerPreparedStatement(
+        sessionState.nextStatementId(),
+        parametersInfo.sqlWithNamedParameters,
+        parametersInfo.numberOfParameters,
+        columnDefinitions);
+  }
+
+  /**
+   * Returns the column definitions of the given query, or an empty list if the columns cannot be
+   * determined without executing the query. The columns are then only sent when it is executed.
+   */
+  private ImmutableList<byte[]> describeColumns(Statement statement) throws IOException {
+    try (ResultSet resultSet = backendConnection.analyzeQuery(statement)) {
+      resultSet.next();
+      return encodeColumnDefinitions(resultSet.getType().getStructFields());
+    } catch (SpannerException | IllegalArgumentException e) {
+      logger.log(Level.FINE, e, () -> "Could not determine columns of " + statement.getSql());
+      return ImmutableList.of();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.command.commands;
+
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.wireinput.StatementResetMessage;
+import com.google.cloud.spanner.myadapter.wireinput.WireMessage;
+import com.google.cloud.spanner.myadapter.wireoutput.OkResponse;
+
+/** Closes the cursor of a prepared statement, while keeping the statement itself. */
+public class StatementResetMessageProcessor extends PreparedStatementMessageProcessor {
+
+  public StatementResetMessageProcessor(
+      ConnectionMetadata connectionMetadata,
+      SessionState sessionState,
+      BackendConnection backendConnection) {
+    super(connectionMetadata, sessionState, backendConnection);
+  }
+
+  @Override
+  public void processMessage(WireMessage message) throws Exception {
+    currentSequenceNumber = message.getMessageSequenceNumber();
+    ServerPreparedStatement statement =
+        findStatement(((StatementResetMessage) message).getStatementId(), "mysqld_stmt_reset");
+    if (statement == null) {
+      return;
+    }
+    statement.closeCursor();
+    currentSequenceNumber = new OkResponse(currentSequenceNumber, connectionMetadata).send(true);
+  }
+}
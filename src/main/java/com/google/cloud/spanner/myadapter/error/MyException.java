@@ -29,6 +29,7 @@ public class MyException extends RuntimeException {
     private Severity severity = Severity.ERROR;
     private SQLState sqlState;
     private String hints;
+    private int errorCode;
     private Throwable cause;
 
     private Builder(String message) {
@@ -50,13 +51,19 @@ public class MyException extends RuntimeException {
       return this;
     }
 
+    /** Sets the MySQL error code that is sent to the client. */
+    public Builder setErrorCode(int errorCode) {
+      this.errorCode = errorCode;
+      return this;
+    }
+
     public Builder setCause(Throwable cause) {
       this.cause = cause;
       return this;
     }
 
     public MyException build() {
-      return new MyException(cause, severity, sqlState, message, hints);
+      return new MyException(cause, severity, sqlState, message, hints, errorCode);
     }
   }
 
@@ -73,13 +80,20 @@ public class MyException extends RuntimeException {
   private final Severity severity;
   private final SQLState sqlState;
   private final String hints;
+  private final int errorCode;
 
   private MyException(
-      Throwable cause, Severity severity, SQLState sqlState, String message, String hints) {
+      Throwable cause,
+      Severity severity,
+      SQLState sqlState,
+      String message,
+      String hints,
+      int errorCode) {
     super(message == null ? "" : message, cause);
     this.severity = severity;
     this.sqlState = sqlState;
     this.hints = hints;
+    this.errorCode = errorCode;
   }
 
   public Severity getSeverity() {
@@ -109,4 +123,9 @@ public class MyException extends RuntimeException {
   public String getHints() {
     return hints;
   }
+
+  /** Returns the MySQL error code of this exception, or 0 if it has none. */
+  public int getErrorCode() {
+    return errorCode;
+  }
 }
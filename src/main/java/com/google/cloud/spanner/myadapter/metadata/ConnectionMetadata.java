@@ -25,14 +25,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 @InternalApi
 public class ConnectionMetadata implements AutoCloseable {
   private static final int SOCKET_BUFFER_SIZE = 1 << 16;
 
-  private final DataInputStream inputStream;
-  private final DataOutputStream outputStream;
+  private volatile DataInputStream inputStream;
+  private volatile DataOutputStream outputStream;
+  private volatile boolean secure;
   private boolean markedForRestart;
+  /** Watches the input stream while a command is executing, or null. */
+  @Nullable private AutoCloseable inputWatch;
 
   /**
    * Creates a {@link DataInputStream} and a {@link DataOutputStream} from the given raw streams and
@@ -49,6 +53,45 @@ public class ConnectionMetadata implements AutoCloseable {
                 Preconditions.checkNotNull(rawOutputStream), SOCKET_BUFFER_SIZE));
   }
 
+  /**
+   * Replaces the streams of this connection with streams that encrypt and decrypt all traffic. The
+   * given streams must already have completed the TLS handshake.
+   */
+  public void upgradeToTls(InputStream tlsInputStream, OutputStream tlsOutputStream) {
+    this.inputStream =
+        new DataInputStream(
+            new BufferedInputStream(
+                Preconditions.checkNotNull(tlsInputStream), SOCKET_BUFFER_SIZE));
+    this.outputStream =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                Preconditions.checkNotNull(tlsOutputStream), SOCKET_BUFFER_SIZE));
+    this.secure = true;
+  }
+
+  /** Returns true if the traffic on this connection is encrypted. */
+  public boolean isSecure() {
+    return secure;
+  }
+
+  /**
+   * Registers the watch that peeks at the input stream while the current command is executing.
+   */
+  public void setInputWatch(@Nullable AutoCloseable inputWatch) {
+    this.inputWatch = inputWatch;
+  }
+
+  /**
+   * Stops watching the input stream, so a command can read additional data from the client while
+   * it is executing.
+   */
+  public void stopInputWatch() throws Exception {
+    if (inputWatch != null) {
+      inputWatch.close();
+      inputWatch = null;
+    }
+  }
+
   public void markForRestart() {
     markedForRestart = true;
   }
@@ -21,20 +21,38 @@ import com.google.cloud.spanner.ErrorCode;
 import com.google.cloud.spanner.InstanceId;
 import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.SpannerOptions;
+import com.google.cloud.spanner.TimestampBound;
+import com.google.cloud.spanner.connection.GroupCommitter;
+import com.google.cloud.spanner.connection.IdleConnectionCache;
+import com.google.cloud.spanner.myadapter.auth.CredentialStore;
+import com.google.cloud.spanner.myadapter.session.ReadStaleness;
+import com.google.cloud.spanner.myadapter.tls.ServerTlsContext;
 import com.google.cloud.spanner.myadapter.translator.models.QueryReplacementConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.google.spanner.v1.DatabaseName;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -121,6 +139,41 @@ public class OptionsMetadata {
   private static final String OPTION_JDBC_PROPERTIES = "r";
   private static final String OPTION_SERVER_VERSION = "v";
   private static final String OPTION_DEBUG_MODE = "debug";
+  private static final String OPTION_CREDENTIAL_STORE = "credential-store";
+  private static final String OPTION_SSL = "ssl";
+  private static final String OPTION_MAX_IDLE_CONNECTIONS = "max_idle_connections";
+  private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 100;
+  private static final String OPTION_MAX_CURSORS = "max_cursors";
+  private static final int DEFAULT_MAX_CURSORS = 32;
+  private static final String OPTION_CURSOR_IDLE_TIMEOUT = "cursor_idle_timeout";
+  private static final int DEFAULT_CURSOR_IDLE_TIMEOUT_SECONDS = 300;
+  private static final String OPTION_DISCONNECT_CHECK_INTERVAL = "disconnect_check_interval";
+  private static final int DEFAULT_DISCONNECT_CHECK_INTERVAL_MILLIS = 100;
+  private static final String OPTION_AUTO_BATCH_DML = "auto_batch_dml";
+  private static final String OPTION_AUTO_BATCH_DML_UPDATE_COUNT = "auto_batch_dml_update_count";
+  private static final int DEFAULT_AUTO_BATCH_DML_UPDATE_COUNT = 1;
+  private static final String OPTION_SKIP_AUTO_BATCH_DML_VERIFICATION =
+      "skip_auto_batch_dml_update_count_verification";
+  private static final String OPTION_DISABLE_INSERT_MUTATIONS = "disable_insert_mutations";
+  private static final String OPTION_MAX_MUTATIONS_PER_COMMIT = "max_mutations_per_commit";
+  private static final int DEFAULT_MAX_MUTATIONS_PER_COMMIT = 20000;
+  private static final String OPTION_GROUP_COMMIT_USERS = "group_commit_users";
+  private static final String OPTION_GROUP_COMMIT_WINDOW = "group_commit_window_micros";
+  private static final int DEFAULT_GROUP_COMMIT_WINDOW_MICROS = 2000;
+  private static final String OPTION_GROUP_COMMIT_MAX_MUTATIONS = "group_commit_max_mutations";
+  private static final int DEFAULT_GROUP_COMMIT_MAX_MUTATIONS = 1000;
+  private static final String OPTION_LOAD_DATA_CONCURRENCY = "load_data_concurrency";
+  private static final int DEFAULT_LOAD_DATA_CONCURRENCY = 4;
+  private static final String OPTION_MAX_BULK_THREADS = "max_bulk_threads";
+  private static final int DEFAULT_MAX_BULK_THREADS = 32;
+  private static final String OPTION_SECURE_FILE_PRIV = "secure_file_priv";
+  private static final String OPTION_EXPORT_CONCURRENCY = "export_concurrency";
+  private static final int DEFAULT_EXPORT_CONCURRENCY = 4;
+  private static final String OPTION_PARTITIONED_QUERY_CONCURRENCY =
+      "partitioned_query_concurrency";
+  private static final int DEFAULT_PARTITIONED_QUERY_CONCURRENCY = 4;
+  private static final String OPTION_USER_READ_STALENESS = "user_read_staleness";
+  private static final String OPTION_DATABASE_READ_STALENESS = "database_read_staleness";
 
   private final String osName;
   private final CommandLine commandLine;
@@ -134,6 +187,27 @@ public class OptionsMetadata {
   private final boolean debugMode;
 
   private QueryReplacementConfig queryReplacementConfig;
+  private final CredentialStore credentialStore;
+  private final SslMode sslMode;
+  private final ServerTlsContext serverTlsContext;
+  private final IdleConnectionCache idleConnectionCache;
+  private final int maxCursors;
+  private final int cursorIdleTimeoutSeconds;
+  private final int disconnectCheckIntervalMillis;
+  private final boolean autoBatchDml;
+  private final int autoBatchDmlUpdateCount;
+  private final boolean verifyAutoBatchDmlUpdateCount;
+  private final boolean insertMutations;
+  private final int maxMutationsPerCommit;
+  private final ImmutableSet<String> groupCommitUsers;
+  private final GroupCommitter groupCommitter;
+  private final int loadDataConcurrency;
+  private final ExecutorService bulkExecutor;
+  @Nullable private final Path secureFilePriv;
+  private final int exportConcurrency;
+  private final int partitionedQueryConcurrency;
+  private final ImmutableMap<String, TimestampBound> userReadStaleness;
+  private final ImmutableMap<String, TimestampBound> databaseReadStaleness;
 
   public OptionsMetadata(String[] args) {
     this(System.getProperty("os.name", ""), args);
@@ -168,6 +242,97 @@ public class OptionsMetadata {
     this.debugMode = commandLine.hasOption(OPTION_DEBUG_MODE);
 
     this.queryReplacementConfig = parseQueryTranslatorFile(getQueryTranslatorFilePath());
+    this.credentialStore =
+        commandLine.hasOption(OPTION_CREDENTIAL_STORE)
+            ? CredentialStore.read(commandLine.getOptionValue(OPTION_CREDENTIAL_STORE))
+            : null;
+    this.sslMode = parseSslMode(commandLine.getOptionValue(OPTION_SSL));
+    this.serverTlsContext = sslMode.isSslEnabled() ? ServerTlsContext.create() : null;
+    this.idleConnectionCache = new IdleConnectionCache(buildMaxIdleConnections(commandLine));
+    this.maxCursors =
+        buildPositiveInt(commandLine, OPTION_MAX_CURSORS, DEFAULT_MAX_CURSORS, "Max cursors");
+    this.cursorIdleTimeoutSeconds =
+        buildPositiveInt(
+            commandLine,
+            OPTION_CURSOR_IDLE_TIMEOUT,
+            DEFAULT_CURSOR_IDLE_TIMEOUT_SECONDS,
+            "Cursor idle timeout");
+    this.disconnectCheckIntervalMillis =
+        buildNonNegativeInt(
+            commandLine,
+            OPTION_DISCONNECT_CHECK_INTERVAL,
+            DEFAULT_DISCONNECT_CHECK_INTERVAL_MILLIS,
+            "Disconnect check interval");
+    this.autoBatchDml = commandLine.hasOption(OPTION_AUTO_BATCH_DML);
+    this.autoBatchDmlUpdateCount =
+        buildNonNegativeInt(
+            commandLine,
+            OPTION_AUTO_BATCH_DML_UPDATE_COUNT,
+            DEFAULT_AUTO_BATCH_DML_UPDATE_COUNT,
+            "Auto batch DML update count");
+    this.verifyAutoBatchDmlUpdateCount =
+        !commandLine.hasOption(OPTION_SKIP_AUTO_BATCH_DML_VERIFICATION);
+    this.insertMutations = !commandLine.hasOption(OPTION_DISABLE_INSERT_MUTATIONS);
+    this.maxMutationsPerCommit =
+        buildPositiveInt(
+            commandLine,
+            OPTION_MAX_MUTATIONS_PER_COMMIT,
+            DEFAULT_MAX_MUTATIONS_PER_COMMIT,
+            "Max mutations per commit");
+    this.groupCommitUsers =
+        ImmutableSet.copyOf(
+            Splitter.on(',')
+                .trimResults()
+                .omitEmptyStrings()
+                .split(commandLine.getOptionValue(OPTION_GROUP_COMMIT_USERS, "")));
+    this.groupCommitter =
+        new GroupCommitter(
+            buildNonNegativeInt(
+                commandLine,
+                OPTION_GROUP_COMMIT_WINDOW,
+                DEFAULT_GROUP_COMMIT_WINDOW_MICROS,
+                "Group commit window"),
+            buildPositiveInt(
+                commandLine,
+                OPTION_GROUP_COMMIT_MAX_MUTATIONS,
+                DEFAULT_GROUP_COMMIT_MAX_MUTATIONS,
+                "Group commit max mutations"),
+            maxMutationsPerCommit);
+    this.loadDataConcurrency =
+        buildPositiveInt(
+            commandLine,
+            OPTION_LOAD_DATA_CONCURRENCY,
+            DEFAULT_LOAD_DATA_CONCURRENCY,
+            "LOAD DATA concurrency");
+    this.bulkExecutor =
+        createBulkExecutor(
+            buildPositiveInt(
+                commandLine,
+                OPTION_MAX_BULK_THREADS,
+                DEFAULT_MAX_BULK_THREADS,
+                "Max bulk threads"));
+    this.secureFilePriv =
+        commandLine.hasOption(OPTION_SECURE_FILE_PRIV)
+            ? Paths.get(commandLine.getOptionValue(OPTION_SECURE_FILE_PRIV))
+                .toAbsolutePath()
+                .normalize()
+            : null;
+    this.exportConcurrency =
+        buildPositiveInt(
+            commandLine,
+            OPTION_EXPORT_CONCURRENCY,
+            DEFAULT_EXPORT_CONCURRENCY,
+            "Export concurrency");
+    this.partitionedQueryConcurrency =
+        buildPositiveInt(
+            commandLine,
+            OPTION_PARTITIONED_QUERY_CONCURRENCY,
+            DEFAULT_PARTITIONED_QUERY_CONCURRENCY,
+            "Partitioned query concurrency");
+    this.userReadStaleness =
+        parseReadStalenessRules(commandLine.getOptionValue(OPTION_USER_READ_STALENESS, ""));
+    this.databaseReadStaleness =
+        parseReadStalenessRules(commandLine.getOptionValue(OPTION_DATABASE_READ_STALENESS, ""));
   }
 
   public OptionsMetadata(String defaultConnectionUrl, int proxyPort) {
@@ -185,6 +350,61 @@ public class OptionsMetadata {
     this.disableLocalhostCheck = false;
     this.serverVersion = DEFAULT_SERVER_VERSION;
     this.debugMode = false;
+    this.credentialStore = null;
+    this.sslMode = SslMode.Disable;
+    this.serverTlsContext = null;
+    this.idleConnectionCache = new IdleConnectionCache(DEFAULT_MAX_IDLE_CONNECTIONS);
+    this.maxCursors = DEFAULT_MAX_CURSORS;
+    this.cursorIdleTimeoutSeconds = DEFAULT_CURSOR_IDLE_TIMEOUT_SECONDS;
+    this.disconnectCheckIntervalMillis = DEFAULT_DISCONNECT_CHECK_INTERVAL_MILLIS;
+    this.autoBatchDml = false;
+    this.autoBatchDmlUpdateCount = DEFAULT_AUTO_BATCH_DML_UPDATE_COUNT;
+    this.verifyAutoBatchDmlUpdateCount = true;
+    this.insertMutations = true;
+    this.maxMutationsPerCommit = DEFAULT_MAX_MUTATIONS_PER_COMMIT;
+    this.groupCommitUsers = ImmutableSet.of();
+    this.groupCommitter =
+        new GroupCommitter(
+            DEFAULT_GROUP_COMMIT_WINDOW_MICROS,
+            DEFAULT_GROUP_COMMIT_MAX_MUTATIONS,
+            DEFAULT_MAX_MUTATIONS_PER_COMMIT);
+    this.loadDataConcurrency = DEFAULT_LOAD_DATA_CONCURRENCY;
+    this.bulkExecutor = createBulkExecutor(DEFAULT_MAX_BULK_THREADS);
+    this.secureFilePriv = null;
+    this.exportConcurrency = DEFAULT_EXPORT_CONCURRENCY;
+    this.partitionedQueryConcurrency = DEFAULT_PARTITIONED_QUERY_CONCURRENCY;
+    this.userReadStaleness = ImmutableMap.of();
+    this.databaseReadStaleness = ImmutableMap.of();
+  }
+
+  /** Parses a comma-separated list of name=staleness pairs. */
+  private static ImmutableMap<String, TimestampBound> parseReadStalenessRules(String rules) {
+    return ImmutableMap.copyOf(
+        Maps.transformValues(
+            Splitter.on(',')
+                .trimResults()
+                .omitEmptyStrings()
+                .withKeyValueSeparator(Splitter.on('=').trimResults())
+                .split(rules),
+            ReadStaleness::parse));
+  }
+
+  /**
+   * Creates the process-wide executor for the background work of bulk statements. The number of
+   * threads is bounded, and tasks that are started while all threads are busy wait in the queue of
+   * the executor.
+   */
+  private static ExecutorService createBulkExecutor(int threads) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("bulk-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   private Map<String, String> parseProperties(String propertyOptions) {
@@ -268,10 +488,179 @@ public class OptionsMetadata {
     return backlog;
   }
 
+  private int buildMaxIdleConnections(CommandLine commandLine) {
+    int maxIdleConnections =
+        Integer.parseInt(
+            commandLine
+                .getOptionValue(
+                    OPTION_MAX_IDLE_CONNECTIONS, String.valueOf(DEFAULT_MAX_IDLE_CONNECTIONS))
+                .trim());
+    if (maxIdleConnections < 0) {
+      throw new IllegalArgumentException("Max idle connections must be 0 or greater");
+    }
+    return maxIdleConnections;
+  }
+
+  private int buildPositiveInt(
+      CommandLine commandLine, String option, int defaultValue, String description) {
+    int value =
+        Integer.parseInt(commandLine.getOptionValue(option, String.valueOf(defaultValue)).trim());
+    if (value <= 0) {
+      throw new IllegalArgumentException(description + " must be greater than 0");
+    }
+    return value;
+  }
+
+  private int buildNonNegativeInt(
+      CommandLine commandLine, String option, int defaultValue, String description) {
+    int value =
+        Integer.parseInt(commandLine.getOptionValue(option, String.valueOf(defaultValue)).trim());
+    if (value < 0) {
+      throw new IllegalArgumentException(description + " must be 0 or greater");
+    }
+    return value;
+  }
+
   public QueryReplacementConfig getQueryReplacementConfig() {
     return queryReplacementConfig;
   }
 
+  /**
+   * Returns the store that is used to authenticate users, or null if no store has been configured.
+   * All users are accepted if there is no store.
+   */
+  @Nullable
+  public CredentialStore getCredentialStore() {
+    return credentialStore;
+  }
+
+  public SslMode getSslMode() {
+    return sslMode;
+  }
+
+  /** Returns the TLS configuration of the server, or null if SSL is disabled. */
+  @Nullable
+  public ServerTlsContext getServerTlsContext() {
+    return serverTlsContext;
+  }
+
+  /** Returns the process-wide cache of Spanner connections that are not used by any session. */
+  public IdleConnectionCache getIdleConnectionCache() {
+    return idleConnectionCache;
+  }
+
+  /** Returns the maximum number of open server-side cursors per connection. */
+  public int getMaxCursors() {
+    return maxCursors;
+  }
+
+  /** Returns the number of seconds after which an unused server-side cursor may be closed. */
+  public int getCursorIdleTimeoutSeconds() {
+    return cursorIdleTimeoutSeconds;
+  }
+
+  /**
+   * Returns the interval in milliseconds at which connections that are executing a statement are
+   * checked for a client disconnect. Zero disables the check.
+   */
+  public int getDisconnectCheckIntervalMillis() {
+    return disconnectCheckIntervalMillis;
+  }
+
+  /**
+   * Returns true if DML statements in read/write transactions should be buffered and sent to
+   * Spanner as one batch when the transaction executes another statement or commits.
+   */
+  public boolean isAutoBatchDml() {
+    return autoBatchDml;
+  }
+
+  /** Returns the update count that is reported to the client for a buffered DML statement. */
+  public int getAutoBatchDmlUpdateCount() {
+    return autoBatchDmlUpdateCount;
+  }
+
+  /**
+   * Returns true if the actual update counts of a DML batch must be equal to the update counts
+   * that were reported to the client.
+   */
+  public boolean isVerifyAutoBatchDmlUpdateCount() {
+    return verifyAutoBatchDmlUpdateCount;
+  }
+
+  /**
+   * Returns true if INSERT statements with only literal values are written as mutations in
+   * autocommit mode.
+   */
+  public boolean isInsertMutations() {
+    return insertMutations;
+  }
+
+  /** Returns the maximum number of mutations that are written to Spanner in one commit. */
+  public int getMaxMutationsPerCommit() {
+    return maxMutationsPerCommit;
+  }
+
+  /** Returns true if the autocommit writes of the given user are always group committed. */
+  public boolean isGroupCommitUser(@Nullable String user) {
+    return user != null && groupCommitUsers.contains(user);
+  }
+
+  /** Returns the process-wide committer that combines autocommit writes of many sessions. */
+  public GroupCommitter getGroupCommitter() {
+    return groupCommitter;
+  }
+
+  /** Returns the number of batches that a LOAD DATA statement commits in parallel. */
+  public int getLoadDataConcurrency() {
+    return loadDataConcurrency;
+  }
+
+  /**
+   * Returns the process-wide executor with a bounded number of threads that commits the batches of
+   * LOAD DATA, and reads the partitions of SELECT ... INTO OUTFILE and partitioned queries.
+   */
+  public ExecutorService getBulkExecutor() {
+    return bulkExecutor;
+  }
+
+  /**
+   * Returns the directory that LOAD DATA INFILE without LOCAL may read files from and SELECT ...
+   * INTO OUTFILE may write files to, or null if files on the server may not be accessed.
+   */
+  @Nullable
+  public Path getSecureFilePriv() {
+    return secureFilePriv;
+  }
+
+  /** Returns the number of partitions that SELECT ... INTO OUTFILE reads in parallel. */
+  public int getExportConcurrency() {
+    return exportConcurrency;
+  }
+
+  /** Returns the number of partitions of a partitioned query that are read in parallel. */
+  public int getPartitionedQueryConcurrency() {
+    return partitionedQueryConcurrency;
+  }
+
+  /**
+   * Returns the staleness of the queries of the given user in autocommit mode, or null if the user
+   * reads with the default strong staleness.
+   */
+  @Nullable
+  public TimestampBound getUserReadStaleness(@Nullable String user) {
+    return user == null ? null : userReadStaleness.get(user);
+  }
+
+  /**
+   * Returns the staleness of the queries in autocommit mode on the given database, or null if
+   * there is no rule for the database. The rule of the user takes precedence.
+   */
+  @Nullable
+  public TimestampBound getDatabaseReadStaleness(@Nullable String database) {
+    return database == null ? null : databaseReadStaleness.get(database);
+  }
+
   @VisibleForTesting
   private QueryReplacementConfig parseQueryTranslatorFile(String filePath) {
     try {
@@ -328,6 +717,11 @@ public class OptionsMetadata {
    */
   public String buildConnectionURL(String database) {
     Preconditions.checkNotNull(database);
+    if (commandLine == null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION,
+          "This server only accepts connections to " + defaultConnectionUrl);
+    }
     // Check if it is a full database name, or only a database ID.
     DatabaseName databaseName = getDatabaseName(database);
     String host = commandLine.getOptionValue(OPTION_SPANNER_ENDPOINT, "");
@@ -438,10 +832,9 @@ public class OptionsMetadata {
         "database",
         true,
         "The default Spanner database within the GCP project to use. "
-            + "If specified, PGAdapter will always connect to this database. "
-            + "Any database name in the connection request from the client will be ignored. "
-            + "Omit this option to be able to connect to different databases using a single "
-            + "PGAdapter instance.");
+            + "If specified, new connections are connected to this database. "
+            + "Clients can switch to a different database in the same instance with "
+            + "USE <database> or by selecting a database in the connection request.");
     options.addOption(
         OPTION_CREDENTIALS_FILE,
         "credentials-file",
@@ -482,6 +875,169 @@ public class OptionsMetadata {
         false,
         "-- ONLY USE FOR DEBUGGING -- This option only intended for debugging. It will "
             + "instruct the server to keep track of all messages it receives.");
+    options.addOption(
+        null,
+        OPTION_CREDENTIAL_STORE,
+        true,
+        "The file with the users that may connect to the adapter, in the format "
+            + "user:iterations:salt:hash per line. Run "
+            + CredentialStore.class.getName()
+            + " <user> <password> to generate a line. "
+            + "If not specified, any user can connect without a password.");
+    options.addOption(
+        null,
+        OPTION_SSL,
+        true,
+        "Enable or require SSL connections: Disable (default), Enable or Require. "
+            + "The server certificate is read from the key store that is set with "
+            + "-Djavax.net.ssl.keyStore and -Djavax.net.ssl.keyStorePassword.");
+    options.addOption(
+        null,
+        OPTION_MAX_IDLE_CONNECTIONS,
+        true,
+        String.format(
+            "Maximum number of idle Spanner connections that are kept for reuse by new sessions "
+                + "or sessions that switch database. Defaults to %d.",
+            DEFAULT_MAX_IDLE_CONNECTIONS));
+    options.addOption(
+        null,
+        OPTION_MAX_CURSORS,
+        true,
+        String.format(
+            "Maximum number of open server-side cursors per connection. Defaults to %d.",
+            DEFAULT_MAX_CURSORS));
+    options.addOption(
+        null,
+        OPTION_CURSOR_IDLE_TIMEOUT,
+        true,
+        String.format(
+            "Number of seconds after which an unused server-side cursor is closed when the "
+                + "connection opens a new cursor. Defaults to %d.",
+            DEFAULT_CURSOR_IDLE_TIMEOUT_SECONDS));
+    options.addOption(
+        null,
+        OPTION_DISCONNECT_CHECK_INTERVAL,
+        true,
+        String.format(
+            "Interval in milliseconds at which the connection of a client that is executing a "
+                + "statement is checked. The statement is cancelled if the client has "
+                + "disconnected. Set to 0 to disable. Defaults to %d.",
+            DEFAULT_DISCONNECT_CHECK_INTERVAL_MILLIS));
+    options.addOption(
+        null,
+        OPTION_AUTO_BATCH_DML,
+        false,
+        "Buffer DML statements in read/write transactions and send them to Spanner as one batch "
+            + "when the transaction executes a query or commits. The client receives the update "
+            + "count of a buffered statement before it has been executed.");
+    options.addOption(
+        null,
+        OPTION_AUTO_BATCH_DML_UPDATE_COUNT,
+        true,
+        String.format(
+            "The update count that is returned for a DML statement that is buffered by "
+                + "auto_batch_dml. Defaults to %d.",
+            DEFAULT_AUTO_BATCH_DML_UPDATE_COUNT));
+    options.addOption(
+        null,
+        OPTION_SKIP_AUTO_BATCH_DML_VERIFICATION,
+        false,
+        "Do not fail a DML batch when the actual update count of a buffered statement differs "
+            + "from the update count that was returned to the client.");
+    options.addOption(
+        null,
+        OPTION_DISABLE_INSERT_MUTATIONS,
+        false,
+        "Execute all INSERT statements as DML. By default, INSERT statements in autocommit "
+            + "mode that only contain literal values are written as mutations, which saves a "
+            + "round trip to Spanner.");
+    options.addOption(
+        null,
+        OPTION_MAX_MUTATIONS_PER_COMMIT,
+        true,
+        String.format(
+            "Maximum number of mutations that an INSERT statement writes in one commit. Larger "
+                + "statements are committed in multiple parts. Defaults to %d.",
+            DEFAULT_MAX_MUTATIONS_PER_COMMIT));
+    options.addOption(
+        null,
+        OPTION_GROUP_COMMIT_USERS,
+        true,
+        "Comma-separated list of users whose INSERT statements in autocommit mode are committed "
+            + "together with the writes of other sessions. Other sessions can opt in with "
+            + "SET spanner_group_commit = 1. Use this for high-volume ingestion that does not "
+            + "need the rows of different statements to be committed atomically.");
+    options.addOption(
+        null,
+        OPTION_GROUP_COMMIT_WINDOW,
+        true,
+        String.format(
+            "Time in microseconds that a group commit waits for writes of other sessions. "
+                + "Defaults to %d.",
+            DEFAULT_GROUP_COMMIT_WINDOW_MICROS));
+    options.addOption(
+        null,
+        OPTION_GROUP_COMMIT_MAX_MUTATIONS,
+        true,
+        String.format(
+            "Number of mutations after which a group commit is sent without waiting for the "
+                + "rest of the window. Defaults to %d.",
+            DEFAULT_GROUP_COMMIT_MAX_MUTATIONS));
+    options.addOption(
+        null,
+        OPTION_LOAD_DATA_CONCURRENCY,
+        true,
+        String.format(
+            "Number of batches that a LOAD DATA statement commits in parallel. Defaults to %d.",
+            DEFAULT_LOAD_DATA_CONCURRENCY));
+    options.addOption(
+        null,
+        OPTION_MAX_BULK_THREADS,
+        true,
+        String.format(
+            "Maximum number of threads that commit the batches of LOAD DATA and read the "
+                + "partitions of SELECT ... INTO OUTFILE and partitioned queries. The threads are "
+                + "shared by all connections. Defaults to %d.",
+            DEFAULT_MAX_BULK_THREADS));
+    options.addOption(
+        null,
+        OPTION_SECURE_FILE_PRIV,
+        true,
+        "Directory on the server that LOAD DATA INFILE may read files from and SELECT ... INTO "
+            + "OUTFILE may write files to. Files on the server cannot be accessed if this option "
+            + "is not set. LOAD DATA LOCAL INFILE reads the file from the client and does not "
+            + "need this option.");
+    options.addOption(
+        null,
+        OPTION_EXPORT_CONCURRENCY,
+        true,
+        String.format(
+            "Number of partitions that SELECT ... INTO OUTFILE reads in parallel. Defaults to %d.",
+            DEFAULT_EXPORT_CONCURRENCY));
+    options.addOption(
+        null,
+        OPTION_PARTITIONED_QUERY_CONCURRENCY,
+        true,
+        String.format(
+            "Number of partitions that a partitioned query reads in parallel. Queries are "
+                + "partitioned with SET spanner_partitioned_query = 1 or the hint "
+                + "/*+ SPANNER_PARTITIONED_QUERY */. Defaults to %d.",
+            DEFAULT_PARTITIONED_QUERY_CONCURRENCY));
+    options.addOption(
+        null,
+        OPTION_USER_READ_STALENESS,
+        true,
+        "Comma-separated list of user=staleness pairs, e.g. "
+            + "dashboard=MAX_STALENESS 15s,reports=EXACT_STALENESS 10s. The queries of these users "
+            + "in autocommit mode read with the given staleness, unless the session sets "
+            + "spanner_read_staleness or the query has a SPANNER_READ_STALENESS hint.");
+    options.addOption(
+        null,
+        OPTION_DATABASE_READ_STALENESS,
+        true,
+        "Comma-separated list of database=staleness pairs. The queries in autocommit mode on "
+            + "these databases read with the given staleness, unless the user, the session or "
+            + "the query sets a different staleness.");
 
     CommandLineParser parser = new DefaultParser();
     HelpFormatter help = new HelpFormatter();
@@ -523,6 +1079,14 @@ public class OptionsMetadata {
     return this.defaultConnectionUrl != null;
   }
 
+  /**
+   * Returns true if clients can select a database when connecting or with USE. This is not
+   * supported if the server was only given a connection URL.
+   */
+  public boolean isDatabaseSelectionSupported() {
+    return this.commandLine != null;
+  }
+
   /** Returns the id of the default database or null if no default has been selected. */
   public DatabaseId getDefaultDatabaseId() {
     return this.hasDefaultConnectionUrl()
@@ -36,4 +36,9 @@ public class BooleanParser extends Parser<Boolean> {
   public byte[] toLengthEncodedBytes() {
     return item ? TRUE_VALUE_BYTES : FALSE_VALUE_BYTES;
   }
+
+  @Override
+  public byte[] toBinaryBytes() {
+    return new byte[] {(byte) (item ? 1 : 0)};
+  }
 }
@@ -34,4 +34,16 @@ public class DateParser extends Parser<Date> {
   public byte[] toLengthEncodedBytes() throws IOException {
     return StringParser.getLengthEncodedBytes(item.toString());
   }
+
+  /** Encodes the date as a length byte followed by the year, month and day. */
+  @Override
+  public byte[] toBinaryBytes() {
+    return new byte[] {
+      4,
+      (byte) (item.getYear() & 255),
+      (byte) (item.getYear() >> 8),
+      (byte) item.getMonth(),
+      (byte) item.getDayOfMonth()
+    };
+  }
 }
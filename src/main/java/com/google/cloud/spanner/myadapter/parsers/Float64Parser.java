@@ -30,4 +30,9 @@ public class Float64Parser extends Parser<Double> {
   public byte[] toLengthEncodedBytes() throws IOException {
     return StringParser.getLengthEncodedBytes(item == null ? null : Double.toString(item));
   }
+
+  @Override
+  public byte[] toBinaryBytes() {
+    return toLittleEndianBytes(Double.doubleToLongBits(item), 8);
+  }
 }
@@ -31,6 +31,11 @@ public class LongParser extends Parser<Long> {
     return StringParser.getLengthEncodedBytes(Long.toString(item));
   }
 
+  @Override
+  public byte[] toBinaryBytes() {
+    return toLittleEndianBytes(item, 8);
+  }
+
   public static byte[] getLengthEncodedBytes(long value) {
     byte[] bytes;
     if (value < 251) {
@@ -32,7 +32,9 @@ import java.util.function.BiFunction;
 public abstract class Parser<T> {
   public enum FormatCode {
     LENGTH_ENCODED,
-    FIXED_LENGTH;
+    FIXED_LENGTH,
+    /** The binary protocol encoding that is used for the rows of prepared statements. */
+    BINARY;
   }
 
   protected static final Charset UTF8 = StandardCharsets.UTF_8;
@@ -103,6 +105,9 @@ public abstract class Parser<T> {
     switch (format) {
       case LENGTH_ENCODED:
         return this.toLengthEncodedBytesNullCheck();
+      case BINARY:
+        // Null values are encoded in the null bitmap of a binary row.
+        return this.item == null ? new byte[0] : this.toBinaryBytes();
       default:
         throw new IllegalArgumentException("Unknown format: " + format);
     }
@@ -118,4 +123,27 @@ public abstract class Parser<T> {
   }
 
   public abstract byte[] toLengthEncodedBytes() throws IOException;
+
+  /** Returns true if the value is a SQL NULL. */
+  public boolean isNull() {
+    return this.item == null;
+  }
+
+  /**
+   * Encodes the value for a binary protocol row. Types that are sent as strings in the binary
+   * protocol use the same encoding as in a text protocol row.
+   */
+  public byte[] toBinaryBytes() throws IOException {
+    return toLengthEncodedBytes();
+  }
+
+  /** Returns the given value as little-endian bytes. */
+  protected static byte[] toLittleEndianBytes(long value, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; ++i) {
+      bytes[i] = (byte) (value & 255);
+      value >>= 8;
+    }
+    return bytes;
+  }
 }
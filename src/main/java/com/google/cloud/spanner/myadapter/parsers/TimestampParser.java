@@ -46,4 +46,30 @@ public class TimestampParser extends Parser<Timestamp> {
     String dateTime = TIMESTAMP_OUTPUT_FORMATTER.format(offsetDateTime);
     return StringParser.getLengthEncodedBytes(dateTime);
   }
+
+  /**
+   * Encodes the timestamp as a DATETIME in UTC: a length byte followed by the year, month, day,
+   * hour, minute, second and microseconds.
+   */
+  @Override
+  public byte[] toBinaryBytes() {
+    OffsetDateTime dateTime =
+        OffsetDateTime.ofInstant(
+            Instant.ofEpochSecond(item.getSeconds(), item.getNanos()), ZoneId.from(ZoneOffset.UTC));
+    byte[] micros = toLittleEndianBytes(dateTime.getNano() / 1000, 4);
+    return new byte[] {
+      11,
+      (byte) (dateTime.getYear() & 255),
+      (byte) (dateTime.getYear() >> 8),
+      (byte) dateTime.getMonthValue(),
+      (byte) dateTime.getDayOfMonth(),
+      (byte) dateTime.getHour(),
+      (byte) dateTime.getMinute(),
+      (byte) dateTime.getSecond(),
+      micros[0],
+      micros[1],
+      micros[2],
+      micros[3]
+    };
+  }
 }
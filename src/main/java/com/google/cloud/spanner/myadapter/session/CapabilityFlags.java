@@ -0,0 +1,34 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.session;
+
+import com.google.api.core.InternalApi;
+
+/** Capability flags that are exchanged between the client and the server during the handshake. */
+@InternalApi
+public final class CapabilityFlags {
+  public static final int CLIENT_CONNECT_WITH_DB = 1 << 3;
+  public static final int CLIENT_PROTOCOL_41 = 1 << 9;
+  public static final int CLIENT_SSL = 1 << 11;
+  public static final int CLIENT_SECURE_CONNECTION = 1 << 15;
+  public static final int CLIENT_PLUGIN_AUTH = 1 << 19;
+  public static final int CLIENT_CONNECT_ATTRS = 1 << 20;
+  public static final int CLIENT_PLUGIN_AUTH_LENENC_CLIENT_DATA = 1 << 21;
+  public static final int CLIENT_SESSION_TRACK = 1 << 23;
+  public static final int CLIENT_DEPRECATE_EOF = 1 << 24;
+  public static final int CLIENT_QUERY_ATTRIBUTES = 1 << 27;
+
+  private CapabilityFlags() {}
+}
@@ -0,0 +1,81 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.session;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.TimestampBound;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses read staleness values in the format of the Spanner connection API: STRONG, MAX_STALENESS
+ * duration, EXACT_STALENESS duration, READ_TIMESTAMP timestamp or MIN_READ_TIMESTAMP timestamp. A
+ * duration is a number followed by s, ms, us or ns, e.g. MAX_STALENESS 15s.
+ */
+@InternalApi
+public final class ReadStaleness {
+  private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d+)(s|ms|us|ns)");
+
+  private ReadStaleness() {}
+
+  /** Parses the given read staleness. Throws an INVALID_ARGUMENT error if it is not valid. */
+  public static TimestampBound parse(String value) {
+    String[] parts = value.trim().split("\\s+", 2);
+    String mode = parts[0].toUpperCase(Locale.ROOT);
+    try {
+      if (parts.length == 1) {
+        if (mode.equals("STRONG")) {
+          return TimestampBound.strong();
+        }
+      } else if (mode.equals("MAX_STALENESS") || mode.equals("EXACT_STALENESS")) {
+        Matcher matcher = DURATION_PATTERN.matcher(parts[1].trim().toLowerCase(Locale.ROOT));
+        if (matcher.matches()) {
+          long duration = Long.parseLong(matcher.group(1));
+          TimeUnit unit = parseTimeUnit(matcher.group(2));
+          return mode.equals("MAX_STALENESS")
+              ? TimestampBound.ofMaxStaleness(duration, unit)
+              : TimestampBound.ofExactStaleness(duration, unit);
+        }
+      } else if (mode.equals("READ_TIMESTAMP")) {
+        return TimestampBound.ofReadTimestamp(Timestamp.parseTimestamp(parts[1].trim()));
+      } else if (mode.equals("MIN_READ_TIMESTAMP")) {
+        return TimestampBound.ofMinReadTimestamp(Timestamp.parseTimestamp(parts[1].trim()));
+      }
+    } catch (IllegalArgumentException | DateTimeParseException ignore) {
+      // Fall through to the error below.
+    }
+    throw SpannerExceptionFactory.newSpannerException(
+        ErrorCode.INVALID_ARGUMENT, "Invalid read staleness: " + value);
+  }
+
+  private static TimeUnit parseTimeUnit(String unit) {
+    switch (unit) {
+      case "s":
+        return TimeUnit.SECONDS;
+      case "ms":
+        return TimeUnit.MILLISECONDS;
+      case "us":
+        return TimeUnit.MICROSECONDS;
+      default:
+        return TimeUnit.NANOSECONDS;
+    }
+  }
+}
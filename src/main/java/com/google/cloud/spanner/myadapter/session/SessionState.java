@@ -20,16 +20,22 @@ import com.google.cloud.spanner.SpannerException;
 import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.myadapter.command.commands.QueryMessageProcessor;
 import com.google.cloud.spanner.myadapter.parsers.BooleanParser;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /** {@link SessionState} contains all session variables for a connection. */
 @InternalApi
@@ -40,9 +46,52 @@ public class SessionState {
   public static final ImmutableList<String> SET_NAMES_CHARASETS =
       ImmutableList.of("character_set_client", "character_set_connection", "character_set_results");
   public static final String AUTOCOMMIT_KEYWORD = "autocommit";
+  /** The access mode of the transactions of the session. */
+  public static final String TRANSACTION_READ_ONLY_KEYWORD = "transaction_read_only";
+  /** Selects how DML statements in autocommit mode are executed. */
+  public static final String AUTOCOMMIT_DML_MODE_KEYWORD = "spanner_autocommit_dml_mode";
+  /** Executes DML in autocommit mode in a normal read/write transaction. */
+  public static final String TRANSACTIONAL = "TRANSACTIONAL";
+  /** Executes UPDATE and DELETE statements in autocommit mode as Partitioned DML. */
+  public static final String PARTITIONED_NON_ATOMIC = "PARTITIONED_NON_ATOMIC";
+  /**
+   * Executes UPDATE and DELETE statements in autocommit mode in a normal transaction, and retries
+   * them as Partitioned DML if they exceed the mutation limit of a transaction.
+   */
+  public static final String TRANSACTIONAL_WITH_FALLBACK_TO_PARTITIONED_NON_ATOMIC =
+      "TRANSACTIONAL_WITH_FALLBACK_TO_PARTITIONED_NON_ATOMIC";
+
+  /**
+   * The staleness of the queries of the session in autocommit mode, as parsed by {@link
+   * ReadStaleness}. An empty value means the configured staleness of the user, or strong reads.
+   */
+  public static final String READ_STALENESS_KEYWORD = "spanner_read_staleness";
+
+  /** The time zone of the session. SYSTEM and an empty value mean the time zone of the server. */
+  public static final String TIME_ZONE_KEYWORD = "time_zone";
+  private static final String SYSTEM_TIME_ZONE = "SYSTEM";
+
+  private static final ImmutableSet<String> AUTOCOMMIT_DML_MODES =
+      ImmutableSet.of(
+          TRANSACTIONAL,
+          PARTITIONED_NON_ATOMIC,
+          TRANSACTIONAL_WITH_FALLBACK_TO_PARTITIONED_NON_ATOMIC);
+  /**
+   * Deprecated variable names that older drivers still query, mapped to the name of the variable
+   * that replaced them.
+   */
+  static final ImmutableMap<String, String> VARIABLE_ALIASES =
+      ImmutableMap.of(
+          "tx_isolation", "transaction_isolation", "tx_read_only", "transaction_read_only");
+
   private volatile ProtocolStatus protocolStatus;
+  private final int connectionId;
+
+  /** The default values of all system variables, indexed by variable id. Shared by all sessions. */
+  private static final ImmutableList<SystemVariable> DEFAULT_SETTINGS = SystemVariable.read();
+  /** Maps the lower case name and the aliases of each system variable to its id. */
+  private static final ImmutableMap<String, Integer> VARIABLE_IDS = buildVariableIds();
 
-  static final Map<String, SystemVariable> DEFAULT_SETTINGS = new HashMap<>();
   private static final Logger logger = Logger.getLogger(QueryMessageProcessor.class.getName());
   private static String NAMES = "names";
 
@@ -51,29 +100,58 @@ public class SessionState {
     USER_DEFINED
   }
 
-  static {
-    for (SystemVariable setting : SystemVariable.read()) {
-      DEFAULT_SETTINGS.put(setting.getName().toLowerCase(Locale.ROOT), setting);
+  private static ImmutableMap<String, Integer> buildVariableIds() {
+    Map<String, Integer> ids = new HashMap<>();
+    for (int id = 0; id < DEFAULT_SETTINGS.size(); id++) {
+      ids.put(DEFAULT_SETTINGS.get(id).getName().toLowerCase(Locale.ROOT), id);
     }
+    for (Entry<String, String> alias : VARIABLE_ALIASES.entrySet()) {
+      Integer id = ids.get(alias.getValue());
+      if (id != null) {
+        ids.put(alias.getKey(), id);
+      }
+    }
+    return ImmutableMap.copyOf(ids);
   }
 
-  private final Map<String, SystemVariable> settings;
+  /**
+   * The values that have been set in this session, indexed by variable id. A null entry means that
+   * the variable has its default value. The array is only allocated when the first variable is
+   * set, as most sessions never change any variables.
+   */
+  private SystemVariable[] overrides;
+
+  private int clientCapabilities;
+  /** The scramble that was sent to the client for authentication. */
+  private byte[] authScramble;
+  /** Only set if the client supports session tracking. */
+  @Nullable private SessionStateTracker sessionStateTracker;
+
+  /** The server-side prepared statements of this session by statement id. */
+  private final Map<Integer, ServerPreparedStatement> preparedStatements = new HashMap<>();
+
+  private int lastStatementId;
 
   public SessionState() {
-    this(ImmutableMap.of());
+    this(0, ImmutableMap.of());
+  }
+
+  public SessionState(int connectionId) {
+    this(connectionId, ImmutableMap.of());
   }
 
   @VisibleForTesting
   SessionState(Map<String, SystemVariable> extraServerSettings) {
+    this(0, extraServerSettings);
+  }
+
+  private SessionState(int connectionId, Map<String, SystemVariable> extraServerSettings) {
     this.protocolStatus = ProtocolStatus.CONNECTION_INITIATED;
+    this.connectionId = connectionId;
 
     Preconditions.checkNotNull(extraServerSettings);
-    this.settings = new HashMap<>(DEFAULT_SETTINGS.size() + extraServerSettings.size());
-    for (Entry<String, SystemVariable> entry : DEFAULT_SETTINGS.entrySet()) {
-      this.settings.put(entry.getKey(), entry.getValue().copy());
-    }
     for (Entry<String, SystemVariable> entry : extraServerSettings.entrySet()) {
-      this.settings.put(entry.getKey(), entry.getValue().copy());
+      setOverride(getVariableId(entry.getKey()), entry.getValue());
     }
   }
 
@@ -85,76 +163,229 @@ public class SessionState {
     this.protocolStatus = protocolStatus;
   }
 
-  Map<String, SystemVariable> getVariableMapForType(SessionVariableType scope) {
-    switch (scope) {
-      case SYSTEM:
-        return settings;
-      default:
-        throw unknownParamError("scope");
+  /** Returns the id of the connection that this session belongs to. */
+  public int getConnectionId() {
+    return connectionId;
+  }
+
+  public byte[] getAuthScramble() {
+    return authScramble;
+  }
+
+  public void setAuthScramble(byte[] authScramble) {
+    this.authScramble = authScramble;
+  }
+
+  /** Sets the capability flags that the client sent in its handshake response. */
+  public void setClientCapabilities(int clientCapabilities) {
+    this.clientCapabilities = clientCapabilities;
+    this.sessionStateTracker =
+        (clientCapabilities & CapabilityFlags.CLIENT_SESSION_TRACK) != 0
+            ? new SessionStateTracker()
+            : null;
+  }
+
+  public int getClientCapabilities() {
+    return clientCapabilities;
+  }
+
+  public boolean hasClientCapability(int capability) {
+    return (clientCapabilities & capability) != 0;
+  }
+
+  /**
+   * Returns the tracker that records the changes to this session, or null if the client does not
+   * support session tracking.
+   */
+  @Nullable
+  public SessionStateTracker getSessionStateTracker() {
+    return sessionStateTracker;
+  }
+
+  /** Returns a new id for a prepared statement of this session. */
+  public int nextStatementId() {
+    return ++lastStatementId;
+  }
+
+  public void addPreparedStatement(ServerPreparedStatement statement) {
+    preparedStatements.put(statement.getId(), statement);
+  }
+
+  /** Returns the prepared statement with the given id, or null if there is no such statement. */
+  @Nullable
+  public ServerPreparedStatement getPreparedStatement(int id) {
+    return preparedStatements.get(id);
+  }
+
+  public Collection<ServerPreparedStatement> getPreparedStatements() {
+    return preparedStatements.values();
+  }
+
+  /** Removes the prepared statement with the given id and closes its cursor. */
+  public void closePreparedStatement(int id) {
+    ServerPreparedStatement statement = preparedStatements.remove(id);
+    if (statement != null) {
+      statement.closeCursor();
+    }
+  }
+
+  /** Removes all prepared statements of this session and closes their cursors. */
+  public void closePreparedStatements() {
+    for (ServerPreparedStatement statement : preparedStatements.values()) {
+      statement.closeCursor();
+    }
+    preparedStatements.clear();
+  }
+
+  /**
+   * Returns the id of the given system variable. The id can be used for lookups that do not need
+   * to resolve the name of the variable.
+   */
+  public static int getVariableId(String name) {
+    String key = name.toLowerCase(Locale.ROOT);
+    Integer id = VARIABLE_IDS.get(key);
+    if (id == null) {
+      throw unknownVariableError(VARIABLE_ALIASES.getOrDefault(key, key));
+    }
+    return id;
+  }
+
+  /**
+   * Returns the default value of the given system variable. The type of a system variable never
+   * changes, so the returned variable can be used to determine the type of the variable in any
+   * session.
+   */
+  public static SystemVariable getDefault(String name) {
+    return DEFAULT_SETTINGS.get(getVariableId(name));
+  }
+
+  /**
+   * Resets all system variables of this session to their default values, and discards any session
+   * state changes that have not yet been reported to the client.
+   */
+  public void reset() {
+    overrides = null;
+    closePreparedStatements();
+    if (sessionStateTracker != null) {
+      sessionStateTracker = new SessionStateTracker();
     }
   }
+
   /**
    * Sets the value of the specified setting. The new value will be persisted if the current
    * transaction is committed. The value will be lost if the transaction is rolled back.
    */
   public void set(String name, String value, SessionVariableType scope) {
     logger.log(
-        Level.INFO,
+        Level.FINE,
         () -> String.format("Setting system variable %s to %s at scope %s", name, value, scope));
-    Map<String, SystemVariable> variableMap = getVariableMapForType(scope);
-    internalSet(name.toLowerCase(Locale.ROOT), value, variableMap);
-  }
-
-  private void internalSet(String name, String value, Map<String, SystemVariable> variableMap) {
-    if (NAMES.equals(name)) {
+    checkScope(scope);
+    if (NAMES.equals(name.toLowerCase(Locale.ROOT))) {
       // TODO: Consider handling "SET NAMES" as a separate statement type.
       handleNames(value);
       return;
     }
-    if (AUTOCOMMIT_KEYWORD.equals(name)) {
-      // Autocommit value needs to be converted to an integer as internally autocommit is being
+    int id = getVariableId(name);
+    if (AUTOCOMMIT_KEYWORD.equals(DEFAULT_SETTINGS.get(id).getName())
+        || TRANSACTION_READ_ONLY_KEYWORD.equals(DEFAULT_SETTINGS.get(id).getName())) {
+      // Autocommit and the access mode need to be converted to an integer as they are internally
       // tracked as integer.
-      value = inferAutocommitValue(value);
+      value = inferBooleanValue(DEFAULT_SETTINGS.get(id).getName(), value);
+    } else if (AUTOCOMMIT_DML_MODE_KEYWORD.equals(DEFAULT_SETTINGS.get(id).getName())) {
+      value = inferAutocommitDmlMode(value);
+    } else if (READ_STALENESS_KEYWORD.equals(DEFAULT_SETTINGS.get(id).getName())) {
+      value = inferReadStaleness(value);
     }
-    SystemVariable variable = variableMap.get(name);
-    if (variable == null) {
-      throw unknownVariableError(name);
+    setTrackedOverride(id, get(id).withValue(value));
+  }
+
+  private void setTrackedOverride(int id, SystemVariable variable) {
+    setOverride(id, variable);
+    if (sessionStateTracker != null) {
+      sessionStateTracker.recordSystemVariable(variable.getName(), variable.getValue());
+    }
+  }
+
+  private void setOverride(int id, SystemVariable variable) {
+    if (overrides == null) {
+      overrides = new SystemVariable[DEFAULT_SETTINGS.size()];
     }
-    variable.setValue(value);
+    overrides[id] = variable;
   }
 
-  private String inferAutocommitValue(String value) {
+  private String inferBooleanValue(String name, String value) {
     if (BooleanParser.TRUE_VALUES.contains(value)) {
       return ONE;
     }
     if (BooleanParser.FALSE_VALUES.contains(value)) {
       return ZERO;
     }
-    throw invalidValueError("autocommit", value);
+    throw invalidValueError(name, value);
+  }
+
+  /** Returns true if the given name is transaction_read_only or its deprecated alias. */
+  public static boolean isTransactionReadOnlyVariable(String name) {
+    String key = name.toLowerCase(Locale.ROOT);
+    return TRANSACTION_READ_ONLY_KEYWORD.equals(VARIABLE_ALIASES.getOrDefault(key, key));
+  }
+
+  private String inferAutocommitDmlMode(String value) {
+    String mode = value.toUpperCase(Locale.ROOT);
+    if (AUTOCOMMIT_DML_MODES.contains(mode)) {
+      return mode;
+    }
+    throw invalidValueError(AUTOCOMMIT_DML_MODE_KEYWORD, value);
+  }
+
+  private String inferReadStaleness(String value) {
+    if (value.isEmpty() || "default".equalsIgnoreCase(value)) {
+      return "";
+    }
+    // Throws an error if the value is not valid.
+    ReadStaleness.parse(value);
+    return value;
   }
 
   private void handleNames(String value) {
-    logger.log(Level.INFO, () -> String.format("Setting all character sets to %s", value));
-    Map<String, SystemVariable> variableMap = getVariableMapForType(SessionVariableType.SYSTEM);
+    logger.log(Level.FINE, () -> String.format("Setting all character sets to %s", value));
     for (String charset : SET_NAMES_CHARASETS) {
-      SystemVariable variable = variableMap.get(charset);
-      Preconditions.checkNotNull(variable);
-      variable.setValue(value);
+      int id = getVariableId(charset);
+      setTrackedOverride(id, get(id).withValue(value));
     }
   }
 
   /** Returns the current value of the specified setting. */
   public SystemVariable get(String name, SessionVariableType scope) {
-    Map<String, SystemVariable> variableMap = getVariableMapForType(scope);
-    return internalGet(name.toLowerCase(Locale.ROOT), variableMap);
+    checkScope(scope);
+    return get(getVariableId(name));
+  }
+
+  /** Returns the current value of the system variable with the given id. */
+  public SystemVariable get(int id) {
+    SystemVariable variable = overrides == null ? null : overrides[id];
+    return variable == null ? DEFAULT_SETTINGS.get(id) : variable;
+  }
+
+  /**
+   * Returns the time zone of the session. SYSTEM, an empty value and time zones that Java does not
+   * know use the default time zone of the server.
+   */
+  public ZoneId getTimeZone() {
+    String timeZone = get(TIME_ZONE_KEYWORD, SessionVariableType.SYSTEM).getValue();
+    if (timeZone.isEmpty() || SYSTEM_TIME_ZONE.equalsIgnoreCase(timeZone)) {
+      return ZoneId.systemDefault();
+    }
+    try {
+      return ZoneId.of(timeZone);
+    } catch (DateTimeException exception) {
+      return ZoneId.systemDefault();
+    }
   }
 
-  private SystemVariable internalGet(String key, Map<String, SystemVariable> variableMap) {
-    SystemVariable variable = variableMap.get(key);
-    if (variable == null) {
-      throw unknownVariableError(key);
+  private static void checkScope(SessionVariableType scope) {
+    if (scope != SessionVariableType.SYSTEM) {
+      throw unknownParamError("scope");
     }
-    return variable;
   }
 
   static SpannerException invalidValueError(String key, String value) {
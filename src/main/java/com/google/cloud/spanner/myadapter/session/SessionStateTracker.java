@@ -0,0 +1,108 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.session;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.myadapter.parsers.LongParser;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Records the changes to the state of a session since the last OK packet, so they can be reported
+ * to clients that support session tracking. Such clients can keep their local copy of the session
+ * state up to date without querying the server after each SET statement.
+ */
+@InternalApi
+public class SessionStateTracker {
+  private static final int SESSION_TRACK_SYSTEM_VARIABLES = 0x00;
+  private static final int SESSION_TRACK_SCHEMA = 0x01;
+  private static final int SESSION_TRACK_STATE_CHANGE = 0x02;
+  private static final int SESSION_TRACK_TRANSACTION_CHARACTERISTICS = 0x04;
+  private static final String STATE_CHANGED = "1";
+
+  private final Map<String, String> systemVariables = new LinkedHashMap<>();
+  private String schema;
+  private String transactionCharacteristics;
+
+  void recordSystemVariable(String name, String value) {
+    systemVariables.put(name, value);
+  }
+
+  public void recordSchema(String schema) {
+    this.schema = schema;
+  }
+
+  /**
+   * Records the characteristics of the next transaction, as a statement that would restore them,
+   * e.g. {@code SET TRANSACTION READ ONLY;}. An empty string means that they have been reset.
+   */
+  public void recordTransactionCharacteristics(String transactionCharacteristics) {
+    this.transactionCharacteristics = transactionCharacteristics;
+  }
+
+  public boolean hasChanges() {
+    return !systemVariables.isEmpty() || schema != null || transactionCharacteristics != null;
+  }
+
+  /**
+   * Returns the session state information that should be appended to the next OK packet, and clears
+   * all recorded changes.
+   */
+  public byte[] consumeChanges() throws IOException {
+    ByteArrayOutputStream stateInfo = new ByteArrayOutputStream();
+    for (Entry<String, String> variable : systemVariables.entrySet()) {
+      ByteArrayOutputStream data = new ByteArrayOutputStream();
+      writeLengthEncodedString(data, variable.getKey());
+      writeLengthEncodedString(data, variable.getValue());
+      writeEntry(stateInfo, SESSION_TRACK_SYSTEM_VARIABLES, data.toByteArray());
+    }
+    if (schema != null) {
+      ByteArrayOutputStream data = new ByteArrayOutputStream();
+      writeLengthEncodedString(data, schema);
+      writeEntry(stateInfo, SESSION_TRACK_SCHEMA, data.toByteArray());
+    }
+    if (transactionCharacteristics != null) {
+      ByteArrayOutputStream data = new ByteArrayOutputStream();
+      writeLengthEncodedString(data, transactionCharacteristics);
+      writeEntry(stateInfo, SESSION_TRACK_TRANSACTION_CHARACTERISTICS, data.toByteArray());
+    }
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    writeLengthEncodedString(data, STATE_CHANGED);
+    writeEntry(stateInfo, SESSION_TRACK_STATE_CHANGE, data.toByteArray());
+
+    systemVariables.clear();
+    schema = null;
+    transactionCharacteristics = null;
+    return stateInfo.toByteArray();
+  }
+
+  private static void writeEntry(ByteArrayOutputStream output, int type, byte[] data)
+      throws IOException {
+    output.write(type);
+    output.write(LongParser.getLengthEncodedBytes(data.length));
+    output.write(data);
+  }
+
+  private static void writeLengthEncodedString(ByteArrayOutputStream output, String value)
+      throws IOException {
+    byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    output.write(LongParser.getLengthEncodedBytes(bytes.length));
+    output.write(bytes);
+  }
+}
@@ -30,9 +30,9 @@ public class SystemVariable {
   private static final int DATATYPE_INDEX = 1;
   private static final int VALUE_INDEX = 2;
 
-  private String name;
-  private Type spannerType;
-  private String value;
+  private final String name;
+  private final Type spannerType;
+  private final String value;
 
   static ImmutableList<SystemVariable> read() {
     ImmutableList.Builder<SystemVariable> builder = ImmutableList.builder();
@@ -69,11 +69,6 @@ public class SystemVariable {
     this.value = value;
   }
 
-  /** Returns a copy of this {@link SystemVariable}. */
-  SystemVariable copy() {
-    return new SystemVariable(name, spannerType, value);
-  }
-
   public String getName() {
     return name;
   }
@@ -88,15 +83,16 @@ public class SystemVariable {
   }
 
   /**
-   * Sets the value for this setting. Throws {@link SpannerException} if the value is not valid, or
-   * if the setting is not settable.
+   * Returns a copy of this setting with the given value. Instances are immutable, so the defaults
+   * can be shared by all sessions. Throws {@link SpannerException} if the value is not valid, or if
+   * the setting is not settable.
    */
-  void setValue(String value) {
+  SystemVariable withValue(String value) {
     if (this.spannerType != null) {
       // Check validity of the value.
       value = checkValidValue(value);
     }
-    this.value = value;
+    return new SystemVariable(name, spannerType, value);
   }
 
   private String checkValidValue(String value) {
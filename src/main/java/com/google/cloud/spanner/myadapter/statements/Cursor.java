@@ -0,0 +1,78 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ResultSet;
+
+/**
+ * Read-only server-side cursor over the result of a prepared statement. The Spanner result set is
+ * kept open between fetches, and rows are only read from the stream when the client fetches them,
+ * so the amount of buffered data is limited by the flow control of the Spanner stream and not by
+ * the size of the result.
+ */
+@InternalApi
+public class Cursor implements AutoCloseable {
+  private final ResultSet resultSet;
+  /** True if the result set is positioned on a row that has not yet been sent to the client. */
+  private boolean hasRow;
+
+  private boolean closed;
+  private long lastUsedNanos;
+
+  /**
+   * Creates a cursor for the given result set. The result set is moved to the first row, which is
+   * also needed to get the column types of the result.
+   */
+  public Cursor(ResultSet resultSet) {
+    this.resultSet = resultSet;
+    this.hasRow = resultSet.next();
+    this.lastUsedNanos = System.nanoTime();
+  }
+
+  /** Returns the underlying result set, positioned on the next row that should be sent. */
+  public ResultSet getResultSet() {
+    return resultSet;
+  }
+
+  /** Returns true if there is at least one more row that has not been sent to the client. */
+  public boolean hasRow() {
+    return hasRow;
+  }
+
+  /** Moves the cursor to the next row after the current row has been sent. */
+  public void advance() {
+    hasRow = resultSet.next();
+    lastUsedNanos = System.nanoTime();
+  }
+
+  /** Returns the value of {@link System#nanoTime()} when the cursor was last used. */
+  public long getLastUsedNanos() {
+    return lastUsedNanos;
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      hasRow = false;
+      resultSet.close();
+    }
+  }
+}
@@ -0,0 +1,186 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.myadapter.error.MyExceptionFactory;
+import com.google.cloud.spanner.myadapter.error.SQLState;
+import com.google.cloud.spanner.myadapter.statements.SimpleParser.QuotedString;
+import javax.annotation.Nullable;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.QuoteMode;
+
+/**
+ * The format of a text file that is read by LOAD DATA or written by SELECT ... INTO OUTFILE, as
+ * given by the clauses [{FIELDS | COLUMNS} [TERMINATED BY 'string'] [[OPTIONALLY] ENCLOSED BY
+ * 'char'] [ESCAPED BY 'char']] [LINES [STARTING BY ''] [TERMINATED BY 'string']]. The defaults are
+ * the same as in MySQL.
+ */
+@InternalApi
+public final class FileFormat {
+  private final String fieldsTerminatedBy;
+  @Nullable private final Character enclosedBy;
+  private final boolean optionallyEnclosed;
+  @Nullable private final Character escapedBy;
+  private final String linesTerminatedBy;
+
+  private FileFormat(
+      String fieldsTerminatedBy,
+      @Nullable Character enclosedBy,
+      boolean optionallyEnclosed,
+      @Nullable Character escapedBy,
+      String linesTerminatedBy) {
+    this.fieldsTerminatedBy = fieldsTerminatedBy;
+    this.enclosedBy = enclosedBy;
+    this.optionallyEnclosed = optionallyEnclosed;
+    this.escapedBy = escapedBy;
+    this.linesTerminatedBy = linesTerminatedBy;
+  }
+
+  /** Parses the optional FIELDS and LINES clauses at the current position of the parser. */
+  static FileFormat parse(SimpleParser parser) {
+    String fieldsTerminatedBy = "\t";
+    Character enclosedBy = null;
+    boolean optionallyEnclosed = false;
+    Character escapedBy = '\\';
+    String linesTerminatedBy = "\n";
+    if (parser.eatKeyword("fields") || parser.eatKeyword("columns")) {
+      boolean hasOption = false;
+      while (true) {
+        if (parser.eatKeyword("terminated", "by")) {
+          fieldsTerminatedBy = readString(parser);
+          if (fieldsTerminatedBy.isEmpty()) {
+            throw unsupported("FIELDS TERMINATED BY ''");
+          }
+        } else if (parser.eatKeyword("optionally", "enclosed", "by")) {
+          enclosedBy = readChar(parser);
+          optionallyEnclosed = true;
+        } else if (parser.eatKeyword("enclosed", "by")) {
+          enclosedBy = readChar(parser);
+        } else if (parser.eatKeyword("escaped", "by")) {
+          escapedBy = readChar(parser);
+        } else {
+          break;
+        }
+        hasOption = true;
+      }
+      if (!hasOption) {
+        throw syntaxError(parser);
+      }
+    }
+    if (parser.eatKeyword("lines")) {
+      boolean hasOption = false;
+      while (true) {
+        if (parser.eatKeyword("starting", "by")) {
+          if (!readString(parser).isEmpty()) {
+            throw unsupported("LINES STARTING BY");
+          }
+        } else if (parser.eatKeyword("terminated", "by")) {
+          linesTerminatedBy = readString(parser);
+        } else {
+          break;
+        }
+        hasOption = true;
+      }
+      if (!hasOption) {
+        throw syntaxError(parser);
+      }
+    }
+    return new FileFormat(
+        fieldsTerminatedBy, enclosedBy, optionallyEnclosed, escapedBy, linesTerminatedBy);
+  }
+
+  /** Reads a string literal. Backslash escape sequences are supported, as in MySQL. */
+  static String readString(SimpleParser parser) {
+    parser.skipWhitespaces();
+    String sql = parser.getSql();
+    int pos = parser.getPos();
+    if (pos >= sql.length() || (sql.charAt(pos) != '\'' && sql.charAt(pos) != '"')) {
+      throw syntaxError(parser);
+    }
+    if (!parser.skipQuotedString(true)) {
+      throw MyExceptionFactory.newMyException("Missing end quote character", SQLState.SyntaxError);
+    }
+    return new QuotedString(true, sql.charAt(pos), sql.substring(pos, parser.getPos())).getValue();
+  }
+
+  /** Reads a string literal that contains at most one character. */
+  @Nullable
+  private static Character readChar(SimpleParser parser) {
+    String value = readString(parser);
+    if (value.length() > 1) {
+      throw unsupported("multi-character ENCLOSED BY or ESCAPED BY");
+    }
+    return value.isEmpty() ? null : value.charAt(0);
+  }
+
+  static RuntimeException syntaxError(SimpleParser parser) {
+    return MyExceptionFactory.newMyException(
+        "You have an error in your SQL syntax: " + parser.getSql(), SQLState.SyntaxError);
+  }
+
+  static RuntimeException unsupported(String feature) {
+    return SpannerExceptionFactory.newSpannerException(
+        ErrorCode.UNIMPLEMENTED, "Unsupported file format option: " + feature);
+  }
+
+  /** Returns true if lines are terminated by a line feed or a carriage return and line feed. */
+  public boolean hasStandardLineTerminator() {
+    return linesTerminatedBy.equals("\n") || linesTerminatedBy.equals("\r\n");
+  }
+
+  /** Returns the value that represents NULL in the file. */
+  public String getNullString() {
+    return escapedBy == null ? "NULL" : escapedBy + "N";
+  }
+
+  /**
+   * Returns the CSV format that reads and writes files in this format. Embedded enclosing
+   * characters are doubled, as in CSV, and the NULL marker is not interpreted.
+   */
+  public CSVFormat toCsvFormat() {
+    CSVFormat.Builder builder =
+        CSVFormat.Builder.create()
+            .setDelimiter(fieldsTerminatedBy)
+            .setRecordSeparator(linesTerminatedBy)
+            .setQuote(enclosedBy)
+            .setEscape((Character) null)
+            .setIgnoreEmptyLines(true);
+    if (enclosedBy != null) {
+      builder.setQuoteMode(optionallyEnclosed ? QuoteMode.NON_NUMERIC : QuoteMode.ALL_NON_NULL);
+    }
+    return builder.build();
+  }
+
+  public String getFieldsTerminatedBy() {
+    return fieldsTerminatedBy;
+  }
+
+  @Nullable
+  public Character getEnclosedBy() {
+    return enclosedBy;
+  }
+
+  @Nullable
+  public Character getEscapedBy() {
+    return escapedBy;
+  }
+
+  public String getLinesTerminatedBy() {
+    return linesTerminatedBy;
+  }
+}
@@ -0,0 +1,88 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.ConnectionHandler;
+import com.google.cloud.spanner.myadapter.error.MyException;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * KILL [CONNECTION | QUERY] connection_id. Cancels the statement that the given connection is
+ * executing on Spanner. KILL CONNECTION also closes the connection.
+ */
+@InternalApi
+public class KillStatement extends SessionStatement {
+  static final String QUERY_KEYWORD = "query";
+  static final String CONNECTION_KEYWORD = "connection";
+  static final int ER_KILL_DENIED_ERROR = 1095;
+
+  private final int connectionId;
+  private final boolean killConnection;
+
+  KillStatement(int connectionId, boolean killConnection) {
+    this.connectionId = connectionId;
+    this.killConnection = killConnection;
+  }
+
+  /** Parses the remainder of a KILL statement. Returns null if it is not a valid KILL statement. */
+  @Nullable
+  static KillStatement parse(SimpleParser parser) {
+    boolean killConnection = !parser.eatKeyword(QUERY_KEYWORD);
+    if (killConnection) {
+      parser.eatKeyword(CONNECTION_KEYWORD);
+    }
+    String id = parser.readKeyword();
+    parser.eatToken(";");
+    if (id.isEmpty() || parser.hasMoreTokens()) {
+      return null;
+    }
+    try {
+      return new KillStatement(Integer.parseInt(id), killConnection);
+    } catch (NumberFormatException exception) {
+      return null;
+    }
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    ConnectionHandler handler = ConnectionHandler.getConnectionHandler(connectionId);
+    if (handler == null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.NOT_FOUND, "Unknown thread id: " + connectionId);
+    }
+    // Users may only kill their own connections, as there are no privileges such as
+    // CONNECTION_ADMIN that allow killing the connections of other users.
+    if (!Objects.equals(handler.getUser(), backendConnection.getUser())) {
+      throw MyException.newBuilder("You are not owner of thread " + connectionId)
+          .setErrorCode(ER_KILL_DENIED_ERROR)
+          .build();
+    }
+    if (killConnection) {
+      handler.killConnection();
+    } else {
+      handler.killQuery();
+    }
+    return new UpdateCount(0L);
+  }
+}
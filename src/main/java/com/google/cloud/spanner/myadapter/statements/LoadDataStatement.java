@@ -0,0 +1,201 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.myadapter.error.MyExceptionFactory;
+import com.google.cloud.spanner.myadapter.error.SQLState;
+import com.google.common.collect.ImmutableList;
+import java.util.Locale;
+
+/**
+ * LOAD DATA [LOCAL] INFILE 'file' [REPLACE | IGNORE] INTO TABLE table [CHARACTER SET charset]
+ * [{FIELDS | COLUMNS} [TERMINATED BY 'string'] [[OPTIONALLY] ENCLOSED BY 'char'] [ESCAPED BY
+ * 'char']] [LINES TERMINATED BY 'string'] [IGNORE number {LINES | ROWS}] [(column, ...)].
+ *
+ * <p>Lines must be terminated by a line feed or a carriage return and line feed. The SET clause,
+ * user variables in the column list and LINES STARTING BY are not supported.
+ */
+@InternalApi
+public final class LoadDataStatement {
+  static final String LOAD_KEYWORD = "load";
+
+  /** How rows with a primary key that already exists in the table are handled. */
+  public enum DuplicateMode {
+    /** The statement fails. */
+    ERROR,
+    /** The existing row is replaced. */
+    REPLACE,
+    /** The row is skipped with a warning. */
+    IGNORE,
+  }
+
+  private final String fileName;
+  private final boolean local;
+  private final DuplicateMode duplicateMode;
+  private final String table;
+  private final FileFormat format;
+  private final long ignoreLines;
+  private final ImmutableList<String> columns;
+
+  private LoadDataStatement(
+      String fileName,
+      boolean local,
+      DuplicateMode duplicateMode,
+      String table,
+      FileFormat format,
+      long ignoreLines,
+      ImmutableList<String> columns) {
+    this.fileName = fileName;
+    this.local = local;
+    this.duplicateMode = duplicateMode;
+    this.table = table;
+    this.format = format;
+    this.ignoreLines = ignoreLines;
+    this.columns = columns;
+  }
+
+  /** Returns true if the given statement is a LOAD statement. */
+  public static boolean isLoadData(String sql) {
+    return SimpleParser.isCommand(LOAD_KEYWORD, sql);
+  }
+
+  /** Parses the given LOAD DATA statement. Throws a syntax error if the statement is invalid. */
+  public static LoadDataStatement parse(String sql) {
+    SimpleParser parser = new SimpleParser(sql);
+    if (!parser.eatKeyword(LOAD_KEYWORD, "data")) {
+      throw syntaxError(parser);
+    }
+    parser.eatKeyword("low_priority");
+    parser.eatKeyword("concurrent");
+    boolean local = parser.eatKeyword("local");
+    if (!parser.eatKeyword("infile")) {
+      throw syntaxError(parser);
+    }
+    String fileName = FileFormat.readString(parser);
+    DuplicateMode duplicateMode = DuplicateMode.ERROR;
+    if (parser.eatKeyword("replace")) {
+      duplicateMode = DuplicateMode.REPLACE;
+    } else if (parser.eatKeyword("ignore") || local) {
+      // LOCAL implies IGNORE, as the server cannot stop the client from sending the file.
+      duplicateMode = DuplicateMode.IGNORE;
+    }
+    if (!parser.eatKeyword("into", "table")) {
+      throw syntaxError(parser);
+    }
+    String table = SimpleInsert.readIdentifier(parser);
+    if (table == null || parser.peekToken(".")) {
+      throw syntaxError(parser);
+    }
+    if (parser.eatKeyword("partition")) {
+      throw unsupported("PARTITION");
+    }
+    if (parser.eatKeyword("character", "set") || parser.eatKeyword("charset")) {
+      String charset = parser.readKeyword();
+      if (!charset.toLowerCase(Locale.ENGLISH).startsWith("utf8")
+          && !charset.equalsIgnoreCase("binary")) {
+        throw unsupported("CHARACTER SET " + charset);
+      }
+    }
+    FileFormat format = FileFormat.parse(parser);
+    if (!format.hasStandardLineTerminator()) {
+      throw unsupported("LINES TERMINATED BY other than '\\n' or '\\r\\n'");
+    }
+    long ignoreLines = 0L;
+    if (parser.eatKeyword("ignore")) {
+      try {
+        ignoreLines = Long.parseLong(parser.readKeyword());
+      } catch (NumberFormatException exception) {
+        throw syntaxError(parser);
+      }
+      if (!parser.eatKeyword("lines") && !parser.eatKeyword("rows")) {
+        throw syntaxError(parser);
+      }
+    }
+    ImmutableList.Builder<String> columns = ImmutableList.builder();
+    if (parser.eatToken("(")) {
+      do {
+        if (parser.peekToken("@")) {
+          throw unsupported("user variables in the column list");
+        }
+        String column = SimpleInsert.readIdentifier(parser);
+        if (column == null) {
+          throw syntaxError(parser);
+        }
+        columns.add(column);
+      } while (parser.eatToken(","));
+      if (!parser.eatToken(")")) {
+        throw syntaxError(parser);
+      }
+    }
+    if (parser.eatKeyword("set")) {
+      throw unsupported("SET");
+    }
+    parser.eatToken(";");
+    parser.throwIfHasMoreTokens();
+    return new LoadDataStatement(
+        fileName,
+        local,
+        duplicateMode,
+        table,
+        format,
+        ignoreLines,
+        columns.build());
+  }
+
+  private static RuntimeException syntaxError(SimpleParser parser) {
+    return MyExceptionFactory.newMyException(
+        "Invalid LOAD DATA statement: " + parser.getSql(), SQLState.SyntaxError);
+  }
+
+  private static RuntimeException unsupported(String feature) {
+    return SpannerExceptionFactory.newSpannerException(
+        ErrorCode.UNIMPLEMENTED, "LOAD DATA does not support " + feature);
+  }
+
+  /** Returns the name of the file as given in the statement. */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /** Returns true if the file is read from the client. */
+  public boolean isLocal() {
+    return local;
+  }
+
+  public DuplicateMode getDuplicateMode() {
+    return duplicateMode;
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  public FileFormat getFormat() {
+    return format;
+  }
+
+  /** Returns the number of lines at the start of the file that are skipped. */
+  public long getIgnoreLines() {
+    return ignoreLines;
+  }
+
+  /** Returns the columns that the fields of each line are written to, or an empty list for all. */
+  public ImmutableList<String> getColumns() {
+    return columns;
+  }
+}
@@ -0,0 +1,330 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import static com.google.cloud.spanner.myadapter.statements.SessionStatementParser.AS_KEYWORD;
+import static com.google.cloud.spanner.myadapter.statements.SessionStatementParser.FROM_KEYWORD;
+import static com.google.cloud.spanner.myadapter.statements.SessionStatementParser.GLOBAL_KEYWORD;
+import static com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SYSTEM_VARIABLE_PREFIX;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.statements.SimpleParser.TableOrIndexName;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * A SELECT statement without a table reference that only contains constants, system variables and
+ * session functions, for example {@code SELECT 1} or {@code SELECT DATABASE(), CONNECTION_ID()}.
+ * These statements are evaluated by the adapter without a round trip to Spanner.
+ *
+ * <p>The type of each column is known when the statement is parsed, so the column definitions are
+ * encoded once per parsed statement.
+ */
+@InternalApi
+public class LocalSelectStatement extends SessionStatement {
+  private static final String LIMIT_KEYWORD = "limit";
+  private static final String DUAL_KEYWORD = "dual";
+
+  private static final Pattern INTEGER_LITERAL = Pattern.compile("-?\\d+");
+  private static final Pattern DECIMAL_LITERAL = Pattern.compile("-?(\\d+\\.\\d*|\\.\\d+)");
+  private static final Pattern FUNCTION_CALL = Pattern.compile("([A-Za-z_]+)\\s*\\(\\s*\\)");
+  private static final DateTimeFormatter DATETIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  /** A FROM clause with a table reference. Such statements are never evaluated locally. */
+  private static final Pattern TABLE_REFERENCE =
+      Pattern.compile("\\bfrom\\s+(?!dual\\b)", Pattern.CASE_INSENSITIVE);
+
+  /** An expression in the select list that can be evaluated by the adapter. */
+  interface LocalExpression {
+    Code getTypeCode();
+
+    @Nullable
+    String evaluate(SessionState sessionState, BackendConnection backendConnection);
+  }
+
+  static final class Constant implements LocalExpression {
+    private final Code typeCode;
+    private final String value;
+
+    Constant(Code typeCode, @Nullable String value) {
+      this.typeCode = typeCode;
+      this.value = value;
+    }
+
+    @Override
+    public Code getTypeCode() {
+      return typeCode;
+    }
+
+    @Override
+    public String evaluate(SessionState sessionState, BackendConnection backendConnection) {
+      return value;
+    }
+  }
+
+  static final class VariableReference implements LocalExpression {
+    private final int variableId;
+    private final Code typeCode;
+
+    VariableReference(String name) {
+      this.variableId = SessionState.getVariableId(name);
+      this.typeCode = SessionState.getDefault(name).getType().getCode();
+    }
+
+    @Override
+    public Code getTypeCode() {
+      return typeCode;
+    }
+
+    @Override
+    public String evaluate(SessionState sessionState, BackendConnection backendConnection) {
+      return sessionState.get(variableId).getValue();
+    }
+  }
+
+  static final class FunctionCall implements LocalExpression {
+    private final Code typeCode;
+    private final BiFunction<SessionState, BackendConnection, String> function;
+
+    FunctionCall(Code typeCode, BiFunction<SessionState, BackendConnection, String> function) {
+      this.typeCode = typeCode;
+      this.function = function;
+    }
+
+    @Override
+    public Code getTypeCode() {
+      return typeCode;
+    }
+
+    @Override
+    public String evaluate(SessionState sessionState, BackendConnection backendConnection) {
+      return function.apply(sessionState, backendConnection);
+    }
+  }
+
+  private static final int VERSION_VARIABLE_ID = SessionState.getVariableId("version");
+
+  private static final FunctionCall NOW =
+      new FunctionCall(
+          Code.TIMESTAMP,
+          (session, backend) ->
+              LocalDateTime.now(session.getTimeZone()).format(DATETIME_FORMATTER));
+  private static final FunctionCall CURRENT_DATE =
+      new FunctionCall(
+          Code.DATE, (session, backend) -> LocalDate.now(session.getTimeZone()).toString());
+
+  /** Functions without arguments that can be evaluated locally, by lower case name. */
+  private static final ImmutableMap<String, FunctionCall> FUNCTIONS =
+      ImmutableMap.<String, FunctionCall>builder()
+          .put(
+              "database",
+              new FunctionCall(Code.STRING, (session, backend) -> backend.getCurrentDatabase()))
+          .put(
+              "schema",
+              new FunctionCall(Code.STRING, (session, backend) -> backend.getCurrentDatabase()))
+          .put(
+              "connection_id",
+              new FunctionCall(
+                  Code.INT64, (session, backend) -> String.valueOf(session.getConnectionId())))
+          // Spanner does not generate auto increment values, so there is never a last insert id.
+          .put("last_insert_id", new FunctionCall(Code.INT64, (session, backend) -> "0"))
+          .put(
+              "version",
+              new FunctionCall(
+                  Code.STRING,
+                  (session, backend) -> session.get(VERSION_VARIABLE_ID).getValue()))
+          .put("now", NOW)
+          .put("current_timestamp", NOW)
+          .put("localtime", NOW)
+          .put("localtimestamp", NOW)
+          .put("sysdate", NOW)
+          .put(
+              "utc_timestamp",
+              new FunctionCall(
+                  Code.TIMESTAMP,
+                  (session, backend) ->
+                      LocalDateTime.now(ZoneOffset.UTC).format(DATETIME_FORMATTER)))
+          .put("curdate", CURRENT_DATE)
+          .put("current_date", CURRENT_DATE)
+          .build();
+
+  /** Functions that MySQL also accepts without parentheses. */
+  private static final ImmutableList<String> NILADIC_FUNCTIONS =
+      ImmutableList.of("current_timestamp", "localtime", "localtimestamp", "current_date");
+
+  private final ImmutableList<LocalExpression> expressions;
+  private final ImmutableList<byte[]> columnDefinitions;
+  private final boolean returnsRow;
+
+  private LocalSelectStatement(
+      ImmutableList<LocalExpression> expressions, List<String> columnNames, boolean returnsRow) {
+    this.expressions = expressions;
+    this.returnsRow = returnsRow;
+    ImmutableList.Builder<byte[]> builder = ImmutableList.builder();
+    try {
+      for (int i = 0; i < expressions.size(); i++) {
+        builder.add(
+            LocalQueryResult.encodeColumnDefinition(
+                columnNames.get(i), expressions.get(i).getTypeCode()));
+      }
+    } catch (IOException ioException) {
+      throw new UncheckedIOException(ioException);
+    }
+    this.columnDefinitions = builder.build();
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    if (!returnsRow) {
+      return new LocalQueryResult(columnDefinitions, Collections.emptyList());
+    }
+    List<String> row = new ArrayList<>(expressions.size());
+    for (LocalExpression expression : expressions) {
+      row.add(expression.evaluate(sessionState, backendConnection));
+    }
+    return new LocalQueryResult(columnDefinitions, Collections.singletonList(row));
+  }
+
+  /**
+   * Parses the select list of a SELECT statement. The parser must be positioned directly after the
+   * SELECT keyword. Returns null if the statement cannot be evaluated locally.
+   */
+  static @Nullable LocalSelectStatement parse(SimpleParser parser) {
+    // Most SELECT statements read from a table, and are rejected without parsing the select list.
+    if (TABLE_REFERENCE.matcher(parser.getSql()).find(parser.getPos())) {
+      return null;
+    }
+    ImmutableList.Builder<LocalExpression> expressions = ImmutableList.builder();
+    List<String> columnNames = new ArrayList<>();
+    do {
+      String expression =
+          parser.parseExpressionUntilKeyword(
+              ImmutableList.of(AS_KEYWORD, FROM_KEYWORD, LIMIT_KEYWORD), true, true);
+      if (expression == null) {
+        return null;
+      }
+      LocalExpression localExpression = parseExpression(expression);
+      if (localExpression == null) {
+        return null;
+      }
+      String columnName = expression;
+      if (parser.eatKeyword(AS_KEYWORD)) {
+        columnName = readAlias(parser);
+        if (columnName == null) {
+          return null;
+        }
+      }
+      expressions.add(localExpression);
+      columnNames.add(columnName);
+    } while (parser.eatToken(","));
+
+    if (parser.eatKeyword(FROM_KEYWORD) && !parser.eatKeyword(DUAL_KEYWORD)) {
+      return null;
+    }
+    boolean returnsRow = true;
+    if (parser.eatKeyword(LIMIT_KEYWORD)) {
+      String limit = parser.readKeyword();
+      if (!INTEGER_LITERAL.matcher(limit).matches()) {
+        return null;
+      }
+      returnsRow = Long.parseLong(limit) > 0L;
+    }
+    if (parser.hasMoreTokens()) {
+      return null;
+    }
+    return new LocalSelectStatement(expressions.build(), columnNames, returnsRow);
+  }
+
+  static @Nullable LocalExpression parseExpression(String expression) {
+    if (INTEGER_LITERAL.matcher(expression).matches()) {
+      return new Constant(Code.INT64, expression);
+    }
+    if (DECIMAL_LITERAL.matcher(expression).matches()) {
+      return new Constant(Code.NUMERIC, expression);
+    }
+    String lowerCaseExpression = expression.toLowerCase(Locale.ROOT);
+    switch (lowerCaseExpression) {
+      case "null":
+        return new Constant(Code.STRING, null);
+      case "true":
+        return new Constant(Code.INT64, "1");
+      case "false":
+        return new Constant(Code.INT64, "0");
+      default:
+        break;
+    }
+    if (NILADIC_FUNCTIONS.contains(lowerCaseExpression)) {
+      return FUNCTIONS.get(lowerCaseExpression);
+    }
+    Matcher functionCall = FUNCTION_CALL.matcher(lowerCaseExpression);
+    if (functionCall.matches()) {
+      return FUNCTIONS.get(functionCall.group(1));
+    }
+
+    SimpleParser parser = new SimpleParser(expression);
+    char first = expression.charAt(0);
+    if (first == '\'' || first == '"') {
+      String value = parser.readQuotedString(first).getValue();
+      return parser.hasMoreTokens() ? null : new Constant(Code.STRING, value);
+    }
+    if (parser.eatToken(SYSTEM_VARIABLE_PREFIX)) {
+      TableOrIndexName name = parser.readTableOrIndexName();
+      if (name == null || parser.hasMoreTokens()) {
+        return null;
+      }
+      if (GLOBAL_KEYWORD.equalsIgnoreCase(name.getUnquotedSchema())) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.INVALID_ARGUMENT, "Global session variables are not supported");
+      }
+      return new VariableReference(name.getUnquotedName());
+    }
+    return null;
+  }
+
+  private static @Nullable String readAlias(SimpleParser parser) {
+    parser.skipWhitespaces();
+    if (parser.getPos() >= parser.getSql().length()) {
+      return null;
+    }
+    char first = parser.getSql().charAt(parser.getPos());
+    if (first == '\'' || first == '"' || first == '`') {
+      return parser.readQuotedString(first).getValue();
+    }
+    return parser.readIdentifierPart();
+  }
+}
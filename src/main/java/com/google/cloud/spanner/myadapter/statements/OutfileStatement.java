@@ -0,0 +1,170 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.myadapter.error.MyExceptionFactory;
+import com.google.cloud.spanner.myadapter.error.SQLState;
+import java.util.regex.Pattern;
+
+/**
+ * SELECT ... INTO OUTFILE 'file' [{FIELDS | COLUMNS} ...] [LINES ...] [FROM ...], or the
+ * equivalent admin command EXPORT TABLE table INTO OUTFILE 'file' [{FIELDS | COLUMNS} ...] [LINES
+ * ...]. The INTO OUTFILE clause may be placed before the FROM clause or at the end of the query, as
+ * in MySQL. The file format options are the same as for LOAD DATA.
+ */
+@InternalApi
+public final class OutfileStatement {
+  static final String EXPORT_KEYWORD = "export";
+
+  private static final Pattern OUTFILE_PATTERN =
+      Pattern.compile("\\boutfile\\b", Pattern.CASE_INSENSITIVE);
+
+  private final Statement query;
+  private final String fileName;
+  private final FileFormat format;
+
+  private OutfileStatement(Statement query, String fileName, FileFormat format) {
+    this.query = query;
+    this.fileName = fileName;
+    this.format = format;
+  }
+
+  /**
+   * Returns true if the given statement is a query with an INTO OUTFILE clause or an EXPORT
+   * statement. Queries are only scanned if they contain the word OUTFILE.
+   */
+  public static boolean isOutfile(String sql) {
+    if (SimpleParser.isCommand(EXPORT_KEYWORD, sql)) {
+      return true;
+    }
+    if (!OUTFILE_PATTERN.matcher(sql).find()
+        || !(SimpleParser.isCommand("select", sql) || SimpleParser.isCommand("with", sql))) {
+      return false;
+    }
+    return findIntoOutfile(new SimpleParser(sql)) >= 0;
+  }
+
+  /** Parses the given statement. Throws a syntax error if the statement is invalid. */
+  public static OutfileStatement parse(Statement statement) {
+    String sql = statement.getSql();
+    SimpleParser parser = new SimpleParser(sql);
+    if (parser.eatKeyword(EXPORT_KEYWORD)) {
+      if (!parser.eatKeyword("table")) {
+        throw syntaxError(parser);
+      }
+      String table = SimpleInsert.readIdentifier(parser);
+      if (table == null) {
+        throw syntaxError(parser);
+      }
+      OutfileStatement result = parseIntoOutfile(parser, statement, "");
+      parser.throwIfHasMoreTokens();
+      return new OutfileStatement(
+          Statement.of("SELECT * FROM `" + table + "`"), result.fileName, result.format);
+    }
+    int start = findIntoOutfile(parser);
+    if (start < 0) {
+      throw syntaxError(parser);
+    }
+    parser.setPos(start);
+    return parseIntoOutfile(parser, statement, sql.substring(0, start));
+  }
+
+  /**
+   * Parses INTO OUTFILE 'file' and the file format at the current position. The query is the given
+   * head followed by the rest of the statement.
+   */
+  private static OutfileStatement parseIntoOutfile(
+      SimpleParser parser, Statement statement, String head) {
+    if (!parser.eatKeyword("into", "outfile")) {
+      throw syntaxError(parser);
+    }
+    String fileName = FileFormat.readString(parser);
+    if (fileName.isEmpty()) {
+      throw syntaxError(parser);
+    }
+    FileFormat format = FileFormat.parse(parser);
+    String query = head + " " + parser.getSql().substring(parser.getPos());
+    return new OutfileStatement(SimpleParser.copyStatement(statement, query), fileName, format);
+  }
+
+  /**
+   * Returns the position of the INTO OUTFILE clause outside of any parentheses, or -1 if the query
+   * has no such clause. Literals, comments and quoted identifiers are skipped.
+   */
+  private static int findIntoOutfile(SimpleParser parser) {
+    String sql = parser.getSql();
+    int depth = 0;
+    while (parser.getPos() < sql.length()) {
+      if (!parser.skipCommentsAndLiterals()) {
+        return -1;
+      }
+      int pos = parser.getPos();
+      if (pos >= sql.length()) {
+        break;
+      }
+      char c = sql.charAt(pos);
+      if (c == '`') {
+        int end = sql.indexOf('`', pos + 1);
+        parser.setPos(end < 0 ? sql.length() : end + 1);
+      } else if (c == '(') {
+        depth++;
+        parser.setPos(pos + 1);
+      } else if (c == ')') {
+        depth--;
+        parser.setPos(pos + 1);
+      } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$') {
+        if (depth == 0 && parser.peek(false, true, "into")) {
+          parser.setPos(pos + "into".length());
+          if (parser.peekKeyword("outfile")) {
+            return pos;
+          }
+        } else {
+          int end = pos + 1;
+          while (end < sql.length()
+              && (Character.isLetterOrDigit(sql.charAt(end))
+                  || sql.charAt(end) == '_'
+                  || sql.charAt(end) == '$')) {
+            end++;
+          }
+          parser.setPos(end);
+        }
+      } else {
+        parser.setPos(pos + 1);
+      }
+    }
+    return -1;
+  }
+
+  private static RuntimeException syntaxError(SimpleParser parser) {
+    return MyExceptionFactory.newMyException(
+        "Invalid INTO OUTFILE statement: " + parser.getSql(), SQLState.SyntaxError);
+  }
+
+  /** Returns the query without the INTO OUTFILE clause. */
+  public Statement getQuery() {
+    return query;
+  }
+
+  /** Returns the name of the file as given in the statement. */
+  public String getFileName() {
+    return fileName;
+  }
+
+  public FileFormat getFormat() {
+    return format;
+  }
+}
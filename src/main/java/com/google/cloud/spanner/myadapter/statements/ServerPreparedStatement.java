@@ -0,0 +1,109 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Value;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * A statement that has been prepared with COM_STMT_PREPARE. The positional parameters of the
+ * statement have been replaced by the named parameters @p1, @p2, ... that Spanner uses.
+ */
+@InternalApi
+public class ServerPreparedStatement {
+  private static final String PARAMETER_PREFIX = "p";
+
+  private final int id;
+  private final String sql;
+  private final int parameterCount;
+  private final ImmutableList<byte[]> columnDefinitions;
+
+  /**
+   * The MySQL types of the parameters, including the unsigned flag in the high byte. Clients only
+   * send the types when they change, so the types of the last execution are kept.
+   */
+  @Nullable private int[] parameterTypes;
+
+  @Nullable private Cursor cursor;
+
+  public ServerPreparedStatement(
+      int id, String sql, int parameterCount, ImmutableList<byte[]> columnDefinitions) {
+    this.id = id;
+    this.sql = sql;
+    this.parameterCount = parameterCount;
+    this.columnDefinitions = columnDefinitions;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  /**
+   * Returns the encoded column definitions of the result of the statement, or an empty list if the
+   * statement does not return a result set or the columns could not be determined in advance.
+   */
+  public ImmutableList<byte[]> getColumnDefinitions() {
+    return columnDefinitions;
+  }
+
+  @Nullable
+  public int[] getParameterTypes() {
+    return parameterTypes;
+  }
+
+  public void setParameterTypes(int[] parameterTypes) {
+    this.parameterTypes = parameterTypes;
+  }
+
+  /** Creates a Spanner statement with the given parameter values. */
+  public Statement bind(List<Value> parameters) {
+    Statement.Builder builder = Statement.newBuilder(sql);
+    for (int i = 0; i < parameters.size(); i++) {
+      builder.bind(PARAMETER_PREFIX + (i + 1)).to(parameters.get(i));
+    }
+    return builder.build();
+  }
+
+  /** Returns the open cursor of this statement, or null if it has no open cursor. */
+  @Nullable
+  public Cursor getCursor() {
+    return cursor;
+  }
+
+  /** Sets a new cursor for this statement. Any cursor that is still open is closed. */
+  public void setCursor(@Nullable Cursor cursor) {
+    closeCursor();
+    this.cursor = cursor;
+  }
+
+  public void closeCursor() {
+    if (cursor != null) {
+      cursor.close();
+      cursor = null;
+    }
+  }
+}
@@ -14,31 +14,28 @@
 
 package com.google.cloud.spanner.myadapter.statements;
 
-import com.google.api.client.util.Preconditions;
 import com.google.api.client.util.Strings;
 import com.google.api.core.InternalApi;
 import com.google.cloud.spanner.ErrorCode;
-import com.google.cloud.spanner.ResultSet;
-import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.SpannerExceptionFactory;
-import com.google.cloud.spanner.Struct;
-import com.google.cloud.spanner.Type;
-import com.google.cloud.spanner.Type.Code;
-import com.google.cloud.spanner.Type.StructField;
 import com.google.cloud.spanner.connection.AbstractStatementParser.ParsedStatement;
 import com.google.cloud.spanner.connection.AbstractStatementParser.StatementType;
 import com.google.cloud.spanner.connection.BackendConnection;
 import com.google.cloud.spanner.connection.StatementResult;
 import com.google.cloud.spanner.myadapter.parsers.BooleanParser;
-import com.google.cloud.spanner.myadapter.parsers.Parser;
 import com.google.cloud.spanner.myadapter.session.SessionState;
 import com.google.cloud.spanner.myadapter.session.SessionState.SessionVariableType;
 import com.google.cloud.spanner.myadapter.session.SystemVariable;
 import com.google.cloud.spanner.myadapter.statements.SimpleParser.TableOrIndexName;
-import com.google.cloud.spanner.myadapter.utils.QueryResult;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
 import com.google.cloud.spanner.myadapter.utils.UpdateCount;
 import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 
 /** Simple parser for session management commands (SET/SHOW/RESET variable_name) */
@@ -47,7 +44,13 @@ public class SessionStatementParser {
 
   public static final String SET_KEYWORD = "set";
   public static final String SELECT_KEYWORD = "select";
+  public static final String SHOW_KEYWORD = "show";
+  public static final String WARNINGS_KEYWORD = "warnings";
+  public static final String USE_KEYWORD = "use";
+  public static final String KILL_KEYWORD = "kill";
   public static final String NAMES_KEYWORD = "names";
+  public static final String SESSION_KEYWORD = "session";
+  public static final String LOCAL_KEYWORD = "local";
   public static final String EQUALS_SIGN = "=";
   public static final String GLOBAL_KEYWORD = "global";
   public static final String AS_KEYWORD = "as";
@@ -155,12 +158,23 @@ public class SessionStatementParser {
         } else if (BooleanParser.FALSE_VALUES.contains(variableValue)) {
           backendConnection.processUnsetAutocommit();
         }
+      } else if (SessionState.isTransactionReadOnlyVariable(variableName)) {
+        if (BooleanParser.TRUE_VALUES.contains(variableValue)) {
+          backendConnection.setReadOnly(true);
+        } else if (BooleanParser.FALSE_VALUES.contains(variableValue)) {
+          backendConnection.setReadOnly(false);
+        }
       }
     }
 
     private void setStatementPostHook() {}
   }
 
+  /**
+   * SELECT statement that only contains system variables. The values are read directly from the
+   * {@link SessionState}, and the column definitions are encoded once per statement, as the type of
+   * a system variable never changes.
+   */
   static class SelectStatement extends SessionStatement {
     static class Builder {
       Builder addVariableColumn(VariableColumn variableColumn) {
@@ -172,31 +186,37 @@ public class SessionStatementParser {
     }
 
     SelectStatement(Builder builder) {
-      this.variableColumns = builder.variableColumnList;
+      this.variableColumns = ImmutableList.copyOf(builder.variableColumnList);
+      this.variableIds = new int[variableColumns.size()];
+      ImmutableList.Builder<byte[]> columnDefinitionsBuilder = ImmutableList.builder();
+      for (int i = 0; i < variableIds.length; i++) {
+        VariableColumn column = variableColumns.get(i);
+        variableIds[i] = SessionState.getVariableId(column.variableName);
+        SystemVariable variable = SessionState.getDefault(column.variableName);
+        try {
+          columnDefinitionsBuilder.add(
+              LocalQueryResult.encodeColumnDefinition(
+                  column.columnName, variable.getType().getCode()));
+        } catch (IOException ioException) {
+          throw new UncheckedIOException(ioException);
+        }
+      }
+      this.columnDefinitions = columnDefinitionsBuilder.build();
     }
 
     @Override
     public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
-      ArrayList<StructField> structFields = new ArrayList<Type.StructField>();
-      Struct.Builder rowBuilder = Struct.newBuilder();
-      for (VariableColumn column : variableColumns) {
-        SystemVariable variable = sessionState.get(column.variableName, column.type);
-        structFields.add(StructField.of(column.columnName, variable.getType()));
-        rowBuilder
-            .set(column.columnName)
-            .to(Parser.parseToSpannerValue(variable.getValue(), variable.getType().getCode()));
+      String[] values = new String[variableIds.length];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = sessionState.get(variableIds[i]).getValue();
       }
-
-      Type rowType = Type.struct(structFields);
-      ImmutableList<Struct> rows = ImmutableList.of(rowBuilder.build());
-      Preconditions.checkNotNull(rowType);
-      Preconditions.checkNotNull(rows);
-      Preconditions.checkArgument(rowType.getCode() == Code.STRUCT);
-      ResultSet resultSet = ResultSets.forRows(rowType, rows);
-      return new QueryResult(resultSet);
+      return new LocalQueryResult(
+          columnDefinitions, Collections.singletonList(Arrays.asList(values)));
     }
 
-    ArrayList<VariableColumn> variableColumns;
+    final ImmutableList<VariableColumn> variableColumns;
+    private final int[] variableIds;
+    private final ImmutableList<byte[]> columnDefinitions;
   }
 
   public static @Nullable SessionStatement parse(ParsedStatement parsedStatement) {
@@ -207,12 +227,30 @@ public class SessionStatementParser {
     }
     SimpleParser parser = new SimpleParser(parsedStatement.getSqlWithoutComments());
     if (parser.eatKeyword(SET_KEYWORD)) {
+      boolean session = parser.eatKeyword(SESSION_KEYWORD) || parser.eatKeyword(LOCAL_KEYWORD);
+      if (parser.eatKeyword(SetTransactionStatement.TRANSACTION_KEYWORD)) {
+        return SetTransactionStatement.parse(parser, session);
+      }
       return parseSetStatement(parser);
     }
-    if (parser.eatKeyword(SELECT_KEYWORD)
-        && !parser.peek(true, true, FROM_KEYWORD)
-        && parser.peek(true, false, SYSTEM_VARIABLE_PREFIX)) {
-      return parseSelectStatement(parser);
+    if (parser.eatKeyword(StartTransactionStatement.START_KEYWORD)) {
+      return StartTransactionStatement.parseStart(parser);
+    }
+    if (parser.eatKeyword(StartTransactionStatement.BEGIN_KEYWORD)) {
+      return StartTransactionStatement.parseBegin(parser);
+    }
+    if (parser.eatKeyword(SELECT_KEYWORD)) {
+      SelectStatement selectStatement = parseSelectStatement(parser);
+      return selectStatement == null ? LocalSelectStatement.parse(parser) : selectStatement;
+    }
+    if (parser.eatKeyword(SHOW_KEYWORD, WARNINGS_KEYWORD) && !parser.hasMoreTokens()) {
+      return ShowWarningsStatement.INSTANCE;
+    }
+    if (parser.eatKeyword(USE_KEYWORD)) {
+      return UseStatement.parse(parser);
+    }
+    if (parser.eatKeyword(KILL_KEYWORD)) {
+      return KillStatement.parse(parser);
     }
 
     return null;
@@ -273,35 +311,49 @@ public class SessionStatementParser {
     return builder.build();
   }
 
-  static SelectStatement parseSelectStatement(SimpleParser parser) {
+  /**
+   * Parses the select list at the current position of the parser if it only contains system
+   * variables with optional aliases, and returns null otherwise. The position of the parser is not
+   * changed.
+   */
+  static @Nullable SelectStatement parseSelectStatement(SimpleParser parser) {
+    if (parser.peek(true, true, FROM_KEYWORD)
+        || !parser.peek(true, false, SYSTEM_VARIABLE_PREFIX)) {
+      return null;
+    }
+    SimpleParser lookahead = new SimpleParser(parser.getSql());
+    lookahead.setPos(parser.getPos());
+    List<String> expressions = lookahead.parseExpressionList();
+    if (expressions == null || lookahead.hasMoreTokens()) {
+      return null;
+    }
     SelectStatement.Builder builder = new SelectStatement.Builder();
-    String[] columnExpressions = parser.getSql().substring(parser.getPos()).split(",");
-    for (String expression : columnExpressions) {
+    for (String expression : expressions) {
       SimpleParser expressionParser = new SimpleParser(expression);
-      VariableColumn.Builder columnBuilder = new VariableColumn.Builder();
-      String columnName = expression.trim();
-      if (expressionParser.eatToken(SYSTEM_VARIABLE_PREFIX)
-          || !expressionParser.eatToken(UD_VARIABLE_PREFIX)) {
-        columnBuilder.setSystemVariable();
+      if (!expressionParser.eatToken(SYSTEM_VARIABLE_PREFIX)) {
+        return null;
       }
       TableOrIndexName name = expressionParser.readTableOrIndexName();
       if (name == null) {
-        throw SpannerExceptionFactory.newSpannerException(
-            ErrorCode.INVALID_ARGUMENT,
-            "Invalid SELECT statement expression: " + expressionParser.getSql());
+        return null;
+      }
+      String columnName = expression.trim();
+      if (expressionParser.eatKeyword(AS_KEYWORD)) {
+        columnName = expressionParser.readKeyword();
+      }
+      if (expressionParser.hasMoreTokens()) {
+        return null;
       }
-
       if (GLOBAL_KEYWORD.equals(name.getUnquotedSchema())) {
         throw SpannerExceptionFactory.newSpannerException(
             ErrorCode.INVALID_ARGUMENT, "Global session variables are not supported");
       }
-
-      if (expressionParser.eatKeyword(AS_KEYWORD)) {
-        columnName = expressionParser.readKeyword();
-      }
-      columnBuilder.columnName(columnName);
-      columnBuilder.variableName(name.getUnquotedName());
-      builder.addVariableColumn(columnBuilder.build());
+      builder.addVariableColumn(
+          new VariableColumn.Builder()
+              .setSystemVariable()
+              .columnName(columnName)
+              .variableName(name.getUnquotedName())
+              .build());
     }
     return new SelectStatement(builder);
   }
@@ -0,0 +1,133 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionState.SessionVariableType;
+import com.google.cloud.spanner.myadapter.session.SessionStateTracker;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import javax.annotation.Nullable;
+
+/**
+ * SET [SESSION] TRANSACTION characteristic[, ...], where characteristic is ISOLATION LEVEL level,
+ * READ ONLY or READ WRITE. Without SESSION, the characteristics only apply to the next transaction.
+ * The access mode of the session is the same as the transaction_read_only variable. Spanner
+ * transactions are always serializable, so the isolation level is only recorded.
+ */
+@InternalApi
+public class SetTransactionStatement extends SessionStatement {
+  static final String TRANSACTION_KEYWORD = "transaction";
+  static final String ISOLATION_VARIABLE = "transaction_isolation";
+
+  private final boolean session;
+  /** True for READ ONLY, false for READ WRITE, and null if the access mode is not changed. */
+  @Nullable private final Boolean readOnly;
+  /** The isolation level in the format of transaction_isolation, or null if not changed. */
+  @Nullable private final String isolationLevel;
+
+  SetTransactionStatement(
+      boolean session, @Nullable Boolean readOnly, @Nullable String isolationLevel) {
+    this.session = session;
+    this.readOnly = readOnly;
+    this.isolationLevel = isolationLevel;
+  }
+
+  /**
+   * Parses the characteristics after SET [SESSION] TRANSACTION. Returns null if they are not
+   * valid.
+   */
+  @Nullable
+  static SetTransactionStatement parse(SimpleParser parser, boolean session) {
+    Boolean readOnly = null;
+    String isolationLevel = null;
+    do {
+      if (parser.eatKeyword("read", "only")) {
+        readOnly = Boolean.TRUE;
+      } else if (parser.eatKeyword("read", "write")) {
+        readOnly = Boolean.FALSE;
+      } else if (parser.eatKeyword("isolation", "level")) {
+        isolationLevel = parseIsolationLevel(parser);
+        if (isolationLevel == null) {
+          return null;
+        }
+      } else {
+        return null;
+      }
+    } while (parser.eatToken(","));
+    parser.eatToken(";");
+    return parser.hasMoreTokens()
+        ? null
+        : new SetTransactionStatement(session, readOnly, isolationLevel);
+  }
+
+  @Nullable
+  private static String parseIsolationLevel(SimpleParser parser) {
+    if (parser.eatKeyword("repeatable", "read")) {
+      return "REPEATABLE-READ";
+    } else if (parser.eatKeyword("read", "committed")) {
+      return "READ-COMMITTED";
+    } else if (parser.eatKeyword("read", "uncommitted")) {
+      return "READ-UNCOMMITTED";
+    } else if (parser.eatKeyword("serializable")) {
+      return "SERIALIZABLE";
+    }
+    return null;
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    if (readOnly != null) {
+      if (session) {
+        backendConnection.setReadOnly(readOnly);
+        sessionState.set(
+            SessionState.TRANSACTION_READ_ONLY_KEYWORD,
+            readOnly ? SessionState.ONE : SessionState.ZERO,
+            SessionVariableType.SYSTEM);
+      } else {
+        backendConnection.setNextTransactionReadOnly(readOnly);
+      }
+    }
+    if (isolationLevel != null && session) {
+      sessionState.set(ISOLATION_VARIABLE, isolationLevel, SessionVariableType.SYSTEM);
+    }
+    SessionStateTracker tracker = sessionState.getSessionStateTracker();
+    if (tracker != null && !session) {
+      tracker.recordTransactionCharacteristics(getCharacteristics());
+    }
+    return new UpdateCount(0L);
+  }
+
+  /** Returns the statements that set the characteristics of the next transaction. */
+  private String getCharacteristics() {
+    StringBuilder characteristics = new StringBuilder();
+    if (isolationLevel != null) {
+      characteristics
+          .append("SET TRANSACTION ISOLATION LEVEL ")
+          .append(isolationLevel.replace('-', ' '))
+          .append(';');
+    }
+    if (readOnly != null) {
+      if (characteristics.length() > 0) {
+        characteristics.append(' ');
+      }
+      characteristics.append("SET TRANSACTION ").append(readOnly ? "READ ONLY;" : "READ WRITE;");
+    }
+    return characteristics.toString();
+  }
+}
@@ -0,0 +1,57 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.utils.LocalQueryResult;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * SHOW WARNINGS. The adapter does not generate warnings, so the result is always empty. Clients
+ * such as the mysql CLI send this statement after every statement that returned warnings, and some
+ * drivers send it when a connection is opened.
+ */
+@InternalApi
+public class ShowWarningsStatement extends SessionStatement {
+  static final ShowWarningsStatement INSTANCE = new ShowWarningsStatement();
+
+  private final LocalQueryResult result;
+
+  private ShowWarningsStatement() {
+    try {
+      this.result =
+          new LocalQueryResult(
+              ImmutableList.of(
+                  LocalQueryResult.encodeColumnDefinition("Level", Code.STRING),
+                  LocalQueryResult.encodeColumnDefinition("Code", Code.INT64),
+                  LocalQueryResult.encodeColumnDefinition("Message", Code.STRING)),
+              ImmutableList.of());
+    } catch (IOException ioException) {
+      throw new UncheckedIOException(ioException);
+    }
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    return result;
+  }
+}
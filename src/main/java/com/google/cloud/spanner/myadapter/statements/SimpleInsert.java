@@ -0,0 +1,476 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Mutation.WriteBuilder;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Type.Code;
+import com.google.cloud.spanner.Value;
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+
+/**
+ * INSERT [INTO] table (column, ...) VALUES (value, ...), ... where every value is a literal or a
+ * query parameter. Such a statement can be written to Spanner as mutations instead of being
+ * executed as DML, which saves the round trip that DML needs in a read/write transaction.
+ *
+ * <p>REPLACE [INTO] and INSERT ... ON DUPLICATE KEY UPDATE statements with the same form are also
+ * parsed by this class, as they are not valid GoogleSQL and must always be translated.
+ */
+@InternalApi
+public final class SimpleInsert {
+  private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+  private static final Pattern INTEGER_LITERAL = Pattern.compile("-?[0-9]+");
+  private static final Pattern NUMERIC_LITERAL =
+      Pattern.compile("-?([0-9]+\\.?[0-9]*|\\.[0-9]+)([eE][-+]?[0-9]+)?");
+  private static final Pattern PARAMETER = Pattern.compile("@[A-Za-z_][A-Za-z0-9_]*");
+  /** VALUES(column) in an ON DUPLICATE KEY UPDATE clause refers to the value of the new row. */
+  private static final Pattern VALUES_FUNCTION =
+      Pattern.compile("(?i)\\bVALUES\\s*\\(\\s*`?([A-Za-z_][A-Za-z0-9_]*)`?\\s*\\)");
+  /** A time followed by a Z or a +hh:mm / -hh:mm offset at the end of a timestamp literal. */
+  private static final Pattern TIMESTAMP_WITH_OFFSET =
+      Pattern.compile("[0-9]{2}:[0-9]{2}(:[0-9]{2}(\\.[0-9]*)?)?([Zz]|[+-][0-9]{2}:[0-9]{2})$");
+
+  /** The way that rows are written when a row with the same primary key already exists. */
+  public enum Mode {
+    /** INSERT: the statement fails. */
+    INSERT,
+    /** REPLACE: the existing row is deleted before the new row is inserted. */
+    REPLACE,
+    /** INSERT ... ON DUPLICATE KEY UPDATE: the existing row is updated. */
+    UPSERT,
+  }
+
+  /** An assignment in an ON DUPLICATE KEY UPDATE clause. */
+  private static final class Assignment {
+    final String column;
+    final String expression;
+
+    Assignment(String column, String expression) {
+      this.column = column;
+      this.expression = expression;
+    }
+  }
+
+  private final Mode mode;
+  private final String table;
+  private final ImmutableList<String> columns;
+  private final ImmutableList<ImmutableList<String>> rows;
+  private final ImmutableList<Assignment> updates;
+  private final Statement statement;
+
+  private SimpleInsert(
+      Mode mode,
+      String table,
+      ImmutableList<String> columns,
+      ImmutableList<ImmutableList<String>> rows,
+      ImmutableList<Assignment> updates,
+      Statement statement) {
+    this.mode = mode;
+    this.table = table;
+    this.columns = columns;
+    this.rows = rows;
+    this.updates = updates;
+    this.statement = statement;
+  }
+
+  /**
+   * Parses the given statement. Returns null if the statement is not an INSERT or REPLACE with an
+   * explicit column list and a VALUES list, optionally followed by an ON DUPLICATE KEY UPDATE
+   * clause, or if it contains anything else than these.
+   */
+  @Nullable
+  public static SimpleInsert parse(Statement statement) {
+    SimpleParser parser = new SimpleParser(statement.getSql());
+    Mode mode;
+    if (parser.eatKeyword("insert")) {
+      mode = Mode.INSERT;
+    } else if (parser.eatKeyword("replace")) {
+      mode = Mode.REPLACE;
+    } else {
+      return null;
+    }
+    parser.eatKeyword("into");
+    String table = readIdentifier(parser);
+    if (table == null || parser.peekToken(".") || !parser.eatToken("(")) {
+      return null;
+    }
+    ImmutableList<String> columns = readList(parser);
+    if (columns == null || !parser.eatKeyword("values")) {
+      return null;
+    }
+    ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+    for (String column : columns) {
+      String name = unquoteIdentifier(column);
+      if (name == null) {
+        return null;
+      }
+      columnNames.add(name);
+    }
+    ImmutableList.Builder<ImmutableList<String>> rows = ImmutableList.builder();
+    do {
+      if (!parser.eatToken("(")) {
+        return null;
+      }
+      ImmutableList<String> row = readList(parser);
+      if (row == null || row.size() != columns.size()) {
+        return null;
+      }
+      rows.add(row);
+    } while (parser.eatToken(","));
+    ImmutableList.Builder<Assignment> updates = ImmutableList.builder();
+    if (mode == Mode.INSERT && parser.eatKeyword("on", "duplicate", "key", "update")) {
+      mode = Mode.UPSERT;
+      do {
+        String column = readIdentifier(parser);
+        if (column == null || !parser.eatToken("=")) {
+          return null;
+        }
+        String expression = parser.parseExpression();
+        if (expression == null) {
+          return null;
+        }
+        updates.add(new Assignment(column, expression));
+      } while (parser.eatToken(","));
+    }
+    parser.eatToken(";");
+    if (parser.hasMoreTokens()) {
+      return null;
+    }
+    return new SimpleInsert(
+        mode, table, columnNames.build(), rows.build(), updates.build(), statement);
+  }
+
+  /** Reads a comma-separated list after an opening parenthesis, including the closing one. */
+  @Nullable
+  private static ImmutableList<String> readList(SimpleParser parser) {
+    List<String> expressions = parser.parseExpressionList();
+    if (expressions == null || !parser.eatToken(")")) {
+      return null;
+    }
+    return ImmutableList.copyOf(expressions);
+  }
+
+  @Nullable
+  static String readIdentifier(SimpleParser parser) {
+    parser.skipWhitespaces();
+    String sql = parser.getSql();
+    int pos = parser.getPos();
+    if (pos < sql.length() && sql.charAt(pos) == '`') {
+      int end = sql.indexOf('`', pos + 1);
+      if (end < 0) {
+        return null;
+      }
+      parser.setPos(end + 1);
+      return unquoteIdentifier(sql.substring(pos, end + 1));
+    }
+    return unquoteIdentifier(parser.readIdentifierPart());
+  }
+
+  /** Returns the name of a plain or backtick-quoted identifier, or null for anything else. */
+  @Nullable
+  private static String unquoteIdentifier(@Nullable String identifier) {
+    if (identifier == null) {
+      return null;
+    }
+    if (identifier.length() > 2
+        && identifier.charAt(0) == '`'
+        && identifier.charAt(identifier.length() - 1) == '`') {
+      identifier = identifier.substring(1, identifier.length() - 1);
+    }
+    return IDENTIFIER.matcher(identifier).matches() ? identifier : null;
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  public ImmutableList<String> getColumns() {
+    return columns;
+  }
+
+  public int getRowCount() {
+    return rows.size();
+  }
+
+  /**
+   * Converts the rows of this statement to insert mutations. The column types are keyed by the
+   * lower-case column name. Returns null if a value cannot be converted to the type of its column
+   * exactly as Spanner would convert it, in which case the statement must be executed as DML.
+   */
+  @Nullable
+  public ImmutableList<Mutation> toMutations(Map<String, Code> columnTypes) {
+    Code[] types = new Code[columns.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = columnTypes.get(columns.get(i).toLowerCase(Locale.ENGLISH));
+      if (types[i] == null) {
+        return null;
+      }
+    }
+    ImmutableList.Builder<Mutation> mutations = ImmutableList.builder();
+    for (ImmutableList<String> row : rows) {
+      WriteBuilder builder = newWriteBuilder();
+      for (int i = 0; i < types.length; i++) {
+        Value value = toValue(row.get(i), types[i]);
+        if (value == null) {
+          return null;
+        }
+        builder.set(columns.get(i)).to(value);
+      }
+      mutations.add(builder.build());
+    }
+    return mutations.build();
+  }
+
+  private WriteBuilder newWriteBuilder() {
+    switch (mode) {
+      case REPLACE:
+        return Mutation.newReplaceBuilder(table);
+      case UPSERT:
+        return Mutation.newInsertOrUpdateBuilder(table);
+      case INSERT:
+      default:
+        return Mutation.newInsertBuilder(table);
+    }
+  }
+
+  /**
+   * Returns true if this is an ON DUPLICATE KEY UPDATE statement that sets every inserted column
+   * to its new value, except for primary key columns. Such a statement is equal to an insert or
+   * update mutation.
+   */
+  public boolean isFullRowUpdate(Set<String> primaryKey) {
+    if (mode != Mode.UPSERT) {
+      return false;
+    }
+    Set<String> updated = new HashSet<>();
+    for (Assignment update : updates) {
+      Matcher matcher = VALUES_FUNCTION.matcher(update.expression);
+      if (!matcher.matches() || !matcher.group(1).equalsIgnoreCase(update.column)) {
+        return false;
+      }
+      updated.add(update.column.toLowerCase(Locale.ENGLISH));
+    }
+    for (String column : columns) {
+      String name = column.toLowerCase(Locale.ENGLISH);
+      if (!updated.remove(name) && !primaryKey.contains(name)) {
+        return false;
+      }
+    }
+    // All remaining updated columns are not in the column list, and would be set to NULL.
+    return updated.isEmpty();
+  }
+
+  /** Returns the statement that inserts the given row. */
+  public Statement insertRow(int row) {
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(table)).append(" (");
+    for (int i = 0; i < columns.size(); i++) {
+      sql.append(i == 0 ? "" : ", ").append(quote(columns.get(i)));
+    }
+    sql.append(") VALUES (").append(String.join(", ", rows.get(row))).append(')');
+    return SimpleParser.copyStatement(statement, sql.toString());
+  }
+
+  /**
+   * Returns the statement that deletes the existing row with the primary key of the given row, or
+   * null if the statement does not contain a value for each primary key column.
+   */
+  @Nullable
+  public Statement deleteRow(int row, List<String> primaryKey) {
+    String where = primaryKeyCondition(row, primaryKey);
+    if (where == null) {
+      return null;
+    }
+    return SimpleParser.copyStatement(
+        statement, "DELETE FROM " + quote(table) + " WHERE " + where);
+  }
+
+  /**
+   * Returns the statement that applies the ON DUPLICATE KEY UPDATE clause to the existing row with
+   * the primary key of the given row, or null if the statement does not contain a value for each
+   * primary key column.
+   */
+  @Nullable
+  public Statement updateRow(int row, List<String> primaryKey) {
+    String where = primaryKeyCondition(row, primaryKey);
+    if (where == null || updates.isEmpty()) {
+      return null;
+    }
+    StringBuilder sql = new StringBuilder("UPDATE ").append(quote(table)).append(" SET ");
+    for (int i = 0; i < updates.size(); i++) {
+      Assignment update = updates.get(i);
+      sql.append(i == 0 ? "" : ", ")
+          .append(quote(update.column))
+          .append(" = ")
+          .append(replaceValuesFunction(update.expression, row));
+    }
+    sql.append(" WHERE ").append(where);
+    return SimpleParser.copyStatement(statement, sql.toString());
+  }
+
+  /** Replaces VALUES(column) with the value of the column in the given row. */
+  private String replaceValuesFunction(String expression, int row) {
+    Matcher matcher = VALUES_FUNCTION.matcher(expression);
+    StringBuffer result = new StringBuffer();
+    while (matcher.find()) {
+      int index = indexOfColumn(matcher.group(1));
+      String value = index < 0 ? "NULL" : "(" + rows.get(row).get(index) + ")";
+      matcher.appendReplacement(result, Matcher.quoteReplacement(value));
+    }
+    matcher.appendTail(result);
+    return result.toString();
+  }
+
+  @Nullable
+  private String primaryKeyCondition(int row, List<String> primaryKey) {
+    if (primaryKey.isEmpty()) {
+      return null;
+    }
+    StringBuilder where = new StringBuilder();
+    for (String keyColumn : primaryKey) {
+      int index = indexOfColumn(keyColumn);
+      if (index < 0) {
+        return null;
+      }
+      where
+          .append(where.length() == 0 ? "" : " AND ")
+          .append(quote(columns.get(index)))
+          .append(" = ")
+          .append(rows.get(row).get(index));
+    }
+    return where.toString();
+  }
+
+  private int indexOfColumn(String column) {
+    for (int i = 0; i < columns.size(); i++) {
+      if (columns.get(i).equalsIgnoreCase(column)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static String quote(String identifier) {
+    return "`" + identifier + "`";
+  }
+
+  /** Converts a literal or a parameter to a value of the given type, or returns null. */
+  @Nullable
+  private Value toValue(String expression, Code type) {
+    if (PARAMETER.matcher(expression).matches()) {
+      Value value = statement.getParameters().get(expression.substring(1));
+      return value != null && value.getType().getCode() == type ? value : null;
+    }
+    if ("null".equalsIgnoreCase(expression)) {
+      return nullValue(type);
+    }
+    try {
+      switch (type) {
+        case BOOL:
+          if ("true".equalsIgnoreCase(expression) || "false".equalsIgnoreCase(expression)) {
+            return Value.bool(Boolean.parseBoolean(expression));
+          }
+          return null;
+        case INT64:
+          return INTEGER_LITERAL.matcher(expression).matches()
+              ? Value.int64(Long.parseLong(expression))
+              : null;
+        case FLOAT64:
+          return NUMERIC_LITERAL.matcher(expression).matches()
+              ? Value.float64(Double.parseDouble(expression))
+              : null;
+        case NUMERIC:
+          return NUMERIC_LITERAL.matcher(expression).matches()
+              ? Value.numeric(new BigDecimal(expression))
+              : null;
+        case STRING:
+          String string = stringLiteral(expression);
+          return string == null ? null : Value.string(string);
+        case DATE:
+          String date = stringLiteral(expression);
+          return date == null ? null : Value.date(Date.parseDate(date));
+        case TIMESTAMP:
+          // Only timestamps with an explicit offset, as Spanner interprets other timestamp
+          // literals in its default time zone.
+          String timestamp = stringLiteral(expression);
+          if (timestamp == null || !TIMESTAMP_WITH_OFFSET.matcher(timestamp).find()) {
+            return null;
+          }
+          return Value.timestamp(Timestamp.parseTimestamp(timestamp));
+        default:
+          return null;
+      }
+    } catch (IllegalArgumentException | DateTimeParseException ignore) {
+      // Let Spanner report the error for the literal.
+      return null;
+    }
+  }
+
+  /** Returns the value of a quoted string without escapes or embedded quotes, or null. */
+  @Nullable
+  private static String stringLiteral(String expression) {
+    if (expression.length() < 2) {
+      return null;
+    }
+    char quote = expression.charAt(0);
+    if ((quote != '\'' && quote != '"') || expression.charAt(expression.length() - 1) != quote) {
+      return null;
+    }
+    String value = expression.substring(1, expression.length() - 1);
+    if (value.indexOf(quote) >= 0 || value.indexOf('\\') >= 0) {
+      return null;
+    }
+    return value;
+  }
+
+  @Nullable
+  private static Value nullValue(Code type) {
+    switch (type) {
+      case BOOL:
+        return Value.bool(null);
+      case INT64:
+        return Value.int64(null);
+      case FLOAT64:
+        return Value.float64(null);
+      case NUMERIC:
+        return Value.numeric(null);
+      case STRING:
+        return Value.string(null);
+      case DATE:
+        return Value.date(null);
+      case TIMESTAMP:
+        return Value.timestamp(null);
+      default:
+        return null;
+    }
+  }
+}
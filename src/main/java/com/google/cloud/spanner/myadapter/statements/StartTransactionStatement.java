@@ -0,0 +1,87 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionStateTracker;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import javax.annotation.Nullable;
+
+/**
+ * START TRANSACTION [READ ONLY | READ WRITE | WITH CONSISTENT SNAPSHOT][, ...] or BEGIN [WORK].
+ * Starts a Spanner transaction. A READ ONLY transaction is a read-only transaction that reads from
+ * one consistent snapshot and takes no locks. An active transaction is committed first, as in
+ * MySQL.
+ */
+@InternalApi
+public class StartTransactionStatement extends SessionStatement {
+  static final String START_KEYWORD = "start";
+  static final String BEGIN_KEYWORD = "begin";
+
+  /** True for READ ONLY, false for READ WRITE, and null for the default access mode. */
+  @Nullable private final Boolean readOnly;
+
+  StartTransactionStatement(@Nullable Boolean readOnly) {
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Parses the remainder of a START TRANSACTION statement. Returns null if it is not a valid START
+   * TRANSACTION statement.
+   */
+  @Nullable
+  static StartTransactionStatement parseStart(SimpleParser parser) {
+    if (!parser.eatKeyword("transaction")) {
+      return null;
+    }
+    Boolean readOnly = null;
+    if (parser.hasMoreTokens() && !parser.peekToken(";")) {
+      do {
+        if (parser.eatKeyword("read", "only")) {
+          readOnly = Boolean.TRUE;
+        } else if (parser.eatKeyword("read", "write")) {
+          readOnly = Boolean.FALSE;
+        } else if (!parser.eatKeyword("with", "consistent", "snapshot")) {
+          return null;
+        }
+      } while (parser.eatToken(","));
+    }
+    parser.eatToken(";");
+    return parser.hasMoreTokens() ? null : new StartTransactionStatement(readOnly);
+  }
+
+  /** Parses the remainder of a BEGIN statement. Returns null if it is not a valid statement. */
+  @Nullable
+  static StartTransactionStatement parseBegin(SimpleParser parser) {
+    parser.eatKeyword("work");
+    parser.eatToken(";");
+    return parser.hasMoreTokens() ? null : new StartTransactionStatement(null);
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    backendConnection.beginTransaction(readOnly);
+    SessionStateTracker tracker = sessionState.getSessionStateTracker();
+    if (tracker != null && readOnly != null) {
+      tracker.recordTransactionCharacteristics(
+          readOnly ? "START TRANSACTION READ ONLY;" : "START TRANSACTION READ WRITE;");
+    }
+    return new UpdateCount(0L);
+  }
+}
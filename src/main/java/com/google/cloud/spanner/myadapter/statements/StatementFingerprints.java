@@ -0,0 +1,99 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SelectStatement;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SetStatement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import javax.annotation.Nullable;
+
+/**
+ * Process-wide table of statements that can be executed by the adapter itself, keyed by their
+ * fingerprint. Drivers and command line clients send the same burst of statements (SELECT
+ * {@code @@}variables, SHOW WARNINGS, SET NAMES, ...) on every new connection. Once such a
+ * statement has been parsed, later connections skip parsing and query translation for it. This is
+ * the only cache of parsed session statements.
+ *
+ * <p>The fingerprint is the SQL string without leading comments and surrounding whitespace, so
+ * statements that only differ in a leading driver comment share an entry.
+ */
+@InternalApi
+public final class StatementFingerprints {
+  private static final int MAX_FINGERPRINTS = 1000;
+
+  private static final Cache<String, SessionStatement> STATEMENTS =
+      CacheBuilder.newBuilder().maximumSize(MAX_FINGERPRINTS).build();
+
+  static {
+    STATEMENTS.put("SHOW WARNINGS", ShowWarningsStatement.INSTANCE);
+    STATEMENTS.put("show warnings", ShowWarningsStatement.INSTANCE);
+  }
+
+  private StatementFingerprints() {}
+
+  /** Returns the known session statement for the given SQL string, or null if there is none. */
+  @Nullable
+  public static SessionStatement lookup(String sql) {
+    return STATEMENTS.getIfPresent(fingerprint(sql));
+  }
+
+  /**
+   * Registers a session statement that was parsed from the given SQL string, if it is one of the
+   * fixed statements that clients send when they connect. Other statements, such as KILL, USE,
+   * SELECT with literals and SET of user variables, would fill the table with entries that are
+   * never used again, and are ignored.
+   */
+  public static void register(String sql, SessionStatement statement) {
+    if (isConnectStatement(statement)) {
+      STATEMENTS.put(fingerprint(sql), statement);
+    }
+  }
+
+  private static boolean isConnectStatement(SessionStatement statement) {
+    if (statement instanceof SetStatement) {
+      return ((SetStatement) statement).systemVariable;
+    }
+    return statement instanceof SelectStatement
+        || statement instanceof SetTransactionStatement
+        || statement instanceof ShowWarningsStatement;
+  }
+
+  static String fingerprint(String sql) {
+    int start = 0;
+    int end = sql.length();
+    while (true) {
+      while (start < end && Character.isWhitespace(sql.charAt(start))) {
+        start++;
+      }
+      if (sql.startsWith("/*", start)) {
+        int commentEnd = sql.indexOf("*/", start + 2);
+        if (commentEnd < 0) {
+          break;
+        }
+        start = commentEnd + 2;
+      } else {
+        break;
+      }
+    }
+    while (end > start
+        && (Character.isWhitespace(sql.charAt(end - 1)) || sql.charAt(end - 1) == ';')) {
+      end--;
+    }
+    return sql.substring(start, end);
+  }
+}
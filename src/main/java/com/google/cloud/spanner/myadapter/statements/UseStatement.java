@@ -0,0 +1,79 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.statements;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.connection.BackendConnection;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionStateTracker;
+import com.google.cloud.spanner.myadapter.statements.SessionStatementParser.SessionStatement;
+import com.google.cloud.spanner.myadapter.utils.UpdateCount;
+import com.google.common.base.Preconditions;
+import javax.annotation.Nullable;
+
+/**
+ * USE database. Switches the session to a different Spanner database in the same instance. This
+ * statement is also used for COM_INIT_DB and for the database in the handshake of the client.
+ */
+@InternalApi
+public class UseStatement extends SessionStatement {
+  private final String database;
+
+  public UseStatement(String database) {
+    this.database = Preconditions.checkNotNull(database);
+  }
+
+  /**
+   * Parses the database name after the USE keyword. Returns null if the remainder of the statement
+   * is not a single database name.
+   */
+  @Nullable
+  static UseStatement parse(SimpleParser parser) {
+    parser.skipWhitespaces();
+    String sql = parser.getSql();
+    int pos = parser.getPos();
+    String database;
+    if (pos < sql.length() && sql.charAt(pos) == '`') {
+      int end = sql.indexOf('`', pos + 1);
+      if (end < 0) {
+        return null;
+      }
+      database = sql.substring(pos + 1, end);
+      parser.setPos(end + 1);
+    } else {
+      database = SimpleParser.unquoteOrFoldIdentifier(parser.readIdentifierPart());
+    }
+    parser.eatToken(";");
+    if (database == null || database.isEmpty() || parser.hasMoreTokens()) {
+      return null;
+    }
+    return new UseStatement(database);
+  }
+
+  public String getDatabase() {
+    return database;
+  }
+
+  @Override
+  public StatementResult execute(SessionState sessionState, BackendConnection backendConnection) {
+    backendConnection.switchDatabase(database);
+    SessionStateTracker tracker = sessionState.getSessionStateTracker();
+    if (tracker != null) {
+      tracker.recordSchema(database);
+    }
+    return new UpdateCount(0L);
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.tls;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+/**
+ * The server side TLS configuration. The key store is read from the standard {@code
+ * javax.net.ssl.keyStore}, {@code javax.net.ssl.keyStorePassword} and {@code
+ * javax.net.ssl.keyStoreType} system properties.
+ *
+ * <p>Sessions are kept in the server session cache, and stateless session tickets are enabled on
+ * Java versions that support them, so clients that reconnect can resume their session instead of
+ * doing a full handshake.
+ */
+@InternalApi
+public class ServerTlsContext {
+  private static final Logger logger = Logger.getLogger(ServerTlsContext.class.getName());
+
+  private static final String SESSION_TICKET_PROPERTY =
+      "jdk.tls.server.enableSessionTicketExtension";
+  private static final int SESSION_CACHE_SIZE = 20_000;
+  private static final int SESSION_TIMEOUT_SECONDS = 24 * 60 * 60;
+  private static final String TLS_V13 = "TLSv1.3";
+
+  private final SSLContext sslContext;
+  /**
+   * The ids of the sessions that were established by a full handshake. A TLS 1.2 handshake that
+   * resumes a session, from the session cache or from a session ticket, keeps its session id.
+   */
+  private final Cache<String, Boolean> sessionIds =
+      CacheBuilder.newBuilder()
+          .maximumSize(SESSION_CACHE_SIZE)
+          .expireAfterWrite(SESSION_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+          .build();
+
+  private ServerTlsContext(SSLContext sslContext) {
+    this.sslContext = sslContext;
+  }
+
+  public static ServerTlsContext create() {
+    if (System.getProperty(SESSION_TICKET_PROPERTY) == null) {
+      // Must be set before the first SSLContext is initialized.
+      System.setProperty(SESSION_TICKET_PROPERTY, "true");
+    }
+    String keyStoreFile = System.getProperty("javax.net.ssl.keyStore");
+    if (keyStoreFile == null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION,
+          "SSL is enabled, but no key store has been set with -Djavax.net.ssl.keyStore=<file>");
+    }
+    String password = System.getProperty("javax.net.ssl.keyStorePassword", "");
+    String type = System.getProperty("javax.net.ssl.keyStoreType", KeyStore.getDefaultType());
+    try (InputStream keyStoreStream = new FileInputStream(keyStoreFile)) {
+      KeyStore keyStore = KeyStore.getInstance(type);
+      keyStore.load(keyStoreStream, password.toCharArray());
+      KeyManagerFactory keyManagerFactory =
+          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+      keyManagerFactory.init(keyStore, password.toCharArray());
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+      SSLSessionContext sessionContext = sslContext.getServerSessionContext();
+      sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+      sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+      return new ServerTlsContext(sslContext);
+    } catch (IOException | GeneralSecurityException exception) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION,
+          "Could not load key store " + keyStoreFile + ": " + exception.getMessage(),
+          exception);
+    }
+  }
+
+  /**
+   * Executes a server side TLS handshake over the given streams, and returns the connection that
+   * encrypts and decrypts all further traffic.
+   */
+  public TlsConnection upgrade(InputStream networkInput, OutputStream networkOutput)
+      throws IOException {
+    SSLEngine engine = sslContext.createSSLEngine();
+    engine.setUseClientMode(false);
+    TlsConnection connection = new TlsConnection(engine, networkInput, networkOutput);
+    long startNanos = System.nanoTime();
+    try {
+      connection.handshake();
+    } catch (IOException | RuntimeException exception) {
+      TlsMetrics.getInstance().recordFailedHandshake();
+      throw exception;
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+    boolean resumed = isResumed(engine.getSession());
+    TlsMetrics.getInstance().recordHandshake(elapsedNanos, resumed);
+    logger.log(
+        Level.FINE,
+        () ->
+            String.format(
+                "TLS handshake finished in %d us (%s, %s)",
+                elapsedNanos / 1000,
+                engine.getSession().getProtocol(),
+                resumed ? "resumed" : "full"));
+    return connection;
+  }
+
+  /**
+   * Returns true if the given session was resumed. TLS 1.3 resumes sessions with a pre-shared key
+   * and gives the resumed session a new id, so resumption is only detected for TLS 1.2 and older.
+   * TLS 1.3 handshakes are always counted as full handshakes.
+   */
+  private boolean isResumed(SSLSession session) {
+    byte[] id = session.getId();
+    if (TLS_V13.equals(session.getProtocol()) || id == null || id.length == 0) {
+      return false;
+    }
+    String key = BaseEncoding.base16().encode(id);
+    if (sessionIds.getIfPresent(key) != null) {
+      return true;
+    }
+    sessionIds.put(key, Boolean.TRUE);
+    return false;
+  }
+}
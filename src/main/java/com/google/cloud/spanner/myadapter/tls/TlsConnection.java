@@ -0,0 +1,277 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.tls;
+
+import com.google.api.core.InternalApi;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLEngineResult.Status;
+
+/**
+ * TLS on top of an existing connection, implemented with an {@link SSLEngine}. The engine only
+ * transforms buffers, so this class does not depend on the type of transport: it reads and writes
+ * the encrypted records through plain streams, which is also what allows the connection to be
+ * upgraded in the middle of the MySQL handshake without losing bytes that are already buffered.
+ */
+@InternalApi
+public class TlsConnection {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final SSLEngine engine;
+  private final InputStream networkInput;
+  private final OutputStream networkOutput;
+  private final InputStream inputStream = new TlsInputStream();
+  private final OutputStream outputStream = new TlsOutputStream();
+  // Reading and writing use separate locks, as SSLEngine supports concurrent wrap and unwrap calls.
+  private final Object readLock = new Object();
+  private final Object writeLock = new Object();
+
+  /** Encrypted data that has been read from the network, but not yet unwrapped (write mode). */
+  private ByteBuffer networkInputBuffer;
+  /** Decrypted data that has not yet been read by the application (write mode). */
+  private ByteBuffer applicationInputBuffer;
+  /** Encrypted data that is ready to be written to the network. */
+  private ByteBuffer networkOutputBuffer;
+
+  public TlsConnection(SSLEngine engine, InputStream networkInput, OutputStream networkOutput) {
+    this.engine = engine;
+    this.networkInput = networkInput;
+    this.networkOutput = networkOutput;
+    this.networkInputBuffer = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+    this.applicationInputBuffer =
+        ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+    this.networkOutputBuffer = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+  }
+
+  /** Executes the TLS handshake. This method blocks until the handshake has finished. */
+  public void handshake() throws IOException {
+    engine.beginHandshake();
+    processHandshake();
+  }
+
+  public SSLEngine getEngine() {
+    return engine;
+  }
+
+  /** Returns the stream with the decrypted data that is sent by the client. */
+  public InputStream getInputStream() {
+    return inputStream;
+  }
+
+  /** Returns the stream that encrypts all data that is written to it. */
+  public OutputStream getOutputStream() {
+    return outputStream;
+  }
+
+  private void processHandshake() throws IOException {
+    while (true) {
+      HandshakeStatus status = engine.getHandshakeStatus();
+      switch (status) {
+        case FINISHED:
+        case NOT_HANDSHAKING:
+          return;
+        case NEED_WRAP:
+          wrap(EMPTY);
+          networkOutput.flush();
+          break;
+        case NEED_TASK:
+          Runnable task;
+          while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+          }
+          break;
+        case NEED_UNWRAP:
+        default:
+          // NEED_UNWRAP_AGAIN in Java 9 and higher is also handled here.
+          if (!unwrap()) {
+            throw new EOFException("Connection closed during TLS handshake");
+          }
+          break;
+      }
+    }
+  }
+
+  /**
+   * Unwraps the next record into the application buffer, and reads more data from the network if
+   * needed. Returns false if the connection has been closed.
+   */
+  private boolean unwrap() throws IOException {
+    while (true) {
+      networkInputBuffer.flip();
+      SSLEngineResult result;
+      try {
+        result = engine.unwrap(networkInputBuffer, applicationInputBuffer);
+      } finally {
+        networkInputBuffer.compact();
+      }
+      switch (result.getStatus()) {
+        case OK:
+          return true;
+        case BUFFER_UNDERFLOW:
+          if (!readFromNetwork()) {
+            return false;
+          }
+          break;
+        case BUFFER_OVERFLOW:
+          applicationInputBuffer =
+              enlarge(applicationInputBuffer, engine.getSession().getApplicationBufferSize());
+          break;
+        case CLOSED:
+        default:
+          return false;
+      }
+    }
+  }
+
+  private boolean readFromNetwork() throws IOException {
+    if (!networkInputBuffer.hasRemaining()) {
+      networkInputBuffer =
+          enlarge(networkInputBuffer, engine.getSession().getPacketBufferSize());
+    }
+    int read =
+        networkInput.read(
+            networkInputBuffer.array(),
+            networkInputBuffer.arrayOffset() + networkInputBuffer.position(),
+            networkInputBuffer.remaining());
+    if (read < 0) {
+      return false;
+    }
+    networkInputBuffer.position(networkInputBuffer.position() + read);
+    return true;
+  }
+
+  private void wrap(ByteBuffer source) throws IOException {
+    synchronized (writeLock) {
+      doWrap(source);
+    }
+  }
+
+  private void doWrap(ByteBuffer source) throws IOException {
+    while (true) {
+      networkOutputBuffer.clear();
+      SSLEngineResult result = engine.wrap(source, networkOutputBuffer);
+      if (result.getStatus() == Status.BUFFER_OVERFLOW) {
+        networkOutputBuffer =
+            enlarge(networkOutputBuffer, engine.getSession().getPacketBufferSize());
+        continue;
+      }
+      if (result.getStatus() == Status.CLOSED && source.hasRemaining()) {
+        throw new IOException("TLS connection has been closed");
+      }
+      networkOutputBuffer.flip();
+      networkOutput.write(
+          networkOutputBuffer.array(),
+          networkOutputBuffer.arrayOffset(),
+          networkOutputBuffer.remaining());
+      if (!source.hasRemaining()) {
+        return;
+      }
+    }
+  }
+
+  private static ByteBuffer enlarge(ByteBuffer buffer, int minimumIncrease) {
+    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() + minimumIncrease);
+    buffer.flip();
+    larger.put(buffer);
+    return larger;
+  }
+
+  private class TlsInputStream extends InputStream {
+    @Override
+    public int read() throws IOException {
+      byte[] singleByte = new byte[1];
+      int read = read(singleByte, 0, 1);
+      return read < 0 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      synchronized (readLock) {
+        while (applicationInputBuffer.position() == 0) {
+          if (!unwrap()) {
+            return -1;
+          }
+          // The client may send post-handshake messages, such as a key update.
+          processHandshake();
+        }
+        applicationInputBuffer.flip();
+        int read = Math.min(length, applicationInputBuffer.remaining());
+        applicationInputBuffer.get(bytes, offset, read);
+        applicationInputBuffer.compact();
+        return read;
+      }
+    }
+
+    @Override
+    public int available() {
+      synchronized (readLock) {
+        return applicationInputBuffer.position();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      TlsConnection.this.close();
+    }
+  }
+
+  private class TlsOutputStream extends OutputStream {
+    @Override
+    public void write(int value) throws IOException {
+      write(new byte[] {(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      wrap(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    @Override
+    public void flush() throws IOException {
+      networkOutput.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      TlsConnection.this.close();
+    }
+  }
+
+  /** Sends a close_notify to the client and closes the underlying streams. */
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (!engine.isOutboundDone()) {
+        engine.closeOutbound();
+        try {
+          doWrap(EMPTY);
+          networkOutput.flush();
+        } catch (IOException ignore) {
+          // The client may already have closed the connection.
+        }
+      }
+      networkOutput.close();
+    }
+    networkInput.close();
+  }
+}
@@ -0,0 +1,110 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.tls;
+
+import com.google.api.core.InternalApi;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Counts the TLS handshakes of all connections. */
+@InternalApi
+public final class TlsMetrics implements TlsMetricsMXBean {
+  private static final Logger logger = Logger.getLogger(TlsMetrics.class.getName());
+  private static final String OBJECT_NAME = "com.google.cloud.spanner.myadapter:type=TlsMetrics";
+
+  private static final TlsMetrics INSTANCE = register(new TlsMetrics());
+
+  private final LongAdder fullHandshakes = new LongAdder();
+  private final LongAdder resumedHandshakes = new LongAdder();
+  private final LongAdder failedHandshakes = new LongAdder();
+  private final LongAdder fullHandshakeNanos = new LongAdder();
+  private final LongAdder resumedHandshakeNanos = new LongAdder();
+
+  private TlsMetrics() {}
+
+  public static TlsMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  private static TlsMetrics register(TlsMetrics metrics) {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(metrics, new ObjectName(OBJECT_NAME));
+    } catch (JMException exception) {
+      logger.log(Level.WARNING, exception, () -> "Could not register TLS metrics");
+    }
+    return metrics;
+  }
+
+  void recordHandshake(long nanos, boolean resumed) {
+    if (resumed) {
+      resumedHandshakes.increment();
+      resumedHandshakeNanos.add(nanos);
+    } else {
+      fullHandshakes.increment();
+      fullHandshakeNanos.add(nanos);
+    }
+  }
+
+  void recordFailedHandshake() {
+    failedHandshakes.increment();
+  }
+
+  @Override
+  public long getHandshakeCount() {
+    return fullHandshakes.sum() + resumedHandshakes.sum();
+  }
+
+  @Override
+  public long getResumedHandshakeCount() {
+    return resumedHandshakes.sum();
+  }
+
+  @Override
+  public long getFailedHandshakeCount() {
+    return failedHandshakes.sum();
+  }
+
+  @Override
+  public double getResumptionRate() {
+    long handshakes = getHandshakeCount();
+    return handshakes == 0 ? 0d : resumedHandshakes.sum() / (double) handshakes;
+  }
+
+  @Override
+  public double getAverageHandshakeMillis() {
+    return averageMillis(
+        fullHandshakeNanos.sum() + resumedHandshakeNanos.sum(), getHandshakeCount());
+  }
+
+  @Override
+  public double getAverageFullHandshakeMillis() {
+    return averageMillis(fullHandshakeNanos.sum(), fullHandshakes.sum());
+  }
+
+  @Override
+  public double getAverageResumedHandshakeMillis() {
+    return averageMillis(resumedHandshakeNanos.sum(), resumedHandshakes.sum());
+  }
+
+  private static double averageMillis(long nanos, long count) {
+    return count == 0 ? 0d : nanos / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
@@ -0,0 +1,40 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.tls;
+
+import com.google.api.core.InternalApi;
+
+/** TLS handshake metrics of the adapter, exposed through JMX. */
+@InternalApi
+public interface TlsMetricsMXBean {
+  long getHandshakeCount();
+
+  /** The number of resumed handshakes. Resumption is only detected for TLS 1.2 and older. */
+  long getResumedHandshakeCount();
+
+  long getFailedHandshakeCount();
+
+  /**
+   * The fraction of successful handshakes that resumed an earlier session. TLS 1.3 handshakes are
+   * counted as full handshakes.
+   */
+  double getResumptionRate();
+
+  double getAverageHandshakeMillis();
+
+  double getAverageFullHandshakeMillis();
+
+  double getAverageResumedHandshakeMillis();
+}
@@ -17,10 +17,13 @@ package com.google.cloud.spanner.myadapter.translator.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.myadapter.wireoutput.EncodedResponse;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class QueryReplacement {
@@ -35,6 +38,22 @@ public class QueryReplacement {
   private String tableOverrideValue;
   private OverrideOperation schemaOverrideType = OverrideOperation.NOT_APPLICABLE;
   private String schemaOverrideValue;
+  private ResultCacheMode resultCacheMode = ResultCacheMode.NONE;
+  private long resultCacheTtlSeconds;
+
+  /** The encoded result of this replacement, shared by all connections. */
+  @JsonIgnore
+  private final AtomicReference<CachedResponse> cachedResponse = new AtomicReference<>();
+
+  private static class CachedResponse {
+    private final EncodedResponse response;
+    private final long expiresAtNanos;
+
+    private CachedResponse(EncodedResponse response, long expiresAtNanos) {
+      this.response = response;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
 
   public QueryReplacement(Statement sourceStatement) {
     this.inputCommand = sourceStatement.getSql();
@@ -75,6 +94,44 @@ public class QueryReplacement {
     this.columnOverride = columnOverride;
   }
 
+  public void setResultCacheMode(ResultCacheMode resultCacheMode) {
+    this.resultCacheMode = resultCacheMode;
+  }
+
+  public ResultCacheMode getResultCacheMode() {
+    return resultCacheMode;
+  }
+
+  public void setResultCacheTtlSeconds(long resultCacheTtlSeconds) {
+    this.resultCacheTtlSeconds = resultCacheTtlSeconds;
+  }
+
+  public boolean isResultCacheEnabled() {
+    return resultCacheMode == ResultCacheMode.STATIC
+        || (resultCacheMode == ResultCacheMode.TTL && resultCacheTtlSeconds > 0);
+  }
+
+  /** Returns the cached encoded result of this replacement, or null if there is no valid one. */
+  public EncodedResponse getCachedResponse() {
+    CachedResponse cached = cachedResponse.get();
+    if (cached == null) {
+      return null;
+    }
+    if (resultCacheMode == ResultCacheMode.TTL && System.nanoTime() - cached.expiresAtNanos > 0) {
+      cachedResponse.compareAndSet(cached, null);
+      return null;
+    }
+    return cached.response;
+  }
+
+  public void cacheResponse(EncodedResponse response) {
+    if (isResultCacheEnabled()) {
+      cachedResponse.set(
+          new CachedResponse(
+              response, System.nanoTime() + TimeUnit.SECONDS.toNanos(resultCacheTtlSeconds)));
+    }
+  }
+
   public Statement getOutputQuery() {
     return outputQuery;
   }
@@ -118,6 +175,8 @@ public class QueryReplacement {
         + columnOverrideType
         + ", columnOverride="
         + columnOverride
+        + ", resultCacheMode="
+        + resultCacheMode
         + '}';
   }
 }
@@ -26,10 +26,18 @@ import static com.google.cloud.spanner.myadapter.utils.Converter.MySqlFieldTypes
 
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.myadapter.parsers.LongParser;
 import com.google.cloud.spanner.myadapter.parsers.Parser;
 import com.google.cloud.spanner.myadapter.parsers.Parser.FormatCode;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.annotation.Nullable;
 
 /** Utility class for converting between generic MySQL conversions. */
 public class Converter {
@@ -75,6 +83,21 @@ public class Converter {
     MySqlFieldTypes(int type) {
       this.type = type;
     }
+
+    public int getType() {
+      return type;
+    }
+
+    /** Returns the field type with the given type code, or null if the code is unknown. */
+    @Nullable
+    public static MySqlFieldTypes fromType(int type) {
+      for (MySqlFieldTypes fieldType : values()) {
+        if (fieldType.type == type) {
+          return fieldType;
+        }
+      }
+      return null;
+    }
   }
 
   public static byte[] convertResultSetRowToDataRowResponse(ResultSet resultSet)
@@ -87,6 +110,105 @@ public class Converter {
     return buffer.toByteArray();
   }
 
+  /**
+   * Encodes the current row of the result set as a binary protocol row: a zero header byte, a null
+   * bitmap with an offset of two bits, and the binary encoded values of all non-null columns.
+   */
+  public static byte[] convertResultSetRowToBinaryRowResponse(ResultSet resultSet)
+      throws IOException {
+    int columnCount = resultSet.getColumnCount();
+    byte[] nullBitmap = new byte[(columnCount + 7 + 2) / 8];
+    ByteArrayOutputStream values = new ByteArrayOutputStream(256);
+    for (int i = 0; i < columnCount; ++i) {
+      Parser<?> parser = Parser.create(resultSet, resultSet.getColumnType(i), i);
+      if (parser.isNull()) {
+        nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+      } else {
+        values.write(parser.parse(FormatCode.BINARY));
+      }
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 + nullBitmap.length + values.size());
+    buffer.write(0x00);
+    buffer.write(nullBitmap);
+    values.writeTo(buffer);
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Encodes a text protocol row from values that are already formatted as strings. A null value is
+   * encoded as a MySQL NULL.
+   */
+  public static byte[] convertValuesToDataRowResponse(List<String> values) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+    for (String value : values) {
+      if (value == null) {
+        buffer.write(0xFB);
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.write(LongParser.getLengthEncodedBytes(bytes.length));
+        buffer.write(bytes);
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Encodes a binary protocol row from values that are already formatted as strings. Integers and
+   * dates are encoded in the binary format of their column type, and all other values as length
+   * encoded strings.
+   */
+  public static byte[] convertValuesToBinaryRowResponse(
+      List<String> values, List<MySqlFieldTypes> columnTypes) throws IOException {
+    byte[] nullBitmap = new byte[(values.size() + 7 + 2) / 8];
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+    for (int i = 0; i < values.size(); i++) {
+      String value = values.get(i);
+      if (value == null) {
+        nullBitmap[(i + 2) / 8] |= (byte) (1 << ((i + 2) % 8));
+        continue;
+      }
+      MySqlFieldTypes type = columnTypes.get(i);
+      if (type == MYSQL_TYPE_TINYINT) {
+        buffer.write(Integer.parseInt(value));
+      } else if (type == MYSQL_TYPE_LONGLONG) {
+        long number = Long.parseLong(value);
+        buffer.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(number).array());
+      } else if (type == MYSQL_TYPE_DATE) {
+        LocalDate date = LocalDate.parse(value);
+        buffer.write(
+            new byte[] {
+              4,
+              (byte) (date.getYear() & 255),
+              (byte) (date.getYear() >> 8),
+              (byte) date.getMonthValue(),
+              (byte) date.getDayOfMonth()
+            });
+      } else if (type == MYSQL_TYPE_DATETIME) {
+        LocalDateTime dateTime = LocalDateTime.parse(value.replace(' ', 'T'));
+        buffer.write(
+            new byte[] {
+              7,
+              (byte) (dateTime.getYear() & 255),
+              (byte) (dateTime.getYear() >> 8),
+              (byte) dateTime.getMonthValue(),
+              (byte) dateTime.getDayOfMonth(),
+              (byte) dateTime.getHour(),
+              (byte) dateTime.getMinute(),
+              (byte) dateTime.getSecond()
+            });
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.write(LongParser.getLengthEncodedBytes(bytes.length));
+        buffer.write(bytes);
+      }
+    }
+    ByteArrayOutputStream row = new ByteArrayOutputStream(1 + nullBitmap.length + buffer.size());
+    row.write(0x00);
+    row.write(nullBitmap);
+    buffer.writeTo(row);
+    return row.toByteArray();
+  }
+
   public static byte convertToMySqlCode(Type.Code spannerTypeCode) {
     switch (spannerTypeCode) {
       case BOOL:
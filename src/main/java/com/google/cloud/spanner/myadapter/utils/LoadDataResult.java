@@ -0,0 +1,73 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.utils;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.connection.StatementResult;
+
+/**
+ * The result of a LOAD DATA statement. The update count is the number of rows that were written,
+ * and the info message reports the records, skipped records, warnings and throughput in the
+ * format that MySQL uses.
+ */
+@InternalApi
+public final class LoadDataResult implements StatementResult {
+  private final long records;
+  private final long rows;
+  private final long skipped;
+  private final long warnings;
+  private final long elapsedMillis;
+
+  public LoadDataResult(long records, long rows, long skipped, long warnings, long elapsedMillis) {
+    this.records = records;
+    this.rows = rows;
+    this.skipped = skipped;
+    this.warnings = warnings;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  /** Returns the number of warnings, which is reported in the OK packet. */
+  public int getWarningCount() {
+    return (int) Math.min(warnings, 0xffff);
+  }
+
+  /** Returns the info message of the OK packet. */
+  public String getInfo() {
+    return String.format(
+        "Records: %d  Deleted: 0  Skipped: %d  Warnings: %d  Rows/s: %d",
+        records, skipped, warnings, rows * 1000L / Math.max(1L, elapsedMillis));
+  }
+
+  @Override
+  public ResultType getResultType() {
+    return ResultType.UPDATE_COUNT;
+  }
+
+  @Override
+  public ClientSideStatementType getClientSideStatementType() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ResultSet getResultSet() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Long getUpdateCount() {
+    return rows;
+  }
+}
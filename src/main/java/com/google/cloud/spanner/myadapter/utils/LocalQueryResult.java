@@ -0,0 +1,108 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.utils;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.connection.StatementResult;
+import com.google.cloud.spanner.myadapter.utils.Converter.MySqlFieldTypes;
+import com.google.cloud.spanner.myadapter.wireoutput.ColumnDefinitionResponse;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Implementation of {@link StatementResult} for queries that are answered by the adapter itself
+ * instead of by Spanner. The column definitions are encoded in advance, so they can be shared by
+ * all executions of the same query, and the rows contain values that are already formatted as
+ * strings.
+ */
+@InternalApi
+public final class LocalQueryResult implements StatementResult {
+  private static final int CHARSET_UTF8_MB4 = 255;
+  private static final int CHARSET_BINARY = 63;
+  private static final int MAX_COLUMN_LENGTH = 20;
+
+  private final ImmutableList<byte[]> columnDefinitions;
+  private final List<List<String>> rows;
+
+  public LocalQueryResult(ImmutableList<byte[]> columnDefinitions, List<List<String>> rows) {
+    this.columnDefinitions = columnDefinitions;
+    this.rows = rows;
+  }
+
+  /** Encodes the payload of a column definition packet for a column that is computed locally. */
+  public static byte[] encodeColumnDefinition(String columnName, Type.Code typeCode)
+      throws IOException {
+    return new ColumnDefinitionResponse.Builder()
+        .schema("")
+        .table("")
+        .originalTable("")
+        .column(columnName)
+        .originalColumn("")
+        .charset(typeCode == Type.Code.BYTES ? CHARSET_BINARY : CHARSET_UTF8_MB4)
+        .maxColumnLength(MAX_COLUMN_LENGTH)
+        .columnType(Converter.convertToMySqlCode(typeCode))
+        .columnDefinitionFlags(0)
+        .decimals(0)
+        .buildPayload();
+  }
+
+  public int getColumnCount() {
+    return columnDefinitions.size();
+  }
+
+  /** Returns the encoded payloads of the column definition packets of this result. */
+  public ImmutableList<byte[]> getColumnDefinitions() {
+    return columnDefinitions;
+  }
+
+  /**
+   * Returns the MySQL types of the columns. The type is read from the encoded column definition, in
+   * which it is followed by the flags, the decimals and two filler bytes.
+   */
+  public ImmutableList<MySqlFieldTypes> getColumnTypes() {
+    ImmutableList.Builder<MySqlFieldTypes> builder = ImmutableList.builder();
+    for (byte[] columnDefinition : columnDefinitions) {
+      builder.add(MySqlFieldTypes.fromType(columnDefinition[columnDefinition.length - 6] & 0xff));
+    }
+    return builder.build();
+  }
+
+  public List<List<String>> getRows() {
+    return rows;
+  }
+
+  @Override
+  public ResultType getResultType() {
+    return ResultType.RESULT_SET;
+  }
+
+  @Override
+  public ClientSideStatementType getClientSideStatementType() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public ResultSet getResultSet() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Long getUpdateCount() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireinput;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.myadapter.session.CapabilityFlags;
+import java.text.MessageFormat;
+import javax.annotation.Nullable;
+
+/**
+ * Changes the user of the current connection and resets its session state (COM_CHANGE_USER). The
+ * layout of the packet depends on the capabilities that the client sent in its handshake response.
+ */
+@InternalApi
+public class ChangeUserMessage extends WireMessage {
+
+  public static final int IDENTIFIER = 0x11;
+
+  @Nullable private final String username;
+  private final byte[] authResponse;
+  @Nullable private final String database;
+  private final int characterSet;
+  @Nullable private final String authPluginName;
+
+  public ChangeUserMessage(HeaderMessage headerMessage, int clientCapabilities) throws Exception {
+    super(headerMessage);
+    this.username = readNullTerminatedString();
+    if ((clientCapabilities & CapabilityFlags.CLIENT_SECURE_CONNECTION) != 0) {
+      this.authResponse = readBytes(this.bufferedInputStream.read());
+    } else {
+      this.authResponse = readNullTerminatedBytes();
+    }
+    this.database = readNullTerminatedString();
+    this.characterSet =
+        this.bufferedInputStream.available() >= 2 ? (int) readFixedLengthInt(2) : 0;
+    this.authPluginName =
+        (clientCapabilities & CapabilityFlags.CLIENT_PLUGIN_AUTH) != 0
+            ? readNullTerminatedString()
+            : null;
+    // Connection attributes are ignored.
+  }
+
+  @Nullable
+  public String getUsername() {
+    return username;
+  }
+
+  public byte[] getAuthResponse() {
+    return authResponse;
+  }
+
+  @Nullable
+  public String getDatabase() {
+    return database;
+  }
+
+  /** Returns the character set of the client, or 0 if the client did not send one. */
+  public int getCharacterSet() {
+    return characterSet;
+  }
+
+  @Nullable
+  public String getAuthPluginName() {
+    return authPluginName;
+  }
+
+  @Override
+  protected void processRequest() throws Exception {}
+
+  @Override
+  protected String getMessageName() {
+    return "ChangeUserMessage";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return new MessageFormat("Length: {0}, User: {1}, Database: {2}, Plugin: {3}")
+        .format(new Object[] {this.length, this.username, this.database, this.authPluginName});
+  }
+
+  @Override
+  protected String getIdentifier() {
+    return String.valueOf(IDENTIFIER);
+  }
+}
@@ -15,17 +15,96 @@
 package com.google.cloud.spanner.myadapter.wireinput;
 
 import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.myadapter.session.CapabilityFlags;
 import java.text.MessageFormat;
+import javax.annotation.Nullable;
 
-/** Executes a simple statement. */
+/**
+ * The handshake response of the client (Protocol::HandshakeResponse41). A short packet that only
+ * contains the capability flags, max packet size and character set is an SSL request.
+ */
 @InternalApi
 public class ClientHandshakeMessage extends WireMessage {
 
   protected static final char IDENTIFIER = 'Q';
+  private static final int FILLER_LENGTH = 23;
+
+  private final int capabilityFlags;
+  private final long maxPacketSize;
+  private final int characterSet;
+  private final boolean sslRequest;
+  @Nullable private final String username;
+  private final byte[] authResponse;
+  @Nullable private final String database;
+  @Nullable private final String authPluginName;
 
   public ClientHandshakeMessage(HeaderMessage headerMessage) throws Exception {
     super(headerMessage);
-    // We don't need to do anything with the received payload at this point.
+    this.capabilityFlags = (int) readFixedLengthInt(4);
+    this.maxPacketSize = readFixedLengthInt(4);
+    this.characterSet = this.bufferedInputStream.read();
+    this.bufferedInputStream.skip(FILLER_LENGTH);
+    this.sslRequest = this.bufferedInputStream.available() == 0;
+    if (sslRequest) {
+      this.username = null;
+      this.authResponse = new byte[0];
+      this.database = null;
+      this.authPluginName = null;
+      return;
+    }
+    this.username = readNullTerminatedString();
+    if (hasCapability(CapabilityFlags.CLIENT_PLUGIN_AUTH_LENENC_CLIENT_DATA)) {
+      this.authResponse = readBytes((int) readLengthEncodedInt());
+    } else if (hasCapability(CapabilityFlags.CLIENT_SECURE_CONNECTION)) {
+      this.authResponse = readBytes(this.bufferedInputStream.read());
+    } else {
+      this.authResponse = readNullTerminatedBytes();
+    }
+    this.database =
+        hasCapability(CapabilityFlags.CLIENT_CONNECT_WITH_DB) ? readNullTerminatedString() : null;
+    this.authPluginName =
+        hasCapability(CapabilityFlags.CLIENT_PLUGIN_AUTH) ? readNullTerminatedString() : null;
+    // Connection attributes are ignored.
+  }
+
+  private boolean hasCapability(int capability) {
+    return (capabilityFlags & capability) != 0;
+  }
+
+  public int getCapabilityFlags() {
+    return capabilityFlags;
+  }
+
+  public long getMaxPacketSize() {
+    return maxPacketSize;
+  }
+
+  public int getCharacterSet() {
+    return characterSet;
+  }
+
+  /** Returns true if the client requests the connection to be upgraded to SSL. */
+  public boolean isSslRequest() {
+    return sslRequest;
+  }
+
+  @Nullable
+  public String getUsername() {
+    return username;
+  }
+
+  public byte[] getAuthResponse() {
+    return authResponse;
+  }
+
+  @Nullable
+  public String getDatabase() {
+    return database;
+  }
+
+  @Nullable
+  public String getAuthPluginName() {
+    return authPluginName;
   }
 
   @Override
@@ -38,7 +117,8 @@ public class ClientHandshakeMessage extends WireMessage {
 
   @Override
   protected String getPayloadString() {
-    return new MessageFormat("Length: {0}, SQL: {1}").format(new Object[] {this.length});
+    return new MessageFormat("Length: {0}, User: {1}, Database: {2}, Plugin: {3}")
+        .format(new Object[] {this.length, this.username, this.database, this.authPluginName});
   }
 
   @Override
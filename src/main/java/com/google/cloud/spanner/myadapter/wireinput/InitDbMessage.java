@@ -0,0 +1,55 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireinput;
+
+import com.google.api.core.InternalApi;
+import java.text.MessageFormat;
+
+/** Changes the default database of the connection (COM_INIT_DB). */
+@InternalApi
+public class InitDbMessage extends WireMessage {
+
+  public static final int IDENTIFIER = 0x02;
+
+  private final String database;
+
+  public InitDbMessage(HeaderMessage headerMessage) throws Exception {
+    super(headerMessage);
+    this.database = this.readAll();
+  }
+
+  public String getDatabase() {
+    return database;
+  }
+
+  @Override
+  protected void processRequest() throws Exception {}
+
+  @Override
+  protected String getMessageName() {
+    return "InitDbMessage";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return new MessageFormat("Length: {0}, Database: {1}")
+        .format(new Object[] {this.length, this.database});
+  }
+
+  @Override
+  protected String getIdentifier() {
+    return String.valueOf(IDENTIFIER);
+  }
+}
@@ -0,0 +1,94 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireinput;
+
+import com.google.api.core.InternalApi;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The contents of a file that the client sends for LOAD DATA LOCAL INFILE. The file is sent in
+ * packets, and an empty packet marks the end of the file. The packets are read while the stream is
+ * being consumed, so the file is never completely held in memory.
+ */
+@InternalApi
+public class LocalInfileInputStream extends InputStream {
+  /** A packet of this length is continued in the next packet. */
+  private static final int MAX_PACKET_LENGTH = 0xffffff;
+
+  private final DataInputStream inputStream;
+  private ByteArrayInputStream packet = new ByteArrayInputStream(new byte[0]);
+  private int packetLength;
+  private int sequenceNumber;
+  private boolean finished;
+
+  public LocalInfileInputStream(DataInputStream inputStream, int sequenceNumber) {
+    this.inputStream = inputStream;
+    this.sequenceNumber = sequenceNumber;
+  }
+
+  /** Returns the sequence number of the last packet that was received from the client. */
+  public int getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  @Override
+  public int read() throws IOException {
+    while (!finished) {
+      int b = packet.read();
+      if (b >= 0) {
+        return b;
+      }
+      nextPacket();
+    }
+    return -1;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    while (!finished) {
+      int read = packet.read(buffer, offset, length);
+      if (read > 0) {
+        return read;
+      }
+      nextPacket();
+    }
+    return -1;
+  }
+
+  /**
+   * Reads and discards the rest of the file, so the next packet that is read from the client is a
+   * new command.
+   */
+  public void skipRemaining() throws IOException {
+    while (!finished) {
+      nextPacket();
+    }
+  }
+
+  private void nextPacket() throws IOException {
+    boolean continued = packetLength == MAX_PACKET_LENGTH;
+    HeaderMessage headerMessage = HeaderMessage.create(inputStream);
+    sequenceNumber = headerMessage.getMessageSequenceNumber();
+    packetLength = headerMessage.getRemainingPayloadLength();
+    packet = headerMessage.getBufferedInputStream();
+    finished = packetLength == 0 && !continued;
+  }
+}
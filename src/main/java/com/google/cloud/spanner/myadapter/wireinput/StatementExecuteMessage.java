@@ -0,0 +1,278 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireinput;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Value;
+import com.google.cloud.spanner.myadapter.session.CapabilityFlags;
+import com.google.cloud.spanner.myadapter.statements.ServerPreparedStatement;
+import com.google.cloud.spanner.myadapter.utils.Converter.MySqlFieldTypes;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import javax.annotation.Nullable;
+
+/**
+ * Executes a prepared statement (COM_STMT_EXECUTE). The parameter values are sent in the binary
+ * protocol, and can only be decoded once the prepared statement is known.
+ */
+@InternalApi
+public class StatementExecuteMessage extends WireMessage {
+
+  public static final int IDENTIFIER = 0x17;
+
+  /** The client requests a read-only cursor for the result of the statement. */
+  public static final int CURSOR_TYPE_READ_ONLY = 0x01;
+  /** The number of parameters is sent explicitly, because it includes query attributes. */
+  private static final int PARAMETER_COUNT_AVAILABLE = 0x08;
+  private static final int UNSIGNED_FLAG = 0x80;
+
+  private final int statementId;
+  private final int flags;
+  private final boolean queryAttributes;
+
+  public StatementExecuteMessage(HeaderMessage headerMessage, int clientCapabilities)
+      throws Exception {
+    super(headerMessage);
+    this.statementId = (int) readFixedLengthInt(4);
+    this.flags = this.bufferedInputStream.read();
+    // The iteration count is always 1.
+    readFixedLengthInt(4);
+    this.queryAttributes = (clientCapabilities & CapabilityFlags.CLIENT_QUERY_ATTRIBUTES) != 0;
+  }
+
+  public int getStatementId() {
+    return statementId;
+  }
+
+  /** Returns true if the client requested a read-only cursor. */
+  public boolean isCursorRequested() {
+    return (flags & CURSOR_TYPE_READ_ONLY) != 0;
+  }
+
+  /**
+   * Reads the parameter values for the given statement. The parameter types are only sent if they
+   * have changed since the previous execution, in which case they are stored in the statement.
+   * Query attributes that follow the parameters of the statement are ignored. DATETIME and
+   * TIMESTAMP values are in the given time zone of the session, as in a text query.
+   */
+  public ImmutableList<Value> readParameters(ServerPreparedStatement statement, ZoneId timeZone)
+      throws IOException {
+    int parameterCount = statement.getParameterCount();
+    if (queryAttributes && (flags & PARAMETER_COUNT_AVAILABLE) != 0) {
+      parameterCount = (int) readLengthEncodedInt();
+    }
+    if (parameterCount == 0) {
+      return ImmutableList.of();
+    }
+    byte[] nullBitmap = readBytes((parameterCount + 7) / 8);
+    boolean newParametersBound = this.bufferedInputStream.read() == 1;
+    int[] types = statement.getParameterTypes();
+    if (newParametersBound) {
+      types = new int[parameterCount];
+      for (int i = 0; i < parameterCount; i++) {
+        types[i] = (int) readFixedLengthInt(2);
+        if (queryAttributes) {
+          // Skip the name of the parameter.
+          readBytes((int) readLengthEncodedInt());
+        }
+      }
+      statement.setParameterTypes(types);
+    }
+    if (types == null || types.length < parameterCount) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.INVALID_ARGUMENT,
+          "No parameter types have been sent for statement " + statementId);
+    }
+    ImmutableList.Builder<Value> values = ImmutableList.builder();
+    for (int i = 0; i < parameterCount; i++) {
+      boolean isNull = (nullBitmap[i / 8] & (1 << (i % 8))) != 0;
+      MySqlFieldTypes type = MySqlFieldTypes.fromType(types[i] & 0xff);
+      boolean unsigned = (types[i] & (UNSIGNED_FLAG << 8)) != 0;
+      Value value = isNull ? nullValue(type) : readValue(type, unsigned, timeZone);
+      if (i < statement.getParameterCount()) {
+        values.add(value);
+      }
+    }
+    return values.build();
+  }
+
+  private static Value nullValue(@Nullable MySqlFieldTypes type) {
+    if (type == null) {
+      return Value.string(null);
+    }
+    switch (type) {
+      case MYSQL_TYPE_TINYINT:
+      case MYSQL_TYPE_SHORT:
+      case MYSQL_TYPE_LONG:
+      case MYSQL_TYPE_INT24:
+      case MYSQL_TYPE_LONGLONG:
+      case MYSQL_TYPE_YEAR:
+        return Value.int64(null);
+      case MYSQL_TYPE_FLOAT:
+      case MYSQL_TYPE_DOUBLE:
+        return Value.float64(null);
+      case MYSQL_TYPE_DATE:
+        return Value.date(null);
+      case MYSQL_TYPE_DATETIME:
+      case MYSQL_TYPE_TIMESTAMP:
+        return Value.timestamp(null);
+      case MYSQL_TYPE_TINY_BLOB:
+      case MYSQL_TYPE_MEDIUM_BLOB:
+      case MYSQL_TYPE_LONG_BLOB:
+      case MYSQL_TYPE_BLOB:
+        return Value.bytes(null);
+      default:
+        return Value.string(null);
+    }
+  }
+
+  private Value readValue(@Nullable MySqlFieldTypes type, boolean unsigned, ZoneId timeZone)
+      throws IOException {
+    if (type == null) {
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.INVALID_ARGUMENT, "Unknown parameter type");
+    }
+    switch (type) {
+      case MYSQL_TYPE_NULL:
+        return Value.string(null);
+      case MYSQL_TYPE_TINYINT:
+        long tiny = readFixedLengthInt(1);
+        return Value.int64(unsigned ? tiny : (byte) tiny);
+      case MYSQL_TYPE_SHORT:
+      case MYSQL_TYPE_YEAR:
+        long shortValue = readFixedLengthInt(2);
+        return Value.int64(unsigned ? shortValue : (short) shortValue);
+      case MYSQL_TYPE_LONG:
+      case MYSQL_TYPE_INT24:
+        long intValue = readFixedLengthInt(4);
+        return Value.int64(unsigned ? intValue : (int) intValue);
+      case MYSQL_TYPE_LONGLONG:
+        return Value.int64(readFixedLengthInt(8));
+      case MYSQL_TYPE_FLOAT:
+        return Value.float64(Float.intBitsToFloat((int) readFixedLengthInt(4)));
+      case MYSQL_TYPE_DOUBLE:
+        return Value.float64(Double.longBitsToDouble(readFixedLengthInt(8)));
+      case MYSQL_TYPE_DATE:
+        LocalDateTime date = readDateTime();
+        return Value.date(
+            date == null
+                ? null
+                : Date.fromYearMonthDay(
+                    date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+      case MYSQL_TYPE_DATETIME:
+      case MYSQL_TYPE_TIMESTAMP:
+        LocalDateTime dateTime = readDateTime();
+        if (dateTime == null) {
+          return Value.timestamp(null);
+        }
+        Instant instant = dateTime.atZone(timeZone).toInstant();
+        return Value.timestamp(
+            Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano()));
+      case MYSQL_TYPE_TIME:
+        return Value.string(readTime());
+      case MYSQL_TYPE_DECIMAL:
+      case MYSQL_TYPE_NEWDECIMAL:
+        return Value.numeric(new BigDecimal(readLengthEncodedString()));
+      case MYSQL_TYPE_TINY_BLOB:
+      case MYSQL_TYPE_MEDIUM_BLOB:
+      case MYSQL_TYPE_LONG_BLOB:
+      case MYSQL_TYPE_BLOB:
+      case MYSQL_TYPE_GEOMETRY:
+        return Value.bytes(ByteArray.copyFrom(readBytes((int) readLengthEncodedInt())));
+      default:
+        return Value.string(readLengthEncodedString());
+    }
+  }
+
+  private String readLengthEncodedString() throws IOException {
+    return new String(readBytes((int) readLengthEncodedInt()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a binary DATE, DATETIME or TIMESTAMP value. Returns null for a zero date, which has
+   * length zero.
+   */
+  @Nullable
+  private LocalDateTime readDateTime() throws IOException {
+    int length = this.bufferedInputStream.read();
+    if (length == 0) {
+      return null;
+    }
+    int year = (int) readFixedLengthInt(2);
+    int month = this.bufferedInputStream.read();
+    int day = this.bufferedInputStream.read();
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int micros = 0;
+    if (length >= 7) {
+      hour = this.bufferedInputStream.read();
+      minute = this.bufferedInputStream.read();
+      second = this.bufferedInputStream.read();
+    }
+    if (length >= 11) {
+      micros = (int) readFixedLengthInt(4);
+    }
+    return LocalDateTime.of(year, month, day, hour, minute, second, micros * 1000);
+  }
+
+  /** Reads a binary TIME value and returns it in the format [-]hh:mm:ss[.ffffff]. */
+  private String readTime() throws IOException {
+    int length = this.bufferedInputStream.read();
+    if (length == 0) {
+      return "00:00:00";
+    }
+    boolean negative = this.bufferedInputStream.read() == 1;
+    long days = readFixedLengthInt(4);
+    long hours = days * 24 + this.bufferedInputStream.read();
+    int minutes = this.bufferedInputStream.read();
+    int seconds = this.bufferedInputStream.read();
+    String time = String.format("%s%02d:%02d:%02d", negative ? "-" : "", hours, minutes, seconds);
+    if (length >= 12) {
+      time += String.format(".%06d", readFixedLengthInt(4));
+    }
+    return time;
+  }
+
+  @Override
+  protected void processRequest() throws Exception {}
+
+  @Override
+  protected String getMessageName() {
+    return "StatementExecuteMessage";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return new MessageFormat("Length: {0}, Statement: {1}, Flags: {2}")
+        .format(new Object[] {this.length, this.statementId, this.flags});
+  }
+
+  @Override
+  protected String getIdentifier() {
+    return String.valueOf(IDENTIFIER);
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireinput;
+
+import com.google.api.core.InternalApi;
+import java.text.MessageFormat;
+
+/** Closes the cursor of a prepared statement (COM_STMT_RESET). */
+@InternalApi
+public class StatementResetMessage extends WireMessage {
+
+  public static final int IDENTIFIER = 0x1A;
+
+  private final int statementId;
+
+  public StatementResetMessage(HeaderMessage headerMessage) throws Exception {
+    super(headerMessage);
+    this.statementId = (int) readFixedLengthInt(4);
+  }
+
+  public int getStatementId() {
+    return statementId;
+  }
+
+  @Override
+  protected void processRequest() throws Exception {}
+
+  @Override
+  protected String getMessageName() {
+    return "StatementResetMessage";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return new MessageFormat("Length: {0}, Statement: {1}")
+        .format(new Object[] {this.length, this.statementId});
+  }
+
+  @Override
+  protected String getIdentifier() {
+    return String.valueOf(IDENTIFIER);
+  }
+}
@@ -17,10 +17,13 @@ package com.google.cloud.spanner.myadapter.wireinput;
 import com.google.api.core.InternalApi;
 import com.google.cloud.spanner.myadapter.ConnectionHandler;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /** Generic representation for a wire message, generally executed by calling process. */
 @InternalApi
@@ -132,6 +135,33 @@ public abstract class WireMessage {
     return value;
   }
 
+  protected byte[] readBytes(int length) throws IOException {
+    if (length < 0 || this.bufferedInputStream.available() < length) {
+      throw new IOException("Not enough data in the stream to read " + length + " bytes");
+    }
+    byte[] bytes = new byte[length];
+    this.bufferedInputStream.read(bytes);
+    return bytes;
+  }
+
+  protected byte[] readNullTerminatedBytes() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int value;
+    while ((value = this.bufferedInputStream.read()) > 0) {
+      bytes.write(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Returns the next null-terminated string, or null if the end of the packet has been reached. */
+  @Nullable
+  protected String readNullTerminatedString() {
+    if (this.bufferedInputStream.available() == 0) {
+      return null;
+    }
+    return new String(readNullTerminatedBytes(), StandardCharsets.UTF_8);
+  }
+
   public int getMessageSequenceNumber() {
     return messageSequenceNumber;
   }
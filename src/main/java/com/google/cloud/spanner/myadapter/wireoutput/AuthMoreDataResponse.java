@@ -0,0 +1,42 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import java.io.IOException;
+
+/** Extra data for the authentication method that the client and server are using. */
+public class AuthMoreDataResponse extends WireOutput {
+
+  public AuthMoreDataResponse(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, byte[] data)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+
+    byte[] authMoreDataIdentifier = new byte[] {0x01};
+    writePayload(authMoreDataIdentifier);
+    writePayload(data);
+  }
+
+  @Override
+  protected String getMessageName() {
+    return "AuthMoreData";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return "";
+  }
+}
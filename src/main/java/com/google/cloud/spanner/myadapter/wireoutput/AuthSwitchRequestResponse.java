@@ -0,0 +1,53 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** Asks the client to authenticate with a different authentication method. */
+public class AuthSwitchRequestResponse extends WireOutput {
+
+  private final String pluginName;
+
+  public AuthSwitchRequestResponse(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      String pluginName,
+      byte[] scramble)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+    this.pluginName = pluginName;
+
+    byte[] authSwitchIdentifier = new byte[] {(byte) 0xfe};
+    writePayload(authSwitchIdentifier);
+    writePayload(pluginName.getBytes(StandardCharsets.UTF_8));
+    byte[] nullTerminator = new byte[] {(byte) 0x00};
+    writePayload(nullTerminator);
+    writePayload(scramble);
+    writePayload(nullTerminator);
+  }
+
+  @Override
+  protected String getMessageName() {
+    return "AuthSwitchRequest";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return pluginName;
+  }
+}
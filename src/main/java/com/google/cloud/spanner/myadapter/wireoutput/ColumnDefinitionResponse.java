@@ -17,14 +17,15 @@ package com.google.cloud.spanner.myadapter.wireoutput;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.parsers.IntegerParser;
 import com.google.cloud.spanner.myadapter.parsers.StringParser;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 public class ColumnDefinitionResponse extends WireOutput {
 
-  String catalog = "def";
+  private static final String CATALOG = "def";
   // TODO : Today the MySQL cli does not accept any other value apart from 12 for
   //  fixedLengthFieldsLength. Assess that a constant value of 12 is good enough.
-  int fixedLengthFieldsLength = 12;
+  private static final int FIXED_LENGTH_FIELDS_LENGTH = 12;
 
   public static class Builder {
     int connectionSequenceNumber;
@@ -47,6 +48,12 @@ public class ColumnDefinitionResponse extends WireOutput {
       this.connectionMetadata = connectionMetadata;
     }
 
+    /**
+     * Creates a builder that is only used to encode the payload of a column definition with {@link
+     * #buildPayload()}, for example to cache it.
+     */
+    public Builder() {}
+
     public Builder schema(String schema) {
       this.schema = schema;
       return this;
@@ -100,38 +107,50 @@ public class ColumnDefinitionResponse extends WireOutput {
     public ColumnDefinitionResponse build() throws IOException {
       return new ColumnDefinitionResponse(this);
     }
+
+    /** Returns the encoded payload of the column definition packet, without a packet header. */
+    public byte[] buildPayload() throws IOException {
+      return encodePayload(this);
+    }
   }
 
   public ColumnDefinitionResponse(ColumnDefinitionResponse.Builder builder) throws IOException {
     super(builder.connectionSequenceNumber, builder.connectionMetadata);
 
-    writePayload(StringParser.getLengthEncodedBytes(catalog));
-    writePayload(StringParser.getLengthEncodedBytes(builder.schema));
-    writePayload(StringParser.getLengthEncodedBytes(builder.table));
-    writePayload(StringParser.getLengthEncodedBytes(builder.originalTable));
+    writePayload(encodePayload(builder));
+  }
+
+  private static byte[] encodePayload(ColumnDefinitionResponse.Builder builder)
+      throws IOException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+    payload.write(StringParser.getLengthEncodedBytes(CATALOG));
+    payload.write(StringParser.getLengthEncodedBytes(builder.schema));
+    payload.write(StringParser.getLengthEncodedBytes(builder.table));
+    payload.write(StringParser.getLengthEncodedBytes(builder.originalTable));
     // String columnName = resultSet.getMetadata().getRowType().getFields(columnIndex).getName();
-    writePayload(StringParser.getLengthEncodedBytes(builder.column));
+    payload.write(StringParser.getLengthEncodedBytes(builder.column));
     // TODO: Understand the relationship between columnName and originalColumnName.
-    writePayload(StringParser.getLengthEncodedBytes(builder.originalColumn));
-    writePayload(new byte[] {(byte) fixedLengthFieldsLength});
+    payload.write(StringParser.getLengthEncodedBytes(builder.originalColumn));
+    payload.write(new byte[] {(byte) FIXED_LENGTH_FIELDS_LENGTH});
     byte[] charSet =
         new byte[] {
           (byte) (builder.charset & 255), (byte) ((builder.charset >> 8) & 255)
         }; // binary charset
-    writePayload(charSet);
-    writePayload(IntegerParser.binaryParse(builder.maxColumnLength));
+    payload.write(charSet);
+    payload.write(IntegerParser.binaryParse(builder.maxColumnLength));
     byte[] columnType = new byte[] {(byte) builder.columnType};
-    writePayload(columnType);
+    payload.write(columnType);
     byte[] columnDefinitionFlags =
         new byte[] {
           (byte) (builder.columnDefinitionFlags & 255),
           (byte) ((builder.columnDefinitionFlags >> 8) & 255)
         };
-    writePayload(columnDefinitionFlags);
+    payload.write(columnDefinitionFlags);
     byte[] decimals = new byte[] {(byte) builder.decimals};
-    writePayload(decimals);
+    payload.write(decimals);
     byte[] iDontKnowWhatTheseBytesMean = new byte[] {(byte) 0x00, (byte) 0x00};
-    writePayload(iDontKnowWhatTheseBytesMean);
+    payload.write(iDontKnowWhatTheseBytesMean);
+    return payload.toByteArray();
   }
 
   @Override
@@ -0,0 +1,110 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.api.core.InternalApi;
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.common.primitives.Ints;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A complete response, consisting of one or more packets, that has been encoded in advance. The
+ * packets are written to the client as-is, except for the sequence numbers in the packet headers,
+ * which are patched to follow the sequence number of the request that is being answered.
+ *
+ * <p>Instances are immutable and can be shared by all connections.
+ */
+@InternalApi
+public class EncodedResponse {
+  private static final int HEADER_LENGTH = 4;
+  private static final int SEQUENCE_NUMBER_OFFSET = 3;
+
+  private final byte[] packets;
+  private final int[] sequenceNumberPositions;
+
+  private EncodedResponse(byte[] packets, int[] sequenceNumberPositions) {
+    this.packets = packets;
+    this.sequenceNumberPositions = sequenceNumberPositions;
+  }
+
+  /**
+   * Records the packets that are written to the {@link ConnectionMetadata} of this recorder, so
+   * they can be turned into an {@link EncodedResponse}.
+   */
+  public static class Recorder {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private final ConnectionMetadata connectionMetadata =
+        new ConnectionMetadata(new ByteArrayInputStream(new byte[0]), buffer);
+
+    /** Returns the {@link ConnectionMetadata} that {@link WireOutput}s should be written to. */
+    public ConnectionMetadata getConnectionMetadata() {
+      return connectionMetadata;
+    }
+
+    /** Returns the number of bytes that have been recorded so far. */
+    public int size() throws IOException {
+      connectionMetadata.getOutputStream().flush();
+      return buffer.size();
+    }
+
+    public EncodedResponse build() throws IOException {
+      connectionMetadata.getOutputStream().flush();
+      byte[] packets = buffer.toByteArray();
+      List<Integer> positions = new ArrayList<>();
+      int position = 0;
+      while (position + HEADER_LENGTH <= packets.length) {
+        int payloadLength =
+            (packets[position] & 255)
+                | ((packets[position + 1] & 255) << 8)
+                | ((packets[position + 2] & 255) << 16);
+        positions.add(position + SEQUENCE_NUMBER_OFFSET);
+        position += HEADER_LENGTH + payloadLength;
+      }
+      if (position != packets.length) {
+        throw new IOException("Recorded response does not consist of complete packets");
+      }
+      return new EncodedResponse(packets, Ints.toArray(positions));
+    }
+  }
+
+  /** Returns the total number of bytes of all packets in this response. */
+  public int size() {
+    return packets.length;
+  }
+
+  /**
+   * Writes this response to the client.
+   *
+   * @return the sequence number of the last packet that was written.
+   */
+  public int send(int currentSequenceNumber, ConnectionMetadata connectionMetadata, boolean flush)
+      throws IOException {
+    byte[] output = packets.clone();
+    for (int position : sequenceNumberPositions) {
+      output[position] = (byte) ++currentSequenceNumber;
+    }
+    DataOutputStream outputStream = connectionMetadata.getOutputStream();
+    outputStream.write(output);
+    if (flush) {
+      outputStream.flush();
+    }
+    return currentSequenceNumber;
+  }
+}
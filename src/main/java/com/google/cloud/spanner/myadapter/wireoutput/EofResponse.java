@@ -18,8 +18,20 @@ import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import java.io.IOException;
 
 public class EofResponse extends WireOutput {
+  public static final int SERVER_STATUS_AUTOCOMMIT = 0x0002;
+  /** A read-only cursor is open for the result set. */
+  public static final int SERVER_STATUS_CURSOR_EXISTS = 0x0040;
+  /** The last row of the cursor has been sent. */
+  public static final int SERVER_STATUS_LAST_ROW_SENT = 0x0080;
+
   public EofResponse(int currentSequenceNumber, ConnectionMetadata connectionMetadata)
       throws IOException {
+    this(currentSequenceNumber, connectionMetadata, SERVER_STATUS_AUTOCOMMIT);
+  }
+
+  public EofResponse(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, int serverStatus)
+      throws IOException {
     super(currentSequenceNumber, connectionMetadata);
 
     byte[] eofIdentifier = new byte[] {(byte) 0xfe};
@@ -31,8 +43,7 @@ public class EofResponse extends WireOutput {
     byte[] lastInsertId = new byte[] {(byte) 0x00};
     writePayload(lastInsertId);
 
-    byte[] serverStatus = {(byte) 2, (byte) 0};
-    writePayload(serverStatus);
+    writePayload(new byte[] {(byte) serverStatus, (byte) (serverStatus >> 8)});
 
     byte[] warnings = {(byte) 0, (byte) 0};
     writePayload(warnings);
@@ -0,0 +1,48 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Asks the client to send the contents of a file for LOAD DATA LOCAL INFILE. The client responds
+ * with the file in one or more packets, followed by an empty packet.
+ */
+public class LocalInfileRequest extends WireOutput {
+  private final String fileName;
+
+  public LocalInfileRequest(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, String fileName)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+    this.fileName = fileName;
+
+    byte[] localInfileIdentifier = new byte[] {(byte) 0xfb};
+    writePayload(localInfileIdentifier);
+    writePayload(fileName.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  protected String getMessageName() {
+    return "LocalInfileRequest";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return fileName;
+  }
+}
@@ -16,14 +16,51 @@ package com.google.cloud.spanner.myadapter.wireoutput;
 
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.parsers.LongParser;
+import com.google.cloud.spanner.myadapter.session.SessionState;
+import com.google.cloud.spanner.myadapter.session.SessionStateTracker;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
 
 public class OkResponse extends WireOutput {
+  private static final int SERVER_STATUS_AUTOCOMMIT = 0x0002;
+  private static final int SERVER_SESSION_STATE_CHANGED = 0x4000;
 
   public OkResponse(
       int currentSequenceNumber, ConnectionMetadata connectionMetadata, long updateCount)
       throws IOException {
+    this(currentSequenceNumber, connectionMetadata, updateCount, null);
+  }
+
+  /**
+   * Creates an OK packet that also reports the changes that have been recorded for the given
+   * session since the last OK packet, if the client supports session tracking.
+   */
+  public OkResponse(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      long updateCount,
+      @Nullable SessionState sessionState)
+      throws IOException {
+    this(currentSequenceNumber, connectionMetadata, updateCount, sessionState, 0, "");
+  }
+
+  /**
+   * Creates an OK packet with a number of warnings and a human readable info message, such as the
+   * statistics of a LOAD DATA statement.
+   */
+  public OkResponse(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      long updateCount,
+      @Nullable SessionState sessionState,
+      int warningCount,
+      String info)
+      throws IOException {
     super(currentSequenceNumber, connectionMetadata);
+    SessionStateTracker tracker =
+        sessionState == null ? null : sessionState.getSessionStateTracker();
+    boolean stateChanged = tracker != null && tracker.hasChanges();
 
     byte[] okIdentifier = new byte[] {0x00};
     writePayload(okIdentifier);
@@ -34,11 +71,26 @@ public class OkResponse extends WireOutput {
     byte[] lastInsertId = new byte[] {0x00};
     writePayload(lastInsertId);
 
-    byte[] serverStatus = {(byte) 2, (byte) 0};
+    int status = SERVER_STATUS_AUTOCOMMIT | (stateChanged ? SERVER_SESSION_STATE_CHANGED : 0);
+    byte[] serverStatus = {(byte) status, (byte) (status >> 8)};
     writePayload(serverStatus);
 
-    byte[] warnings = {(byte) 0, (byte) 0};
+    byte[] warnings = {(byte) warningCount, (byte) (warningCount >> 8)};
     writePayload(warnings);
+
+    byte[] infoBytes = info.getBytes(StandardCharsets.UTF_8);
+    if (tracker == null) {
+      // The info string is the rest of the packet if the client does not track session state.
+      writePayload(infoBytes);
+    } else if (stateChanged || infoBytes.length > 0) {
+      writePayload(LongParser.getLengthEncodedBytes(infoBytes.length));
+      writePayload(infoBytes);
+    }
+    if (stateChanged) {
+      byte[] stateInfo = tracker.consumeChanges();
+      writePayload(LongParser.getLengthEncodedBytes(stateInfo.length));
+      writePayload(stateInfo);
+    }
   }
 
   public OkResponse(int currentSequenceNumber, ConnectionMetadata connectionMetadata)
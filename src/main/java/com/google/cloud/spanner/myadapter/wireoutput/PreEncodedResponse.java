@@ -0,0 +1,43 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import java.io.IOException;
+
+/**
+ * Sends a packet with a payload that has been encoded in advance, for example a cached column
+ * definition. Only the packet header is computed when the packet is sent.
+ */
+public class PreEncodedResponse extends WireOutput {
+
+  public PreEncodedResponse(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, byte[] payload)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+
+    writePayload(payload);
+  }
+
+  @Override
+  protected String getMessageName() {
+    return "PreEncodedResponse";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return "";
+  }
+}
@@ -17,6 +17,9 @@ package com.google.cloud.spanner.myadapter.wireoutput;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.utils.Converter;
+import com.google.cloud.spanner.myadapter.utils.Converter.MySqlFieldTypes;
+import java.io.IOException;
+import java.util.List;
 
 public class RowResponse extends WireOutput {
 
@@ -28,6 +31,51 @@ public class RowResponse extends WireOutput {
     writePayload(Converter.convertResultSetRowToDataRowResponse(resultSet));
   }
 
+  /**
+   * Creates a row for the result of a prepared statement, which uses the binary protocol instead
+   * of the text protocol.
+   */
+  public static RowResponse binaryRow(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, ResultSet resultSet)
+      throws IOException {
+    return new RowResponse(
+        currentSequenceNumber,
+        connectionMetadata,
+        Converter.convertResultSetRowToBinaryRowResponse(resultSet));
+  }
+
+  /**
+   * Creates a binary protocol row for a result that was computed by the adapter, from values that
+   * are formatted as strings.
+   */
+  public static RowResponse binaryRow(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      List<String> values,
+      List<MySqlFieldTypes> columnTypes)
+      throws IOException {
+    return new RowResponse(
+        currentSequenceNumber,
+        connectionMetadata,
+        Converter.convertValuesToBinaryRowResponse(values, columnTypes));
+  }
+
+  private RowResponse(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, byte[] payload)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+
+    writePayload(payload);
+  }
+
+  public RowResponse(
+      int currentSequenceNumber, ConnectionMetadata connectionMetadata, List<String> values)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+
+    writePayload(Converter.convertValuesToDataRowResponse(values));
+  }
+
   @Override
   protected String getMessageName() {
     return "OkResponse";
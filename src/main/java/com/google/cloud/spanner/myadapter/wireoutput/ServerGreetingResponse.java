@@ -14,14 +14,24 @@
 
 package com.google.cloud.spanner.myadapter.wireoutput;
 
+import com.google.cloud.spanner.myadapter.auth.CachingSha2Password;
 import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
 import com.google.cloud.spanner.myadapter.parsers.IntegerParser;
+import com.google.cloud.spanner.myadapter.session.CapabilityFlags;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 public class ServerGreetingResponse extends WireOutput {
 
-  public ServerGreetingResponse(int currentSequenceNumber, ConnectionMetadata connectionMetadata)
+  private static final int SCRAMBLE_PART_1_LENGTH = 8;
+
+  public ServerGreetingResponse(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      int connectionId,
+      byte[] scramble,
+      boolean sslEnabled)
       throws IOException {
     super(currentSequenceNumber, connectionMetadata);
 
@@ -29,13 +39,14 @@ public class ServerGreetingResponse extends WireOutput {
     writePayload(protocol);
     String serverVersion = "8.0.31\0";
     writePayload(serverVersion.getBytes(StandardCharsets.UTF_8));
-    int threadId = 0;
-    writePayload(IntegerParser.binaryParse(threadId));
-    byte[] salt = new byte[8];
-    writePayload(salt); // salt
+    writePayload(IntegerParser.binaryParse(connectionId));
+    // The first part of the scramble.
+    writePayload(Arrays.copyOf(scramble, SCRAMBLE_PART_1_LENGTH));
     byte[] filler = new byte[] {(byte) 0x00}; // ???
     writePayload(filler);
-    byte[] serverCapabilities = {(byte) 255, (byte) 255};
+    // CLIENT_SSL is only advertised if the server can upgrade the connection.
+    int lowerCapabilities = sslEnabled ? 0xffff : 0xffff & ~CapabilityFlags.CLIENT_SSL;
+    byte[] serverCapabilities = {(byte) lowerCapabilities, (byte) (lowerCapabilities >> 8)};
     writePayload(serverCapabilities);
     byte[] charSet = new byte[] {(byte) 255};
     writePayload(charSet);
@@ -43,13 +54,15 @@ public class ServerGreetingResponse extends WireOutput {
     writePayload(serverStatus);
     byte[] eServerCapabilities = {(byte) 255, (byte) 223};
     writePayload(eServerCapabilities);
-    int authPluginDataLength = 21;
+    // The length of the scramble including its null terminator.
+    int authPluginDataLength = scramble.length + 1;
     writePayload(new byte[] {(byte) authPluginDataLength});
     byte[] reserved = new byte[10];
     writePayload(reserved);
-    byte[] extendedSalt = new byte[13];
-    writePayload(extendedSalt);
-    byte[] authPluginName = "caching_sha2_password".getBytes(StandardCharsets.UTF_8);
+    // The rest of the scramble, followed by a null terminator.
+    writePayload(Arrays.copyOfRange(scramble, SCRAMBLE_PART_1_LENGTH, scramble.length));
+    writePayload(new byte[] {(byte) 0x00});
+    byte[] authPluginName = CachingSha2Password.PLUGIN_NAME.getBytes(StandardCharsets.UTF_8);
     writePayload(authPluginName);
     byte[] nullTerminator = new byte[] {(byte) 0x00};
     writePayload(nullTerminator);
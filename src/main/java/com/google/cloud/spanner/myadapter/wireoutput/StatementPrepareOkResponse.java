@@ -0,0 +1,53 @@
+// Copyright 2022 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.cloud.spanner.myadapter.wireoutput;
+
+import com.google.cloud.spanner.myadapter.metadata.ConnectionMetadata;
+import com.google.cloud.spanner.myadapter.parsers.IntegerParser;
+import java.io.IOException;
+
+/**
+ * The first packet of the response to COM_STMT_PREPARE. It is followed by a column definition for
+ * each parameter and for each column of the result of the statement.
+ */
+public class StatementPrepareOkResponse extends WireOutput {
+
+  public StatementPrepareOkResponse(
+      int currentSequenceNumber,
+      ConnectionMetadata connectionMetadata,
+      int statementId,
+      int columnCount,
+      int parameterCount)
+      throws IOException {
+    super(currentSequenceNumber, connectionMetadata);
+
+    writePayload(new byte[] {0x00});
+    writePayload(IntegerParser.binaryParse(statementId));
+    writePayload(new byte[] {(byte) columnCount, (byte) (columnCount >> 8)});
+    writePayload(new byte[] {(byte) parameterCount, (byte) (parameterCount >> 8)});
+    // Filler, followed by the warning count.
+    writePayload(new byte[] {0x00, 0x00, 0x00});
+  }
+
+  @Override
+  protected String getMessageName() {
+    return "StatementPrepareOkResponse";
+  }
+
+  @Override
+  protected String getPayloadString() {
+    return "";
+  }
+}